@@ -0,0 +1,110 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.lambda.handler.BaseLambdaConnectorHandler;
+import com.amazonaws.appflow.custom.connector.model.query.ImmutableQueryDataRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.custom.connector.jdbc.handler.JDBCConnectorLambdaHandler;
+import org.custom.connector.jdbc.utils.TestContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of a fresh container: each fork is a new JVM that runs one measured operation, so the figures include
+ * class loading, static initialization and the JIT-less first run, like the first invocation of a Lambda function.
+ * <p>
+ * The table is seeded with plain JDBC and the request serialized during setup, so that only the connector's own work
+ * is measured; Jackson's core classes are therefore already loaded. {@link #firstQueryPrimed} runs
+ * {@link Priming#prime()} during setup, as PRIME_ON_INIT does in the init phase, to show what priming moves out of the
+ * first request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ColdStartBenchmark {
+  private static final String NAME = "cold_start";
+  private final TestContext context = new TestContext();
+  private byte[] queryRequest;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, SQLException {
+    String url = String.format("jdbc:h2:mem:%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", NAME);
+    try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+      try (Statement st = conn.createStatement()) {
+        st.execute("CREATE TABLE `employees` (`id` BIGINT PRIMARY KEY, `firstname` VARCHAR(64), "
+          + "`lastname` VARCHAR(64), `email` VARCHAR(128))");
+      }
+      try (PreparedStatement st = conn.prepareStatement("INSERT INTO `employees` VALUES (?, ?, ?, ?)")) {
+        for (int id = 1; id <= 100; id++) {
+          st.setLong(1, id);
+          st.setString(2, "First" + id);
+          st.setString(3, "Last" + id);
+          st.setString(4, "employee" + id + "@example.com");
+          st.addBatch();
+        }
+        st.executeBatch();
+      }
+    }
+    queryRequest = new ObjectMapper().writeValueAsBytes(ImmutableQueryDataRequest.builder()
+      .entityIdentifier(EmbeddedDatabase.ENTITY)
+      .selectedFieldNames(Arrays.asList("id", "firstname", "lastname", "email"))
+      .maxResults(100L)
+      .connectorContext(EmbeddedDatabase.connectorContext())
+      .build());
+  }
+
+  @Benchmark
+  public BaseLambdaConnectorHandler handlerConstruction() {
+    return new JDBCConnectorLambdaHandler(credentials -> EmbeddedDatabase.client(NAME));
+  }
+
+  @Benchmark
+  public byte[] firstQuery() throws IOException {
+    return invoke();
+  }
+
+  @Benchmark
+  public byte[] firstQueryPrimed(final Primed primed) throws IOException {
+    return invoke();
+  }
+
+  private byte[] invoke() throws IOException {
+    BaseLambdaConnectorHandler handler = new JDBCConnectorLambdaHandler(credentials -> EmbeddedDatabase.client(NAME));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    handler.handleRequest(new ByteArrayInputStream(queryRequest), output, context);
+    return output.toByteArray();
+  }
+
+  @State(Scope.Benchmark)
+  public static class Primed {
+    @Setup(Level.Trial)
+    public void prime() {
+      Priming.prime();
+    }
+  }
+}
@@ -0,0 +1,97 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.ImmutableConnectorContext;
+import com.amazonaws.appflow.custom.connector.model.credentials.AuthenticationType;
+import com.amazonaws.appflow.custom.connector.model.credentials.ImmutableCredentials;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Map;
+
+/**
+ * In-memory H2 database in MySQL mode standing in for the database the connector normally talks to. Each benchmark
+ * gets its own named database so their connection pools and cached metadata do not interfere.
+ */
+final class EmbeddedDatabase {
+  static final String ENTITY = "employees";
+  static final String SECRET_ARN = "arn:aws:secretsmanager:us-east-1:000000000000:secret:benchmark";
+
+  private EmbeddedDatabase() {
+  }
+
+  /**
+   * Setting the {@code benchmark.mysql.url} system property, with {@code benchmark.mysql.user} and
+   * {@code benchmark.mysql.password}, runs the benchmarks against that MySQL database instead, for figures that
+   * depend on the storage engine. Its employees table is dropped and recreated.
+   *
+   * @param name database name, unique per benchmark
+   * @return AbstractJDBCClient client whose pooled connections are opened against the in-memory database, using the
+   * H2 dialect, or against MySQL
+   */
+  static AbstractJDBCClient client(final String name) {
+    String mysqlUrl = System.getProperty("benchmark.mysql.url");
+    if (mysqlUrl != null) {
+      String user = System.getProperty("benchmark.mysql.user", "root");
+      String password = System.getProperty("benchmark.mysql.password", "");
+      return new MySQLClient(SECRET_ARN, Map.of("driver", "mysql", "hostname", "localhost", "port", "3306",
+        "database", name, "username", user, "password", password),
+        () -> DriverManager.getConnection(mysqlUrl, user, password));
+    }
+    String url = String.format("jdbc:h2:mem:%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", name);
+    Map<String, String> credentials = Map.of(
+      "driver", "h2",
+      "hostname", "localhost",
+      "port", "0",
+      "database", name,
+      "username", "sa",
+      "password", "");
+    return new H2Client(SECRET_ARN, credentials, () -> DriverManager.getConnection(url, "sa", ""));
+  }
+
+  static ImmutableConnectorContext connectorContext() {
+    return ImmutableConnectorContext.builder()
+      .apiVersion("v1")
+      .credentials(ImmutableCredentials.builder()
+        .secretArn(SECRET_ARN)
+        .authenticationType(AuthenticationType.CustomAuth)
+        .build())
+      .build();
+  }
+
+  /**
+   * (Re)creates the employees table holding {@code rows} rows with ids 1 to {@code rows}.
+   */
+  static void createEmployees(final JDBCClient client, final int rows) throws SQLException {
+    try (Connection conn = client.getConnection()) {
+      try (Statement st = conn.createStatement()) {
+        st.execute("DROP TABLE IF EXISTS `employees`");
+        st.execute("CREATE TABLE `employees` (`id` BIGINT PRIMARY KEY, `firstname` VARCHAR(64), "
+          + "`lastname` VARCHAR(64), `email` VARCHAR(128), `age` INT, `salary` DECIMAL(10,2), `hired` TIMESTAMP)");
+      }
+      try (PreparedStatement st = conn.prepareStatement("INSERT INTO `employees` VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+        for (int id = 1; id <= rows; id++) {
+          st.setLong(1, id);
+          st.setString(2, "First" + id);
+          st.setString(3, "Last" + id);
+          st.setString(4, "employee" + id + "@example.com");
+          st.setInt(5, 20 + id % 45);
+          st.setBigDecimal(6, BigDecimal.valueOf(3000000 + id, 2));
+          st.setTimestamp(7, new Timestamp(1_600_000_000_000L + id * 60_000L));
+          st.addBatch();
+          if (id % 1000 == 0) {
+            st.executeBatch();
+          }
+        }
+        st.executeBatch();
+      }
+    }
+  }
+}
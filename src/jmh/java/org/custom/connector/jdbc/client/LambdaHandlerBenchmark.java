@@ -0,0 +1,89 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.lambda.handler.BaseLambdaConnectorHandler;
+import com.amazonaws.appflow.custom.connector.model.query.ImmutableQueryDataRequest;
+import com.amazonaws.appflow.custom.connector.model.write.ImmutableWriteDataRequest;
+import com.amazonaws.appflow.custom.connector.model.write.WriteOperationType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.custom.connector.jdbc.handler.JDBCConnectorLambdaHandler;
+import org.custom.connector.jdbc.utils.TestContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full Lambda invocations through {@link BaseLambdaConnectorHandler#handleRequest}: request deserialization,
+ * validation, the client call and response serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LambdaHandlerBenchmark {
+  private final TestContext context = new TestContext();
+  private BaseLambdaConnectorHandler handler;
+  private byte[] queryRequest;
+  private byte[] writeRequest;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, SQLException {
+    AbstractJDBCClient client = EmbeddedDatabase.client("lambda_handler");
+    EmbeddedDatabase.createEmployees(client, 5_000);
+    handler = new JDBCConnectorLambdaHandler(credentials -> client);
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    queryRequest = objectMapper.writeValueAsBytes(ImmutableQueryDataRequest.builder()
+      .entityIdentifier(EmbeddedDatabase.ENTITY)
+      .selectedFieldNames(Arrays.asList("id", "firstname", "lastname", "email"))
+      .maxResults(1000L)
+      .connectorContext(EmbeddedDatabase.connectorContext())
+      .build());
+    writeRequest = objectMapper.writeValueAsBytes(ImmutableWriteDataRequest.builder()
+      .entityIdentifier(EmbeddedDatabase.ENTITY)
+      .idFieldNames(Collections.singletonList("id"))
+      .operation(WriteOperationType.UPDATE)
+      .allOrNone(false)
+      .records(Arrays.asList(
+        "{\"id\":\"1\",\"firstname\":\"Sophia\",\"lastname\":\"Oldham\",\"age\":\"41\",\"email\":\"\"}",
+        "{\"id\":\"2\",\"firstname\":\"Augustina\",\"lastname\":\"Revey\",\"age\":\"34\",\"email\":\"\"}"))
+      .connectorContext(EmbeddedDatabase.connectorContext())
+      .build());
+  }
+
+  @Benchmark
+  public byte[] queryData() throws IOException {
+    return invoke(queryRequest);
+  }
+
+  @Benchmark
+  public byte[] writeData() throws IOException {
+    return invoke(writeRequest);
+  }
+
+  private byte[] invoke(final byte[] request) throws IOException {
+    ByteArrayOutputStream response = new ByteArrayOutputStream();
+    handler.handleRequest(new ByteArrayInputStream(request), response, context);
+    return response.toByteArray();
+  }
+}
@@ -0,0 +1,41 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps a representative mix of MySQL column types, as returned by {@code SHOW COLUMNS}, to AppFlow field types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapFieldTypeBenchmark {
+  private final SqlDialect dialect = new MySQLDialect();
+  private final String[] types = {
+    "int(11)", "bigint unsigned", "varchar(255)", "decimal(10,2)", "datetime", "timestamp", "date",
+    "tinyint(1)", "double", "text", "json", "blob", "enum('a','b')", "float", "smallint(6)", "char(36)"
+  };
+
+  @Benchmark
+  public void mapFieldType(final Blackhole blackhole) {
+    for (String type : types) {
+      blackhole.consume(dialect.mapFieldType(type));
+    }
+  }
+}
@@ -0,0 +1,72 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.query.ImmutableQueryDataRequest;
+import com.amazonaws.appflow.custom.connector.model.query.QueryDataRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a page of records through {@link AbstractJDBCClient#queryData}: statement construction, keyset seek and JSON
+ * encoding of every row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryDataBenchmark {
+  private static final int ROWS = 20_000;
+
+  @Param({"100", "1000"})
+  private int pageSize;
+
+  private AbstractJDBCClient client;
+  private QueryDataRequest firstPage;
+  private QueryDataRequest nextPage;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    client = EmbeddedDatabase.client("query_data");
+    EmbeddedDatabase.createEmployees(client, ROWS);
+
+    firstPage = ImmutableQueryDataRequest.builder()
+      .entityIdentifier(EmbeddedDatabase.ENTITY)
+      .selectedFieldNames(Arrays.asList("id", "firstname", "lastname", "email", "age", "salary", "hired"))
+      .maxResults((long) pageSize)
+      .connectorContext(EmbeddedDatabase.connectorContext())
+      .build();
+    // Seek into the middle of the table the way a follow-up request does.
+    nextPage = ImmutableQueryDataRequest.builder()
+      .from(firstPage)
+      .nextToken(PageToken.keyset(Arrays.asList(String.valueOf(ROWS / 2))).encode())
+      .build();
+  }
+
+  @Benchmark
+  public QueryPage firstPage() {
+    return client.queryData(firstPage);
+  }
+
+  @Benchmark
+  public QueryPage keysetPage() {
+    return client.queryData(nextPage);
+  }
+}
@@ -0,0 +1,87 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upserts a batch of existing rows into a table with secondary indexes, once as {@code REPLACE}, which deletes and
+ * re-inserts every row, and once as the {@code INSERT ... ON DUPLICATE KEY UPDATE} that {@link MySQLDialect} emits.
+ * The difference depends on the storage engine, so run it against MySQL (see {@link EmbeddedDatabase#client}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpsertBenchmark {
+  private static final List<String> COLUMNS = Arrays.asList("id", "firstname", "lastname", "email", "age");
+
+  @Param({"REPLACE", "ON_DUPLICATE_KEY_UPDATE"})
+  private String statement;
+
+  @Param({"500"})
+  private int batchSize;
+
+  private AbstractJDBCClient client;
+  private String sql;
+  private int round;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    client = EmbeddedDatabase.client("upsert");
+    EmbeddedDatabase.createEmployees(client, 10_000);
+    try (Connection conn = client.getConnection();
+         Statement st = conn.createStatement()) {
+      st.execute("CREATE INDEX `employees_lastname` ON `employees` (`lastname`)");
+      st.execute("CREATE INDEX `employees_email` ON `employees` (`email`)");
+      st.execute("CREATE INDEX `employees_age` ON `employees` (`age`)");
+    }
+
+    MySQLDialect dialect = new MySQLDialect();
+    sql = "REPLACE".equals(statement)
+      ? dialect.insert(EmbeddedDatabase.ENTITY, COLUMNS, batchSize).replaceFirst("INSERT", "REPLACE")
+      : dialect.upsert(EmbeddedDatabase.ENTITY, COLUMNS, List.of("id"), batchSize);
+  }
+
+  /**
+   * Rewrites ids 1 to batchSize, changing only the age so most index entries stay valid.
+   */
+  @Benchmark
+  public int upsert() throws SQLException {
+    round++;
+    try (Connection conn = client.getConnection();
+         PreparedStatement st = conn.prepareStatement(sql)) {
+      int index = 1;
+      for (int id = 1; id <= batchSize; id++) {
+        st.setLong(index++, id);
+        st.setString(index++, "First" + id);
+        st.setString(index++, "Last" + id);
+        st.setString(index++, "employee" + id + "@example.com");
+        st.setInt(index++, 20 + (id + round) % 45);
+      }
+      return st.executeUpdate();
+    }
+  }
+}
@@ -0,0 +1,73 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.write.ImmutableWriteDataRequest;
+import com.amazonaws.appflow.custom.connector.model.write.WriteDataRequest;
+import com.amazonaws.appflow.custom.connector.model.write.WriteOperationType;
+import com.amazonaws.appflow.custom.connector.model.write.WriteRecordResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a batch of AppFlow records through {@link AbstractJDBCClient#writeData}: JSON parsing, grouping by column set,
+ * SQL construction and parameter binding. Every invocation rewrites the same ids, so the table size stays constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteDataBenchmark {
+  @Param({"UPSERT", "UPDATE"})
+  private WriteOperationType operation;
+
+  @Param({"500"})
+  private int batchSize;
+
+  private AbstractJDBCClient client;
+  private WriteDataRequest request;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    client = EmbeddedDatabase.client("write_data");
+    EmbeddedDatabase.createEmployees(client, batchSize);
+
+    List<String> records = new ArrayList<>(batchSize);
+    for (int id = 1; id <= batchSize; id++) {
+      records.add(String.format("{\"id\":\"%d\",\"firstname\":\"Name%d\",\"lastname\":\"Surname%d\","
+        + "\"email\":\"\",\"age\":\"%d\",\"salary\":\"4200.50\"}", id, id, id, 20 + id % 45));
+    }
+    request = ImmutableWriteDataRequest.builder()
+      .entityIdentifier(EmbeddedDatabase.ENTITY)
+      .idFieldNames(Collections.singletonList("id"))
+      .operation(operation)
+      .allOrNone(false)
+      .records(records)
+      .connectorContext(EmbeddedDatabase.connectorContext())
+      .build();
+  }
+
+  @Benchmark
+  public List<WriteRecordResult> writeData() throws SQLException {
+    return client.writeData(request);
+  }
+}
@@ -0,0 +1,1467 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.metadata.DescribeEntityRequest;
+import com.amazonaws.appflow.custom.connector.model.metadata.Entity;
+import com.amazonaws.appflow.custom.connector.model.metadata.FieldDataType;
+import com.amazonaws.appflow.custom.connector.model.metadata.FieldDefinition;
+import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableEntity;
+import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableFieldDefinition;
+import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableReadOperationProperty;
+import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableWriteOperationProperty;
+import com.amazonaws.appflow.custom.connector.model.metadata.ListEntitiesRequest;
+import com.amazonaws.appflow.custom.connector.model.query.ImmutableQueryDataRequest;
+import com.amazonaws.appflow.custom.connector.model.query.QueryDataRequest;
+import com.amazonaws.appflow.custom.connector.model.write.ImmutableWriteRecordResult;
+import com.amazonaws.appflow.custom.connector.model.write.WriteDataRequest;
+import com.amazonaws.appflow.custom.connector.model.write.WriteOperationType;
+import com.amazonaws.appflow.custom.connector.model.write.WriteRecordResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.custom.connector.jdbc.config.JDBCConnectorConfiguration;
+import org.custom.connector.jdbc.config.RuntimeSettings;
+import org.custom.connector.jdbc.utils.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Driver;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and writes entities through JDBC. Everything that differs between databases, from identifier quoting to
+ * metadata queries, is left to the {@link SqlDialect} the client is created with.
+ */
+public abstract class AbstractJDBCClient implements JDBCClient {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AbstractJDBCClient.class);
+  // Prepared statement placeholder limit of the server, which bounds the rows of a multi-row INSERT.
+  private static final int MAX_PLACEHOLDERS = 65535;
+  private static final String STAGING_TABLE = "appflow_update_staging";
+  private static final Map<List<String>, CommitSizer> COMMIT_SIZERS = new ConcurrentHashMap<>();
+  private static final Map<List<String>, PageSizer> PAGE_SIZERS = new ConcurrentHashMap<>();
+  private static final Set<List<String>> INDEX_CHECKED_FILTERS = ConcurrentHashMap.newKeySet();
+  private static final TtlCache<String, Long> COUNT_CACHE = new TtlCache<>(Duration.ofMinutes(5));
+  private static final MetadataCache<List<Entity>> ENTITY_CACHE =
+    new MetadataCache<>(MetadataCache.DEFAULT_TTL, System::nanoTime);
+  private static final MetadataCache<List<FieldDefinition>> FIELD_CACHE =
+    new MetadataCache<>(MetadataCache.DEFAULT_TTL, System::nanoTime);
+  private static final Set<FieldDataType> INTEGRAL_TYPES =
+    EnumSet.of(FieldDataType.Integer, FieldDataType.Long, FieldDataType.BigInteger);
+  private static final ExecutorService PARTITION_READERS = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "partition-reader");
+    thread.setDaemon(true);
+    return thread;
+  });
+  static final WatermarkStore WATERMARKS = new WatermarkStore(WatermarkStore.DEFAULT_PATH);
+  // Clients are built per request; the mapper and its introspection caches are kept for the container.
+  static final ObjectMapper MAPPER = new ObjectMapper();
+  // Drivers by class name, loaded on first use so a cold start only pays for the database it connects to.
+  private static final Map<String, Driver> DRIVERS = new ConcurrentHashMap<>();
+  final String secretArn;
+  final Map<String, String> credentials;
+  final SqlDialect dialect;
+  private final ConnectionPool.ConnectionFactory connectionFactory;
+
+  /**
+   * @param connectionFactory opens physical connections in place of the JDBC URL built from the credentials,
+   *                          used to run the client against an embedded database; null to use the URL
+   */
+  AbstractJDBCClient(final String arn, final Map<String, String> creds, final SqlDialect dialect,
+                     final ConnectionPool.ConnectionFactory connectionFactory) {
+    secretArn = arn;
+    credentials = creds;
+    this.dialect = dialect;
+    this.connectionFactory = connectionFactory;
+  }
+
+  @Override
+  public List<WriteOperationType> getWriteOperations() {
+    List<WriteOperationType> writeOperationTypes = new ArrayList<>();
+    writeOperationTypes.add(WriteOperationType.UPSERT);
+    writeOperationTypes.add(WriteOperationType.UPDATE);
+    writeOperationTypes.add(WriteOperationType.INSERT);
+    return writeOperationTypes;
+  }
+
+  /**
+   * Lists the tables of the database. The list is cached per secret and revalidated against the dialect's checksum
+   * of the table list once its time to live has passed.
+   */
+  @Override
+  public List<Entity> getEntities(final ListEntitiesRequest request) throws SQLException {
+    try (Connection conn = getConnection()) {
+      return ENTITY_CACHE.get(Arrays.asList(secretArn, credentials.get("database")),
+        () -> queryFingerprint(conn, dialect.entitiesFingerprintSql()),
+        () -> listEntities(conn));
+    }
+  }
+
+  private List<Entity> listEntities(final Connection conn) throws SQLException {
+    final List<Entity> records = new ArrayList<Entity>();
+
+    DatabaseMetaData metaData = conn.getMetaData();
+    // Only tables of the connected database and schema can be read by their bare name.
+    try (ResultSet tables = metaData.getTables(conn.getCatalog(), conn.getSchema(), "%", dialect.tableTypes())) {
+      while (tables.next()) {
+        records.add(
+          ImmutableEntity.builder()
+            .entityIdentifier(tables.getString("TABLE_NAME"))
+            .description(tables.getString("TABLE_NAME"))
+            .label(tables.getString("TABLE_NAME"))
+            .hasNestedEntities(false)
+            .build());
+      }
+    }
+    return Collections.unmodifiableList(records);
+  }
+
+  @Override
+  public List<FieldDefinition> getFieldDefinitions(final DescribeEntityRequest request) throws SQLException {
+    try (Connection conn = getConnection()) {
+      return describeEntity(conn, request.entityIdentifier());
+    }
+  }
+
+  /**
+   * Field definitions of the entity, served from the metadata cache. Cached definitions are revalidated against the
+   * dialect's checksum of the table's columns once their time to live has passed.
+   */
+  List<FieldDefinition> describeEntity(final Connection conn, final String entity) throws SQLException {
+    return FIELD_CACHE.get(Arrays.asList(secretArn, credentials.get("database"), entity),
+      () -> queryFingerprint(conn, dialect.fieldsFingerprintSql(), entity),
+      () -> loadFieldDefinitions(conn, entity));
+  }
+
+  private List<FieldDefinition> loadFieldDefinitions(final Connection conn, final String entity) throws SQLException {
+    final List<FieldDefinition> fieldDefinitions = new ArrayList<>();
+
+    for (SqlDialect.Column column : dialect.describeColumns(conn, entity)) {
+      fieldDefinitions.add(ImmutableFieldDefinition.builder()
+        .fieldName(column.getName())
+        .dataType(dialect.mapFieldType(column.getType()))
+        .dataTypeLabel(column.getType())
+        .label(column.getName())
+        .isPrimaryKey(column.isPrimaryKey())
+        .readProperties(ImmutableReadOperationProperty.builder()
+          .isQueryable(true)
+          .isRetrievable(true)
+          .build())
+        .writeProperties(ImmutableWriteOperationProperty.builder()
+          .isNullable(true)
+          .isUpdatable(true)
+          .isCreatable(true)
+          .isDefaultedOnCreate(!column.isPrimaryKey())
+          .supportedWriteOperations(getWriteOperations())
+          .build())
+        .build());
+    }
+    return Collections.unmodifiableList(fieldDefinitions);
+  }
+
+  /**
+   * @return String checksum, null when the dialect or the server cannot compute it, in which case cached metadata is
+   * reloaded whenever it expires
+   */
+  private String queryFingerprint(final Connection conn, final String sql, final String... parameters) {
+    if (sql == null) {
+      return null;
+    }
+    try (PreparedStatement st = conn.prepareStatement(sql)) {
+      for (int i = 0; i < parameters.length; i++) {
+        st.setString(i + 1, parameters[i]);
+      }
+      try (ResultSet rs = st.executeQuery()) {
+        return rs.next() ? rs.getString(1) : null;
+      }
+    } catch (SQLException ex) {
+      LOGGER.debug("Metadata checksum unavailable: " + ex.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Primary key columns of the entity, used as the keyset for pagination. Empty when the table has no primary key.
+   */
+  private List<String> getPrimaryKeys(final Connection conn, final String entity) throws SQLException {
+    return describeEntity(conn, entity).stream()
+      .filter(field -> Boolean.TRUE.equals(field.isPrimaryKey()))
+      .map(FieldDefinition::fieldName)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Borrows a connection from the pool shared by every client of the same secret. Closing the returned connection
+   * hands it back to the pool.
+   */
+  @Override
+  public Connection getConnection() throws SQLException {
+    return getConnection(RuntimeSettings.of(null));
+  }
+
+  /**
+   * Borrows a connection, first resizing the pool to the poolSize setting when the flow has one. Flows sharing the
+   * secret share the pool, so the size last asked for applies to all of them.
+   */
+  Connection getConnection(final RuntimeSettings settings) throws SQLException {
+    Metrics metrics = Metrics.current();
+    try (Metrics.Timer ignored = metrics.time("ConnectionAcquire")) {
+      ConnectionPool pool = pool(settings);
+      Connection conn = pool.borrow();
+      metrics.gauge("PoolConnections", pool.getTotal());
+      metrics.gauge("PoolIdleConnections", pool.getIdle());
+      return conn;
+    } catch (SQLException ex) {
+      // handle any errors
+      LOGGER.error("SQLException: " + ex.getMessage());
+      LOGGER.error("SQLState: " + ex.getSQLState());
+      LOGGER.error("VendorError: " + ex.getErrorCode());
+      if (dialect.isAuthenticationFailure(ex)) {
+        // The secret may have been rotated, fetch it again on the next request.
+        SecretsManagerHelper.invalidate(secretArn);
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Checks the settings, and that the client's database can do what they ask for, such as change data capture or
+   * bulk loads.
+   */
+  @Override
+  public Map<String, String> validateSettings(final Map<String, String> settings) {
+    Map<String, String> errors = new LinkedHashMap<>(RuntimeSettings.validate(settings));
+    if (errors.isEmpty()) {
+      errors.putAll(unsupportedSettings(RuntimeSettings.of(settings)));
+    }
+    return errors;
+  }
+
+  /**
+   * @return Map error of each setting the client cannot honour, by its key
+   */
+  private Map<String, String> unsupportedSettings(final RuntimeSettings settings) {
+    Map<String, String> errors = new LinkedHashMap<>();
+    String error = "Not supported by the " + credentials.get("driver") + " driver";
+    if (settings.isChangeDataCapture() && !(this instanceof ChangeCapture)) {
+      errors.put(JDBCConnectorConfiguration.CDC, error);
+    }
+    if (settings.isBulkLoad() && !(this instanceof BulkLoader)) {
+      errors.put(JDBCConnectorConfiguration.BULK_LOAD, error);
+    }
+    return errors;
+  }
+
+  /**
+   * Rejects flows saved before their settings were checked against the driver.
+   */
+  private void requireSupported(final RuntimeSettings settings) {
+    Map<String, String> errors = unsupportedSettings(settings);
+    if (!errors.isEmpty()) {
+      throw new IllegalArgumentException("Unsupported connector runtime settings: " + errors);
+    }
+  }
+
+  /**
+   * @return ConnectionPool shared by every client of the secret, resized to the poolSize setting when the flow has one
+   */
+  private ConnectionPool pool(final RuntimeSettings settings) {
+    String uri = dialect.jdbcUrl(credentials);
+    List<String> poolKey = Arrays.asList(secretArn, uri, credentials.get("username"), credentials.get("password"));
+    ConnectionPool pool = ConnectionPool.forKey(poolKey, () -> {
+      try (Metrics.Timer connect = Metrics.current().time("ConnectionOpen")) {
+        return connectionFactory != null
+          ? connectionFactory.open()
+          : connect(uri);
+      }
+    });
+    if (settings.getPoolSize() != null) {
+      pool.resize(settings.getPoolSize());
+    }
+    return pool;
+  }
+
+  /**
+   * Opens a connection with the dialect's driver directly. DriverManager would first load and register every driver
+   * on the class path, which adds to the first request of each container.
+   */
+  private Connection connect(final String uri) throws SQLException {
+    Driver driver = driver(dialect.driverClassName());
+    Properties properties = new Properties();
+    if (credentials.get("username") != null) {
+      properties.setProperty("user", credentials.get("username"));
+    }
+    if (credentials.get("password") != null) {
+      properties.setProperty("password", credentials.get("password"));
+    }
+    Connection conn = driver.connect(uri, properties);
+    if (conn == null) {
+      throw new SQLException("Driver " + dialect.driverClassName() + " does not accept the URL " + uri);
+    }
+    return conn;
+  }
+
+  /**
+   * @return Driver of the class, loaded the first time it is asked for
+   */
+  static Driver driver(final String className) {
+    return DRIVERS.computeIfAbsent(className, name -> {
+      try {
+        return (Driver) Class.forName(name).getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("JDBC driver " + name + " is not on the class path", e);
+      }
+    });
+  }
+
+  /**
+   * Counts the rows matching the filter that are still ahead of the request cursor.
+   */
+  @Override
+  public long getTotalData(final QueryDataRequest request) {
+    RuntimeSettings settings = RuntimeSettings.of(request.connectorContext().connectorRuntimeSettings());
+    try (Connection conn = getConnection(settings)) {
+      PageToken token = PageToken.decode(request.nextToken());
+      List<String> keys = token.isKeyset() ? getPrimaryKeys(conn, request.entityIdentifier()) : List.of();
+      FilterExpression filter = parseFilter(conn, request);
+
+      String sql = "SELECT COUNT(*) as cnt FROM " + dialect.quote(request.entityIdentifier())
+        + buildWhereClause(filter, keys);
+
+      try (PreparedStatement st = conn.prepareStatement(sql)) {
+        st.setQueryTimeout(settings.getQueryTimeout());
+        int index = bindFilter(conn, st, request.entityIdentifier(), filter);
+        if (!keys.isEmpty()) {
+          bindKey(st, index, token.getKey());
+        }
+        try (ResultSet rs = executeQuery(st, "CountQuery")) {
+          rs.next();
+          return Math.max(0, rs.getLong("cnt") - token.getOffset());
+        }
+      }
+    } catch (SQLException ex) {
+      LOGGER.error("SQLException information");
+      while (ex != null) {
+        LOGGER.error("Error msg: " + ex.getMessage());
+        ex = ex.getNextException();
+      }
+      throw new RuntimeException("Error");
+    }
+  }
+
+  /**
+   * Cheap row count for callers that do not need an exact figure. Unfiltered entities use the database's estimate
+   * where the dialect has one; filtered ones, and tables the database has no estimate for, fall back to an exact count
+   * that is cached for a short while.
+   */
+  @Override
+  public long estimateTotalData(final QueryDataRequest request) {
+    if (request.filterExpression() == null && dialect.estimatedRowsSql() != null) {
+      try (Connection conn = getConnection();
+           PreparedStatement st = conn.prepareStatement(dialect.estimatedRowsSql())) {
+        st.setString(1, request.entityIdentifier());
+        try (ResultSet rs = st.executeQuery()) {
+          if (rs.next()) {
+            long estimate = rs.getLong(1);
+            if (!rs.wasNull()) {
+              return estimate;
+            }
+          }
+        }
+      } catch (SQLException ex) {
+        LOGGER.error("SQLException information");
+        while (ex != null) {
+          LOGGER.error("Error msg: " + ex.getMessage());
+          ex = ex.getNextException();
+        }
+        throw new RuntimeException("Error");
+      }
+    }
+
+    String key = String.join("|", credentials.get("database"), request.entityIdentifier(),
+      String.valueOf(request.filterExpression()));
+    return COUNT_CACHE.get(key, () -> getTotalData(ImmutableQueryDataRequest.builder()
+      .from(request)
+      .nextToken(null)
+      .build()));
+  }
+
+  /**
+   * Reads one page of records. Tables with a primary key are paged by seeking past the last key returned
+   * ({@code WHERE pk > ? ORDER BY pk LIMIT ?}) so every page costs the same regardless of its depth; tables
+   * without one, and cursors issued as plain offsets, fall back to the dialect's offset paging.
+   * One row beyond maxResults is requested to find out whether a further page exists without counting the table.
+   * The pagination setting can force either way of paging, and maxPageSize caps the page size AppFlow asks for.
+   * <p>
+   * A page also ends once its records reach maxPageBytes, and the next one starts after its last row. The row size
+   * learned from earlier pages of the entity caps the rows asked of the database, so pages of wide rows are not
+   * fetched only to be cut short.
+   */
+  @Override
+  public QueryPage queryData(final QueryDataRequest pageRequest) {
+    RuntimeSettings settings = RuntimeSettings.of(pageRequest.connectorContext().connectorRuntimeSettings());
+    requireSupported(settings);
+    QueryDataRequest request = capPageSize(pageRequest, settings.getMaxPageSize());
+    PageSizer sizer = PAGE_SIZERS.computeIfAbsent(Arrays.asList(secretArn, credentials.get("database"),
+      request.entityIdentifier(), String.join(",", request.selectedFieldNames())), key -> new PageSizer());
+    if (request.maxResults() != null) {
+      request = capPageSize(request, sizer.rows(settings.getMaxPageBytes()));
+    }
+    QueryPage page = readPage(request, settings);
+    sizer.measured(page.getRecords());
+    return page;
+  }
+
+  private QueryPage readPage(final QueryDataRequest request, final RuntimeSettings settings) {
+    List<String> records = new ArrayList<String>();
+    List<String> selectedFields = request.selectedFieldNames();
+    PageToken token = PageToken.decode(request.nextToken());
+
+    if (token.isBinlog() || (token.isFirst() && settings.isChangeDataCapture())) {
+      if (!(this instanceof ChangeCapture)) {
+        throw new IllegalArgumentException("nextToken belongs to a change data capture read, which the "
+          + credentials.get("driver") + " driver does not support");
+      }
+      return ((ChangeCapture) this).queryChanges(request, token);
+    }
+
+    String incrementalField = settings.getIncrementalField();
+    if (token.isIncremental() && incrementalField == null) {
+      throw new IllegalArgumentException("nextToken belongs to an incremental read but no incremental field is set");
+    }
+    if (token.isIncremental() || (token.isFirst() && incrementalField != null)) {
+      return queryIncremental(request, token, incrementalField, settings);
+    }
+
+    if (token.isPartitioned()
+      || (token.isFirst() && settings.getParallelism() > 1 && request.maxResults() != null)) {
+      QueryPage page = queryPartitions(request, token, settings);
+      if (page != null) {
+        return page;
+      }
+    }
+
+    try (Connection conn = getConnection(settings)) {
+      List<String> keys = (token.isFirst() && settings.getPagination() != RuntimeSettings.Pagination.OFFSET)
+        || token.isKeyset()
+        ? getPrimaryKeys(conn, request.entityIdentifier())
+        : List.of();
+      if (keys.isEmpty() && token.isFirst() && settings.getPagination() == RuntimeSettings.Pagination.KEYSET) {
+        throw new IllegalArgumentException(
+          "Keyset pagination needs a primary key, which " + request.entityIdentifier() + " does not have");
+      }
+      boolean keyset = !keys.isEmpty();
+      FilterExpression filter = parseFilter(conn, request);
+
+      Set<String> largeObjects = largeObjects(conn, request, keys);
+      List<String> columns = new ArrayList<>(selectedFields);
+      keys.stream().filter(key -> !selectedFields.contains(key)).forEach(columns::add);
+
+      String sql = select(columns, request.entityIdentifier(), largeObjects, settings)
+        + buildWhereClause(filter, keyset && token.isKeyset() ? keys : List.of());
+      if (keyset) {
+        sql = sql + " ORDER BY " + dialect.quoteAll(keys);
+      }
+      if (request.maxResults() != null) {
+        sql = dialect.page(sql, !keyset);
+      }
+
+      try (PreparedStatement st = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+        ResultSet.CONCUR_READ_ONLY)) {
+        dialect.streamResults(conn, st, settings.getFetchSize());
+        st.setQueryTimeout(settings.getQueryTimeout());
+        int index = bindFilter(conn, st, request.entityIdentifier(), filter);
+        if (keyset && token.isKeyset()) {
+          index = bindKey(st, index, token.getKey());
+        }
+        if (request.maxResults() != null) {
+          st.setLong(index++, request.maxResults() + 1);
+          if (!keyset) {
+            st.setLong(index, token.getOffset());
+          }
+        }
+
+        List<Integer> keyColumns = keys.stream().map(columns::indexOf).collect(Collectors.toList());
+        List<String> lastKey = new ArrayList<>();
+        boolean hasMore;
+        try (ResultSet rs = executeQuery(st, "QueryExecution")) {
+          hasMore = readRows(rs, new RowEncoder(selectedFields, largeObjects), request.maxResults(),
+            settings.getMaxPageBytes(), keyColumns, false, records, lastKey);
+        }
+
+        if (!hasMore) {
+          return new QueryPage(records, null);
+        }
+        PageToken next = keyset ? PageToken.keyset(lastKey) : PageToken.offset(token.getOffset() + records.size());
+        return new QueryPage(records, next.encode());
+      }
+    } catch (SQLException ex) {
+      LOGGER.error("SQLException information");
+      while (ex != null) {
+        LOGGER.error("Error msg: " + ex.getMessage());
+        ex = ex.getNextException();
+      }
+      throw new RuntimeException("Error");
+    }
+  }
+
+  /**
+   * @return QueryDataRequest asking for at most maxPageSize records, the request itself when it already does
+   */
+  private static QueryDataRequest capPageSize(final QueryDataRequest request, final Long maxPageSize) {
+    if (maxPageSize == null || (request.maxResults() != null && request.maxResults() <= maxPageSize)) {
+      return request;
+    }
+    return ImmutableQueryDataRequest.builder().from(request).maxResults(maxPageSize).build();
+  }
+
+  /**
+   * Encodes rows until the page is full: it holds maxResults rows, or rows of maxBytes or more. Without maxResults
+   * every row is read.
+   *
+   * @param keyColumns 0-based columns whose values of the last row of a full page are copied to lastKey
+   * @param everyPage  whether lastKey is also filled when the page is not full, for the last row read
+   * @return boolean whether the result holds more rows than fit on the page
+   */
+  private boolean readRows(final ResultSet rs, final RowEncoder encoder, final Long maxResults, final long maxBytes,
+                           final List<Integer> keyColumns, final boolean everyPage, final List<String> records,
+                           final List<String> lastKey)
+    throws SQLException {
+    RowTimer timer = new RowTimer();
+    long bytes = 0;
+    boolean full = false;
+    try {
+      while (rs.next()) {
+        if (full) {
+          return true;
+        }
+        String record = timer.encode(encoder, rs);
+        records.add(record);
+        bytes += PageSizer.responseBytes(record);
+        full = maxResults != null && (records.size() == maxResults || bytes >= maxBytes);
+        if (full || everyPage) {
+          // The last row read becomes the cursor of the next page, or the checkpoint of an incremental read.
+          lastKey.clear();
+          for (int column : keyColumns) {
+            lastKey.add(rs.getString(column + 1));
+          }
+        }
+      }
+      return false;
+    } finally {
+      timer.record();
+    }
+  }
+
+  /**
+   * Runs the query, timing it as the phase.
+   */
+  private static ResultSet executeQuery(final PreparedStatement st, final String phase) throws SQLException {
+    try (Metrics.Timer ignored = Metrics.current().time(phase)) {
+      return st.executeQuery();
+    }
+  }
+
+  /**
+   * Reads one page of an incremental read, which returns only the rows changed since the last complete run. Rows are
+   * read in the order of the incremental field and then the primary key, a range scan when the field is indexed, and
+   * each run picks up after the last row the previous one returned, saved as its checkpoint. Rows whose field equals
+   * that of the checkpoint are thus neither read twice nor skipped when they were written after the run. The upper
+   * bound is taken when the run starts and kept in the nextToken, so rows changed while the run pages through the
+   * table are left for the next run.
+   */
+  private QueryPage queryIncremental(final QueryDataRequest request, final PageToken token, final String field,
+                                     final RuntimeSettings settings) {
+    List<String> selectedFields = request.selectedFieldNames();
+    String entity = request.entityIdentifier();
+
+    List<String> watermarkKey = Arrays.asList(secretArn, credentials.get("database"), entity, field,
+      String.valueOf(request.filterExpression()));
+
+    try (Connection conn = getConnection(settings)) {
+      FilterExpression filter = parseFilter(conn, request);
+      String high = token.isIncremental() ? token.getWatermarkHigh() : queryWatermark(conn, request, filter, field);
+      if (high == null) {
+        return new QueryPage(List.of(), null);
+      }
+
+      List<String> keys = new ArrayList<>(List.of(field));
+      getPrimaryKeys(conn, entity).stream().filter(key -> !keys.contains(key)).forEach(keys::add);
+      // Key of the last row returned, by the previous page or else by the previous run.
+      List<String> after = token.isIncremental() ? token.getKey() : readCheckpoint(WATERMARKS.get(watermarkKey));
+      if (!after.isEmpty() && after.size() != keys.size()) {
+        // The primary key changed since the checkpoint was saved, resume after its field value alone.
+        after = after.subList(0, 1);
+      }
+
+      Set<String> largeObjects = largeObjects(conn, request, keys);
+      List<String> columns = new ArrayList<>(selectedFields);
+      keys.stream().filter(key -> !selectedFields.contains(key)).forEach(columns::add);
+
+      String where = buildWhereClause(filter, keys.subList(0, after.size()));
+      String sql = select(columns, entity, largeObjects, settings)
+        + where + (where.isEmpty() ? " WHERE " : " AND ")
+        + String.format("%s <= ? ORDER BY %s", dialect.quote(field), dialect.quoteAll(keys));
+      if (request.maxResults() != null) {
+        sql = dialect.page(sql, false);
+      }
+
+      try (PreparedStatement st = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+        ResultSet.CONCUR_READ_ONLY)) {
+        dialect.streamResults(conn, st, settings.getFetchSize());
+        st.setQueryTimeout(settings.getQueryTimeout());
+        int index = bindFilter(conn, st, entity, filter);
+        index = bindKey(st, index, after);
+        st.setString(index++, high);
+        if (request.maxResults() != null) {
+          st.setLong(index, request.maxResults() + 1);
+        }
+
+        List<String> records = new ArrayList<>();
+        List<String> lastKey = new ArrayList<>();
+        boolean hasMore;
+        try (ResultSet rs = executeQuery(st, "QueryExecution")) {
+          hasMore = readRows(rs, new RowEncoder(selectedFields, largeObjects), request.maxResults(),
+            settings.getMaxPageBytes(), keys.stream().map(columns::indexOf).collect(Collectors.toList()), true,
+            records, lastKey);
+        }
+
+        if (hasMore) {
+          return new QueryPage(records, PageToken.incremental(high, lastKey).encode());
+        }
+        List<String> checkpoint = lastKey.isEmpty() ? after : lastKey;
+        if (!checkpoint.isEmpty()) {
+          WATERMARKS.put(watermarkKey, MAPPER.writeValueAsString(checkpoint));
+        }
+        return new QueryPage(records, null);
+      }
+    } catch (SQLException ex) {
+      LOGGER.error("SQLException information");
+      while (ex != null) {
+        LOGGER.error("Error msg: " + ex.getMessage());
+        ex = ex.getNextException();
+      }
+      throw new RuntimeException("Error");
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Could not save the checkpoint of the incremental read", ex);
+    }
+  }
+
+  /**
+   * @param saved checkpoint of an incremental read, the key of its last row as a JSON array, null if there is none
+   * @return List key of the last row read, only the incremental field's value for a watermark saved as a plain value
+   */
+  private static List<String> readCheckpoint(final String saved) {
+    if (saved == null) {
+      return List.of();
+    }
+    try {
+      return MAPPER.readValue(saved, new TypeReference<List<String>>() { });
+    } catch (JsonProcessingException e) {
+      return List.of(saved);
+    }
+  }
+
+  /**
+   * @return String largest value of the incremental field among the rows matching the filter, null if there are none
+   */
+  private String queryWatermark(final Connection conn, final QueryDataRequest request,
+                                final FilterExpression filter, final String field) throws SQLException {
+    if (!isIndexed(conn, request.entityIdentifier(), field)) {
+      LOGGER.warn(String.format("Incremental field %s of %s is not indexed, every run scans the table",
+        field, request.entityIdentifier()));
+    }
+    String sql = String.format("SELECT MAX(%s) FROM %s", dialect.quote(field),
+      dialect.quote(request.entityIdentifier()))
+      + buildWhereClause(filter, List.of());
+    try (PreparedStatement st = conn.prepareStatement(sql)) {
+      bindFilter(conn, st, request.entityIdentifier(), filter);
+      try (ResultSet rs = executeQuery(st, "WatermarkQuery")) {
+        return rs.next() ? rs.getString(1) : null;
+      }
+    }
+  }
+
+  /**
+   * @return boolean whether an index starts with the column, letting the server seek to the watermark
+   */
+  private boolean isIndexed(final Connection conn, final String entity, final String column) throws SQLException {
+    try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, entity, false, true)) {
+      while (rs.next()) {
+        if (rs.getShort("ORDINAL_POSITION") == 1 && column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reads one page of a partitioned read: the entity is split into contiguous ranges of its primary key, which are
+   * read concurrently on separate pooled connections. Each range is paged by key on its own and its cursor is kept
+   * in the nextToken, so the page size is shared between the ranges that still have rows.
+   *
+   * @return QueryPage the page, or null when the entity has no single integral primary key to partition on
+   */
+  private QueryPage queryPartitions(final QueryDataRequest request, final PageToken token,
+                                    final RuntimeSettings settings) {
+    try {
+      PageToken plan = token.isPartitioned() ? token : planPartitions(request, settings);
+      if (plan == null) {
+        return null;
+      }
+
+      List<PageToken.Partition> partitions = plan.getPartitions();
+      long maxBytes = request.maxResults() == null ? Long.MAX_VALUE : settings.getMaxPageBytes() / partitions.size();
+      List<Future<PartitionPage>> reads = new ArrayList<>();
+      for (int i = 0; i < partitions.size(); i++) {
+        PageToken.Partition partition = partitions.get(i);
+        long limit = request.maxResults() == null
+          ? Long.MAX_VALUE - 1
+          : request.maxResults() / partitions.size() + (i < request.maxResults() % partitions.size() ? 1 : 0);
+        reads.add(limit == 0
+          ? null
+          : PARTITION_READERS.submit(Metrics.current().wrap(() ->
+          readPartition(request, plan.getPartitionColumn(), partition, limit, maxBytes, settings))));
+      }
+
+      List<String> records = new ArrayList<>();
+      List<PageToken.Partition> remaining = new ArrayList<>();
+      try {
+        for (int i = 0; i < partitions.size(); i++) {
+          PageToken.Partition partition = partitions.get(i);
+          if (reads.get(i) == null) {
+            remaining.add(partition);
+            continue;
+          }
+          PartitionPage page = reads.get(i).get();
+          records.addAll(page.records);
+          if (page.hasMore) {
+            remaining.add(new PageToken.Partition(partition.getLow(), partition.getHigh(), page.lastKey));
+          }
+        }
+      } catch (ExecutionException e) {
+        reads.stream().filter(Objects::nonNull).forEach(read -> read.cancel(true));
+        if (e.getCause() instanceof SQLException) {
+          throw (SQLException) e.getCause();
+        }
+        throw new RuntimeException("Error", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("Interrupted while reading partitions", e);
+      }
+
+      return new QueryPage(records, remaining.isEmpty()
+        ? null
+        : PageToken.partitioned(plan.getPartitionColumn(), remaining).encode());
+    } catch (SQLException ex) {
+      LOGGER.error("SQLException information");
+      while (ex != null) {
+        LOGGER.error("Error msg: " + ex.getMessage());
+        ex = ex.getNextException();
+      }
+      throw new RuntimeException("Error");
+    }
+  }
+
+  /**
+   * Splits the key range matching the filter, found with MIN/MAX over the primary key index, into equally wide
+   * partitions. There are no more partitions than the connection pool holds connections, as each is read on its own.
+   */
+  private PageToken planPartitions(final QueryDataRequest request, final RuntimeSettings settings)
+    throws SQLException {
+    try (Connection conn = getConnection(settings)) {
+      List<FieldDefinition> keys = describeEntity(conn, request.entityIdentifier()).stream()
+        .filter(field -> Boolean.TRUE.equals(field.isPrimaryKey()))
+        .collect(Collectors.toList());
+      if (keys.size() != 1 || !INTEGRAL_TYPES.contains(keys.get(0).dataType())) {
+        return null;
+      }
+
+      String key = keys.get(0).fieldName();
+      FilterExpression filter = parseFilter(conn, request);
+      String sql = String.format("SELECT MIN(%1$s), MAX(%1$s) FROM %2$s", dialect.quote(key),
+        dialect.quote(request.entityIdentifier()))
+        + buildWhereClause(filter, List.of());
+      try (PreparedStatement st = conn.prepareStatement(sql)) {
+        bindFilter(conn, st, request.entityIdentifier(), filter);
+        try (ResultSet rs = executeQuery(st, "PartitionPlanQuery")) {
+          rs.next();
+          long min = rs.getLong(1);
+          if (rs.wasNull()) {
+            return null;
+          }
+          BigInteger low = BigInteger.valueOf(min);
+          BigInteger width = BigInteger.valueOf(rs.getLong(2)).subtract(low).add(BigInteger.ONE);
+          int parallelism = Math.min(settings.getParallelism(), pool(settings).getMaxSize());
+          if (parallelism < settings.getParallelism()) {
+            LOGGER.info(String.format("Reading %d partitions instead of %d, the size of the connection pool",
+              parallelism, settings.getParallelism()));
+          }
+          BigInteger count = width.min(BigInteger.valueOf(parallelism));
+
+          List<PageToken.Partition> partitions = new ArrayList<>();
+          for (BigInteger i = BigInteger.ZERO; i.compareTo(count) < 0; i = i.add(BigInteger.ONE)) {
+            BigInteger start = low.add(width.multiply(i).divide(count));
+            BigInteger end = low.add(width.multiply(i.add(BigInteger.ONE)).divide(count)).subtract(BigInteger.ONE);
+            partitions.add(new PageToken.Partition(start.longValueExact(), end.longValueExact(), null));
+          }
+          return PageToken.partitioned(key, partitions);
+        }
+      }
+    }
+  }
+
+  private PartitionPage readPartition(final QueryDataRequest request, final String key,
+                                      final PageToken.Partition partition, final long limit, final long maxBytes,
+                                      final RuntimeSettings settings) throws SQLException {
+    List<String> selectedFields = request.selectedFieldNames();
+    List<String> columns = new ArrayList<>(selectedFields);
+    if (!selectedFields.contains(key)) {
+      columns.add(key);
+    }
+    int keyColumn = columns.indexOf(key) + 1;
+
+    try (Connection conn = getConnection(settings)) {
+      FilterExpression filter = parseFilter(conn, request);
+      Set<String> largeObjects = largeObjects(conn, request, List.of(key));
+      String where = buildWhereClause(filter, List.of());
+      String sql = dialect.page(select(columns, request.entityIdentifier(), largeObjects, settings)
+        + where + (where.isEmpty() ? " WHERE " : " AND ")
+        + String.format(partition.getAfter() == null ? "%1$s >= ? AND %1$s <= ?" : "%1$s > ? AND %1$s <= ?",
+        dialect.quote(key))
+        + " ORDER BY " + dialect.quote(key), false);
+      return readPartition(conn, sql, filter, largeObjects, request, keyColumn, partition, limit, maxBytes,
+        settings);
+    }
+  }
+
+  private PartitionPage readPartition(final Connection conn, final String sql, final FilterExpression filter,
+                                      final Set<String> largeObjects, final QueryDataRequest request,
+                                      final int keyColumn,
+                                      final PageToken.Partition partition, final long limit, final long maxBytes,
+                                      final RuntimeSettings settings) throws SQLException {
+    List<String> selectedFields = request.selectedFieldNames();
+    try (PreparedStatement st = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+      ResultSet.CONCUR_READ_ONLY)) {
+      dialect.streamResults(conn, st, settings.getFetchSize());
+      st.setQueryTimeout(settings.getQueryTimeout());
+      int index = bindFilter(conn, st, request.entityIdentifier(), filter);
+      st.setLong(index++, partition.getAfter() == null ? partition.getLow() : partition.getAfter());
+      st.setLong(index++, partition.getHigh());
+      st.setLong(index, limit + 1);
+
+      RowEncoder encoder = new RowEncoder(selectedFields, largeObjects);
+      List<String> records = new ArrayList<>();
+      Long lastKey = partition.getAfter();
+      boolean hasMore = false;
+      long bytes = 0;
+      RowTimer timer = new RowTimer();
+      try (ResultSet rs = executeQuery(st, "QueryExecution")) {
+        while (rs.next()) {
+          if (records.size() == limit || bytes >= maxBytes) {
+            hasMore = true;
+            break;
+          }
+          String record = timer.encode(encoder, rs);
+          records.add(record);
+          bytes += PageSizer.responseBytes(record);
+          lastKey = rs.getLong(keyColumn);
+        }
+      } finally {
+        timer.record();
+      }
+      return new PartitionPage(records, lastKey, hasMore);
+    }
+  }
+
+  /**
+   * @param largeObjects columns holding large objects, which are cut short or left out as the lobPolicy setting asks
+   */
+  private String select(final List<String> columns, final String entity, final Set<String> largeObjects,
+                        final RuntimeSettings settings) {
+    String projection = columns.stream()
+      .map(column -> {
+        if (!largeObjects.contains(column)) {
+          return dialect.quote(column);
+        }
+        switch (settings.getLobPolicy()) {
+          case TRUNCATE:
+            return dialect.truncate(column, settings.getLobLimit());
+          case SKIP:
+            return "NULL";
+          default:
+            return dialect.quote(column);
+        }
+      })
+      .collect(Collectors.joining(", "));
+    return String.format("SELECT %s FROM %s", projection, dialect.quote(entity));
+  }
+
+  /**
+   * Checks the selected fields against the entity's cached metadata, so that a field the entity does not have is
+   * rejected before it reaches the SQL, and finds those holding large objects. Key columns are read whole whatever
+   * their type, as the next page starts from their values.
+   *
+   * @param keys columns the read is paged by
+   * @return Set selected fields holding large objects
+   */
+  private Set<String> largeObjects(final Connection conn, final QueryDataRequest request, final List<String> keys)
+    throws SQLException {
+    String entity = request.entityIdentifier();
+    Map<String, FieldDefinition> fields = describeEntity(conn, entity).stream()
+      .collect(Collectors.toMap(FieldDefinition::fieldName, field -> field));
+    Set<String> largeObjects = new HashSet<>();
+    for (String name : request.selectedFieldNames()) {
+      FieldDefinition field = fields.get(name);
+      if (field == null) {
+        throw new IllegalArgumentException("Selected field " + name + " is not a field of " + entity);
+      }
+      if (!keys.contains(name) && field.dataTypeLabel() != null && dialect.isLargeObject(field.dataTypeLabel())) {
+        largeObjects.add(name);
+      }
+    }
+    return largeObjects;
+  }
+
+  /**
+   * Parses the filter of the request into a condition whose values are bound parameters, so that every page, and
+   * every run with the same filter shape, executes the same statement text. Fields the entity does not have are
+   * rejected. The first time a filter shape is seen for an entity, its fields are looked up among the table's indexes
+   * and a filter none of whose fields leads an index is logged, as the database scans the table for it.
+   *
+   * @return FilterExpression parsed filter, null when the request has none
+   */
+  private FilterExpression parseFilter(final Connection conn, final QueryDataRequest request) throws SQLException {
+    if (StringUtils.isBlank(request.filterExpression())) {
+      return null;
+    }
+    FilterExpression filter = FilterExpression.parse(request.filterExpression());
+    String entity = request.entityIdentifier();
+    Set<String> fieldNames = describeEntity(conn, entity).stream()
+      .map(FieldDefinition::fieldName)
+      .collect(Collectors.toSet());
+    for (String field : filter.fields()) {
+      if (!fieldNames.contains(field)) {
+        throw new IllegalArgumentException("Filter field " + field + " is not a field of " + entity);
+      }
+    }
+
+    if (INDEX_CHECKED_FILTERS.add(Arrays.asList(secretArn, credentials.get("database"), entity, filter.shape()))) {
+      List<String> indexed = new ArrayList<>();
+      for (String field : filter.fields()) {
+        if (isIndexed(conn, entity, field)) {
+          indexed.add(field);
+        }
+      }
+      if (indexed.isEmpty()) {
+        LOGGER.warn(String.format("No field of the filter %s of %s is indexed, every read scans the table",
+          filter.shape(), entity));
+      } else {
+        LOGGER.info(String.format("Filter %s of %s can use the indexes on %s", filter.shape(), entity, indexed));
+      }
+    }
+    return filter;
+  }
+
+  /**
+   * Binds the values of the filter, each typed by the field it is compared to.
+   *
+   * @return int index of the next parameter
+   */
+  private int bindFilter(final Connection conn, final PreparedStatement st, final String entity,
+                         final FilterExpression filter) throws SQLException {
+    int index = 1;
+    if (filter == null) {
+      return index;
+    }
+    Map<String, FieldDataType> types = describeEntity(conn, entity).stream()
+      .collect(Collectors.toMap(FieldDefinition::fieldName, FieldDefinition::dataType, (a, b) -> a));
+    for (FilterExpression.Parameter parameter : filter.parameters()) {
+      JsonNode value = parameter.getValue();
+      if (value.isTextual() && value.textValue().isEmpty()) {
+        // Unlike a written value, an empty string compared to is not NULL.
+        st.setString(index++, "");
+      } else {
+        bindValue(st, index++, value, types.get(parameter.getField()));
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Builds the WHERE clause combining the request filter with the keyset predicate, if any. The filter's parameters
+   * come first.
+   */
+  private String buildWhereClause(final FilterExpression filter, final List<String> keys) {
+    List<String> predicates = new ArrayList<>();
+    if (filter != null) {
+      predicates.add(String.format("(%s)", filter.toSql(dialect)));
+    }
+    if (!keys.isEmpty()) {
+      String placeholders = keys.stream().map(key -> "?").collect(Collectors.joining(", "));
+      predicates.add(keys.size() == 1
+        ? String.format("%s > ?", dialect.quote(keys.get(0)))
+        : String.format("(%s) > (%s)", dialect.quoteAll(keys), placeholders));
+    }
+    return predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+  }
+
+  private int bindKey(final PreparedStatement st, final int startIndex, final List<String> key) throws SQLException {
+    int index = startIndex;
+    for (String value : key) {
+      st.setString(index++, value);
+    }
+    return index;
+  }
+
+  /**
+   * Writes the records with prepared statements. Records are grouped by their set of columns; inserts are sent as
+   * multi-row {@code INSERT ... VALUES (...), (...)} statements and updates as JDBC batches or, for large groups,
+   * one UPDATE joined to a staging table, so the server parses one statement per group instead of one per record.
+   * <p>
+   * Statements are committed together, in transactions sized by {@link CommitSizer} or the commitRows and commitBytes
+   * settings, and each applies as a unit: one that fails on its data is split in halves until the failing records
+   * are isolated, so only those are reported and the others are written once, while deadlocks and lock wait timeouts
+   * are retried after a backoff (see {@link WriteTransaction}). An all or none request is written in one transaction.
+   *
+   * @return List result of each record, in request order
+   * @throws SQLException when the database cannot be reached, the entity described or a transaction committed
+   */
+  @Override
+  public List<WriteRecordResult> writeData(final WriteDataRequest request) throws SQLException {
+    final List<JsonNode> records = new ArrayList<>();
+    final WriteRecordResult[] results = new WriteRecordResult[request.records().size()];
+    for (int i = 0; i < request.records().size(); i++) {
+      try {
+        records.add(MAPPER.readValue(request.records().get(i), JsonNode.class));
+      } catch (JsonProcessingException e) {
+        records.add(null);
+        results[i] = ImmutableWriteRecordResult.builder()
+          .isSuccess(false)
+          .errorMessage("Invalid record provided for Write operation. Record must be valid JSON")
+          .build();
+      }
+    }
+
+    // Preserve the order in which column sets first appear so statements run in record order.
+    Map<List<String>, List<Integer>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < records.size(); i++) {
+      if (records.get(i) != null) {
+        List<String> keys = new ArrayList<>();
+        records.get(i).fieldNames().forEachRemaining(keys::add);
+        groups.computeIfAbsent(keys, k -> new ArrayList<>()).add(i);
+      }
+    }
+
+    RuntimeSettings settings = RuntimeSettings.of(request.connectorContext().connectorRuntimeSettings());
+    requireSupported(settings);
+    try (Connection conn = getConnection(settings)) {
+      List<FieldDefinition> fields = describeEntity(conn, request.entityIdentifier());
+      conn.setAutoCommit(false);
+      if (Boolean.TRUE.equals(request.allOrNone())) {
+        writeAllOrNone(conn, request, settings, groups, fields, records, results);
+      } else {
+        WriteTransaction transaction = new WriteTransaction(conn, dialect, commitSizer(request, settings),
+          settings.getCommitBytes(), row -> request.records().get(row).length(),
+          (rows, ex) -> rows.forEach(row -> results[row] = recordResult(request, records.get(row), ex.getMessage())));
+        writeGroups(conn, transaction, request, settings, groups, fields, records, results);
+        transaction.commit();
+      }
+    } catch (SQLException ex) {
+      LOGGER.error("SQLException information");
+      for (SQLException next = ex; next != null; next = next.getNextException()) {
+        LOGGER.error("Error msg: " + next.getMessage());
+      }
+      throw ex;
+    }
+
+    List<WriteRecordResult> recordResults = new ArrayList<>(results.length);
+    int failed = 0;
+    for (int i = 0; i < results.length; i++) {
+      if (results[i] == null) {
+        recordResults.add(recordResult(request, records.get(i), null));
+      } else {
+        recordResults.add(results[i]);
+        failed++;
+      }
+    }
+    if (failed > 0) {
+      LOGGER.warn(failed + " of " + results.length + " records could not be written");
+    }
+    return recordResults;
+  }
+
+  private void writeGroups(final Connection conn, final WriteTransaction transaction, final WriteDataRequest request,
+                           final RuntimeSettings settings, final Map<List<String>, List<Integer>> groups,
+                           final List<FieldDefinition> fields, final List<JsonNode> records,
+                           final WriteRecordResult[] results) throws SQLException {
+    boolean bulkLoad = WriteOperationType.INSERT.equals(request.operation()) && settings.isBulkLoad();
+    Map<String, FieldDataType> types = fields.stream()
+      .collect(Collectors.toMap(FieldDefinition::fieldName, FieldDefinition::dataType, (a, b) -> a));
+
+    for (Map.Entry<List<String>, List<Integer>> group : groups.entrySet()) {
+      if (bulkLoad) {
+        List<String> fieldOrder = fields.stream().map(FieldDefinition::fieldName).collect(Collectors.toList());
+        List<String> columns = new ArrayList<>(group.getKey());
+        // Table column order; fields the table does not have go last and fail the load as they fail an insert.
+        columns.sort(Comparator.comparingInt(column ->
+          fieldOrder.contains(column) ? fieldOrder.indexOf(column) : Integer.MAX_VALUE));
+        transaction.write(group.getValue(),
+          rows -> ((BulkLoader) this).bulkInsert(conn, request.entityIdentifier(), columns, rows, records));
+      } else if (WriteOperationType.UPDATE.equals(request.operation())) {
+        writeUpdateBatch(conn, transaction, request, settings, group.getKey(), group.getValue(), records, types,
+          results);
+      } else if (WriteOperationType.INSERT.equals(request.operation())
+        || WriteOperationType.UPSERT.equals(request.operation())) {
+        writeInsertBatch(conn, transaction, request, settings, group.getKey(), group.getValue(), records, types);
+      }
+    }
+  }
+
+  /**
+   * Writes every record in one transaction, which is retried as a whole on deadlocks and lock wait timeouts. When
+   * any record fails, none is written and all are reported failed.
+   */
+  private void writeAllOrNone(final Connection conn, final WriteDataRequest request, final RuntimeSettings settings,
+                              final Map<List<String>, List<Integer>> groups, final List<FieldDefinition> fields,
+                              final List<JsonNode> records, final WriteRecordResult[] results) throws SQLException {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        if (Arrays.stream(results).allMatch(Objects::isNull)) {
+          writeGroups(conn, WriteTransaction.allOrNone(conn, dialect), request, settings, groups, fields, records,
+            results);
+        }
+        WriteRecordResult failed = Arrays.stream(results).filter(Objects::nonNull).findFirst().orElse(null);
+        if (failed == null) {
+          conn.commit();
+          return;
+        }
+        conn.rollback();
+        failAll(request, records, results, failed.errorMessage());
+        return;
+      } catch (SQLException ex) {
+        conn.rollback();
+        if (dialect.isTransient(ex) && attempt < WriteTransaction.MAX_ATTEMPTS && WriteTransaction.backOff(attempt)) {
+          LOGGER.warn("Retrying all or none write after: " + ex.getMessage());
+          Metrics.current().count("TransientFailures", 1);
+        } else {
+          failAll(request, records, results, ex.getMessage());
+          return;
+        }
+      }
+    }
+  }
+
+  private static void failAll(final WriteDataRequest request, final List<JsonNode> records,
+                              final WriteRecordResult[] results, final String error) {
+    for (int i = 0; i < results.length; i++) {
+      if (results[i] == null) {
+        results[i] = recordResult(request, records.get(i),
+          "Not written because the request is all or none and a record failed: " + error);
+      }
+    }
+  }
+
+  /**
+   * @return CommitSizer fixed by the commitRows setting, or else adapting to the commits of the entity
+   */
+  private CommitSizer commitSizer(final WriteDataRequest request, final RuntimeSettings settings) {
+    if (settings.getCommitRows() != null) {
+      return CommitSizer.fixed(settings.getCommitRows());
+    }
+    return COMMIT_SIZERS.computeIfAbsent(
+      Arrays.asList(secretArn, credentials.get("database"), request.entityIdentifier()), key -> new CommitSizer());
+  }
+
+  /**
+   * @param error failure message, null for a record that was written
+   * @return WriteRecordResult identified by the record's id field values, when the request names id fields
+   */
+  private static WriteRecordResult recordResult(final WriteDataRequest request, final JsonNode record,
+                                                final String error) {
+    ImmutableWriteRecordResult.Builder result = ImmutableWriteRecordResult.builder().isSuccess(error == null);
+    List<String> idFields = request.idFieldNames();
+    if (record != null && idFields != null && !idFields.isEmpty() && idFields.stream().allMatch(record::hasNonNull)) {
+      result.recordId(idFields.stream().map(idField -> record.get(idField).asText()).collect(Collectors.joining(",")));
+    }
+    return result.errorMessage(error).build();
+  }
+
+  /**
+   * Writes the rows one multi-row statement at a time, each statement being a unit of the transaction.
+   */
+  private void writeInsertBatch(final Connection conn, final WriteTransaction transaction,
+                                final WriteDataRequest request, final RuntimeSettings settings,
+                                final List<String> keys, final List<Integer> rows, final List<JsonNode> records,
+                                final Map<String, FieldDataType> types) throws SQLException {
+    boolean upsert = WriteOperationType.UPSERT.equals(request.operation());
+    List<String> idColumns = upsert ? getIdColumns(conn, request) : List.of();
+    IntFunction<String> statement = size -> upsert
+      ? dialect.upsert(request.entityIdentifier(), keys, idColumns, size)
+      : dialect.insert(request.entityIdentifier(), keys, size);
+    int rowsPerStatement = rowsPerStatement(keys, settings.getWriteBatchSize());
+    for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+      transaction.write(rows.subList(from, Math.min(rows.size(), from + rowsPerStatement)),
+        chunk -> insertRows(conn, statement, keys, chunk, records, types, settings));
+    }
+  }
+
+  /**
+   * Sends the rows as multi-row statements of at most writeBatchSize rows.
+   *
+   * @param statement builds the statement for the given number of rows
+   */
+  private void insertRows(final Connection conn, final IntFunction<String> statement, final List<String> columns,
+                          final List<Integer> rows, final List<JsonNode> records,
+                          final Map<String, FieldDataType> types, final RuntimeSettings settings)
+    throws SQLException {
+    int rowsPerStatement = rowsPerStatement(columns, settings.getWriteBatchSize());
+    for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+      List<Integer> chunk = rows.subList(from, Math.min(rows.size(), from + rowsPerStatement));
+      try (PreparedStatement st = conn.prepareStatement(statement.apply(chunk.size()))) {
+        st.setQueryTimeout(settings.getQueryTimeout());
+        int index = 1;
+        for (int row : chunk) {
+          for (String column : columns) {
+            bindValue(st, index++, records.get(row).get(column), types.get(column));
+          }
+        }
+        st.executeUpdate();
+      }
+    }
+  }
+
+  /**
+   * @param batchSize rows wanted per statement, lowered to stay below the server's placeholder limit
+   */
+  private static int rowsPerStatement(final List<String> columns, final int batchSize) {
+    return Math.max(1, Math.min(batchSize, MAX_PLACEHOLDERS / Math.max(1, columns.size())));
+  }
+
+  /**
+   * @return List columns identifying the records of an upsert: the request's id fields, or else the primary key
+   * @throws IllegalArgumentException when there are neither, as an upsert has nothing to match rows on
+   */
+  private List<String> getIdColumns(final Connection conn, final WriteDataRequest request) throws SQLException {
+    if (request.idFieldNames() != null && !request.idFieldNames().isEmpty()) {
+      return request.idFieldNames();
+    }
+    List<String> primaryKeys = getPrimaryKeys(conn, request.entityIdentifier());
+    if (primaryKeys.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Id fields are required for UPSERT operations on %s, which "
+        + "has no primary key", request.entityIdentifier()));
+    }
+    return primaryKeys;
+  }
+
+  /**
+   * Updates the rows matching the id fields of each record. Groups of at least bulkUpdateRows records are applied
+   * by a single set-based UPDATE from a staging table, in a transaction of their own; smaller ones as a JDBC batch.
+   * Records without a value for every id field fail on their own.
+   */
+  private void writeUpdateBatch(final Connection conn, final WriteTransaction transaction,
+                                final WriteDataRequest request, final RuntimeSettings settings,
+                                final List<String> keys, final List<Integer> rows, final List<JsonNode> records,
+                                final Map<String, FieldDataType> types, final WriteRecordResult[] results)
+    throws SQLException {
+    List<String> idFields = request.idFieldNames();
+    if (idFields == null || idFields.isEmpty()) {
+      throw new IllegalArgumentException("Id fields are required for UPDATE operations in JDBC");
+    }
+    List<String> columns = keys.stream().filter(key -> !idFields.contains(key)).collect(Collectors.toList());
+    if (columns.isEmpty()) {
+      return;
+    }
+    List<Integer> identified = new ArrayList<>();
+    for (int row : rows) {
+      try {
+        for (String idField : idFields) {
+          getValueFromRecord(records.get(row), idField);
+        }
+        identified.add(row);
+      } catch (IllegalArgumentException e) {
+        results[row] = recordResult(request, records.get(row), e.getMessage());
+      }
+    }
+
+    // Creating the staging table commits on some databases, so an all or none request sticks to batches.
+    if (identified.size() < settings.getBulkUpdateRows() || Boolean.TRUE.equals(request.allOrNone())) {
+      transaction.write(identified,
+        unit -> updateRows(conn, request.entityIdentifier(), idFields, columns, unit, records, types, settings));
+    } else {
+      transaction.writeAlone(identified, unit -> {
+        if (unit.size() >= settings.getBulkUpdateRows()) {
+          writeStagedUpdate(conn, request.entityIdentifier(), idFields, columns, unit, records, types, settings);
+        } else {
+          updateRows(conn, request.entityIdentifier(), idFields, columns, unit, records, types, settings);
+        }
+      });
+    }
+  }
+
+  private void updateRows(final Connection conn, final String entity, final List<String> idFields,
+                          final List<String> columns, final List<Integer> rows, final List<JsonNode> records,
+                          final Map<String, FieldDataType> types, final RuntimeSettings settings)
+    throws SQLException {
+    String sql = String.format("UPDATE %s SET %s WHERE %s",
+      dialect.quote(entity),
+      columns.stream().map(column -> dialect.quote(column) + " = ?").collect(Collectors.joining(", ")),
+      idFields.stream().map(idField -> dialect.quote(idField) + " = ?").collect(Collectors.joining(" AND ")));
+
+    try (PreparedStatement st = conn.prepareStatement(sql)) {
+      st.setQueryTimeout(settings.getQueryTimeout());
+      for (int row : rows) {
+        JsonNode record = records.get(row);
+        int index = 1;
+        for (String column : columns) {
+          bindValue(st, index++, record.get(column), types.get(column));
+        }
+        for (String idField : idFields) {
+          bindValue(st, index++, record.get(idField), types.get(idField));
+        }
+        st.addBatch();
+      }
+      st.executeBatch();
+    }
+  }
+
+  /**
+   * Loads the records into a temporary table of the session and joins it to the entity in one UPDATE, which the
+   * server runs as a single statement instead of one primary key lookup and round trip per record.
+   */
+  private void writeStagedUpdate(final Connection conn, final String entity, final List<String> idFields,
+                                 final List<String> columns, final List<Integer> rows, final List<JsonNode> records,
+                                 final Map<String, FieldDataType> types, final RuntimeSettings settings)
+    throws SQLException {
+    // The last record for an id wins, as it does when the records are applied one by one.
+    Map<List<String>, Integer> latest = new LinkedHashMap<>();
+    for (int row : rows) {
+      List<String> id = idFields.stream().map(idField -> records.get(row).get(idField).asText())
+        .collect(Collectors.toList());
+      latest.remove(id);
+      latest.put(id, row);
+    }
+
+    List<String> stagedColumns = new ArrayList<>(idFields);
+    stagedColumns.addAll(columns);
+    try (Statement st = conn.createStatement()) {
+      st.setQueryTimeout(settings.getQueryTimeout());
+      st.execute(dialect.dropStagingTable(STAGING_TABLE));
+      st.execute(dialect.createStagingTable(STAGING_TABLE, entity, stagedColumns));
+      try {
+        insertRows(conn, size -> dialect.insert(STAGING_TABLE, stagedColumns, size), stagedColumns,
+          new ArrayList<>(latest.values()), records, types, settings);
+        st.executeUpdate(dialect.updateFromStaging(entity, STAGING_TABLE, idFields, columns));
+      } finally {
+        st.execute(dialect.dropStagingTable(STAGING_TABLE));
+      }
+    }
+  }
+
+  /**
+   * Binds a JSON value with the JDBC type matching its JSON type. Strings written to numeric columns, as AppFlow
+   * sends most values, are bound as numbers using the cached column type. Empty strings are written as NULL.
+   */
+  private void bindValue(final PreparedStatement st, final int index, final JsonNode value,
+                         final FieldDataType columnType) throws SQLException {
+    if (value == null || value.isNull() || (value.isTextual() && value.textValue().isEmpty())) {
+      st.setNull(index, Types.NULL);
+    } else if (value.isTextual() && INTEGRAL_TYPES.contains(columnType) && isIntegral(value.textValue())) {
+      st.setLong(index, Long.parseLong(value.textValue()));
+    } else if (value.isTextual()) {
+      st.setString(index, value.textValue());
+    } else if (value.isIntegralNumber() && value.canConvertToLong()) {
+      st.setLong(index, value.longValue());
+    } else if (value.isNumber()) {
+      st.setBigDecimal(index, value.decimalValue());
+    } else if (value.isBoolean()) {
+      st.setBoolean(index, value.booleanValue());
+    } else {
+      st.setString(index, value.toString());
+    }
+  }
+
+  /**
+   * Times the reading of a result: encoding apart from the time spent waiting for the driver to fetch rows. The
+   * totals go to the metrics once, when the result has been read, instead of with every row.
+   */
+  private static final class RowTimer {
+    private final Metrics metrics = Metrics.current();
+    private final long start = metrics.isEnabled() ? System.nanoTime() : 0;
+    private long encodingNanos;
+
+    private String encode(final RowEncoder encoder, final ResultSet rs) throws SQLException {
+      if (!metrics.isEnabled()) {
+        return encoder.encode(rs);
+      }
+      long encodeStart = System.nanoTime();
+      String record = encoder.encode(rs);
+      encodingNanos += System.nanoTime() - encodeStart;
+      return record;
+    }
+
+    private void record() {
+      if (metrics.isEnabled()) {
+        metrics.addTime("RowFetch", System.nanoTime() - start - encodingNanos);
+        metrics.addTime("RowEncoding", encodingNanos);
+      }
+    }
+  }
+
+  private static final class PartitionPage {
+    private final List<String> records;
+    private final Long lastKey;
+    private final boolean hasMore;
+
+    private PartitionPage(final List<String> records, final Long lastKey, final boolean hasMore) {
+      this.records = records;
+      this.lastKey = lastKey;
+      this.hasMore = hasMore;
+    }
+  }
+
+  private static boolean isIntegral(final String value) {
+    int start = value.startsWith("-") ? 1 : 0;
+    return value.length() > start && value.length() - start < 19
+      && value.chars().skip(start).allMatch(Character::isDigit);
+  }
+
+  private JsonNode getValueFromRecord(final JsonNode jsonRecord, final String key) {
+    if (Objects.isNull(jsonRecord) || Objects.isNull(jsonRecord.get(key))) {
+      throw new IllegalArgumentException(key + " key is missing from JSON record but is required");
+    }
+    return jsonRecord.get(key);
+  }
+}
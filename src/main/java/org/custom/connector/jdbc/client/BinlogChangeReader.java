@@ -0,0 +1,306 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.metadata.FieldDataType;
+import com.amazonaws.appflow.custom.connector.model.metadata.FieldDefinition;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.shyiko.mysql.binlog.event.DeleteRowsEventData;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.RotateEventData;
+import com.github.shyiko.mysql.binlog.event.TableMapEventData;
+import com.github.shyiko.mysql.binlog.event.UpdateRowsEventData;
+import com.github.shyiko.mysql.binlog.event.WriteRowsEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.ColumnType;
+import com.github.shyiko.mysql.binlog.event.deserialization.json.JsonBinary;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the row events of one table in the binary log into records. Each insert, update and delete becomes a record
+ * of the selected fields, as {@code queryData} returns them, plus a {@value #CHANGE_TYPE_FIELD} field telling which
+ * change it is. Updates carry the row after the change and deletes the row before it.
+ * <p>
+ * The position handed back for the next page is always one the server can resume from: the table map event that
+ * starts the rows event being read, with the number of records of the table already returned from it.
+ * <p>
+ * Row images hold values by column position, and are matched to the table's current columns. The server has to log
+ * whole rows ({@code binlog_row_image=FULL}); an event that leaves columns out of its row images fails the read, as
+ * does one written while the table had a different number of columns, or, where the server logs column names
+ * ({@code binlog_row_metadata=FULL}), different ones. The checkpoint is then left where it was, so no change is lost
+ * or decoded under the wrong column.
+ */
+final class BinlogChangeReader {
+  static final String CHANGE_TYPE_FIELD = "_op";
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  // Binary log DATETIME values are decoded as UTC instants.
+  private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME.withZone(ZoneOffset.UTC);
+
+  private final String database;
+  private final String table;
+  private final List<String> columns;
+  private final List<FieldDataType> types;
+  private final Map<String, Integer> positions = new HashMap<>();
+  private final List<String> selectedFields;
+  // Table map events of the tracked table, by table id; other tables map to null.
+  private final Map<Long, TableMapEventData> tableMaps = new HashMap<>();
+
+  /**
+   * @param fields field definitions of the table, in column order
+   */
+  BinlogChangeReader(final String database, final String table, final List<FieldDefinition> fields,
+                     final List<String> selectedFields) {
+    this.database = database;
+    this.table = table;
+    this.columns = fields.stream().map(FieldDefinition::fieldName).collect(Collectors.toList());
+    this.types = fields.stream().map(FieldDefinition::dataType).collect(Collectors.toList());
+    this.selectedFields = selectedFields;
+    for (int column = 0; column < columns.size(); column++) {
+      positions.put(columns.get(column), column);
+    }
+  }
+
+  /**
+   * Reads changes from {@code start}, skipping the first {@code skip} records, until the page is full or the log has
+   * been read up to {@code end}.
+   *
+   * @param maxResults page size, null for no limit
+   * @return ChangePage the changes and where to continue
+   */
+  ChangePage read(final BinlogEventSource source, final BinlogPosition start, final int skip,
+                  final BinlogPosition end, final Long maxResults) throws IOException {
+    List<String> records = new ArrayList<>();
+    String file = start.getFile();
+    long resumeAt = start.getPosition();
+    int returned = 0;
+    int toSkip = skip;
+    boolean inTableMaps = false;
+    BinlogPosition reached = start;
+
+    Event event;
+    while ((event = source.next()) != null) {
+      EventHeaderV4 header = event.getHeader();
+      EventType type = header.getEventType();
+      if (type == EventType.ROTATE) {
+        RotateEventData rotate = event.getData();
+        file = rotate.getBinlogFilename();
+        resumeAt = rotate.getBinlogPosition();
+        returned = 0;
+        continue;
+      }
+      if (file.equals(start.getFile()) && header.getPosition() < start.getPosition()) {
+        // Binary log files can only be read from their start; skip to the requested position.
+        continue;
+      }
+
+      if (type == EventType.TABLE_MAP) {
+        if (!inTableMaps) {
+          resumeAt = header.getPosition();
+          returned = 0;
+          inTableMaps = true;
+        }
+        TableMapEventData tableMap = event.getData();
+        tableMaps.put(tableMap.getTableId(),
+          database.equals(tableMap.getDatabase()) && table.equals(tableMap.getTable()) ? tableMap : null);
+      } else {
+        inTableMaps = false;
+        for (Change change : changes(event)) {
+          if (toSkip > 0) {
+            toSkip--;
+          } else if (maxResults != null && records.size() == maxResults) {
+            return new ChangePage(records, PageToken.binlog(new BinlogPosition(file, resumeAt), returned, end), null);
+          } else {
+            records.add(change.encode());
+          }
+          returned++;
+        }
+        if (!EventType.isRowMutation(type)) {
+          resumeAt = header.getNextPosition();
+          returned = 0;
+        }
+      }
+
+      reached = new BinlogPosition(file, header.getNextPosition());
+      if (reached.compareTo(end) >= 0) {
+        break;
+      }
+    }
+    return new ChangePage(records, null, reached);
+  }
+
+  private List<Change> changes(final Event event) {
+    EventType type = event.getHeader().getEventType();
+    List<Change> changes = new ArrayList<>();
+    if (EventType.isWrite(type)) {
+      WriteRowsEventData data = event.getData();
+      TableMapEventData tableMap = tableMap(data.getTableId(), data.getIncludedColumns());
+      if (tableMap != null) {
+        data.getRows().forEach(row -> changes.add(new Change("INSERT", tableMap, row)));
+      }
+    } else if (EventType.isUpdate(type)) {
+      UpdateRowsEventData data = event.getData();
+      TableMapEventData tableMap = tableMap(data.getTableId(), data.getIncludedColumnsBeforeUpdate(),
+        data.getIncludedColumns());
+      if (tableMap != null) {
+        data.getRows().forEach(row -> changes.add(new Change("UPDATE", tableMap, row.getValue())));
+      }
+    } else if (EventType.isDelete(type)) {
+      DeleteRowsEventData data = event.getData();
+      TableMapEventData tableMap = tableMap(data.getTableId(), data.getIncludedColumns());
+      if (tableMap != null) {
+        data.getRows().forEach(row -> changes.add(new Change("DELETE", tableMap, row)));
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * @param included columns of each row image of the event
+   * @return TableMapEventData table map of the rows event, null if it is not about the tracked table
+   * @throws IllegalStateException if the rows cannot be matched to the table's current columns
+   */
+  private TableMapEventData tableMap(final long tableId, final BitSet... included) {
+    TableMapEventData tableMap = tableMaps.get(tableId);
+    if (tableMap == null) {
+      return null;
+    }
+    int logged = tableMap.getColumnTypes().length;
+    if (logged != columns.size()) {
+      throw new IllegalStateException(String.format("The binary log has changes of %s.%s written while the table had "
+        + "%d columns, but it now has %d. The table was altered since, and these changes cannot be matched to its "
+        + "columns", database, table, logged, columns.size()));
+    }
+    List<String> names = tableMap.getEventMetadata() == null ? null : tableMap.getEventMetadata().getColumnNames();
+    if (names != null && !names.isEmpty() && !names.equals(columns)) {
+      throw new IllegalStateException(String.format("The binary log has changes of %s.%s written while its columns "
+        + "were %s, but they are now %s. The table was altered since, and these changes cannot be matched to its "
+        + "columns", database, table, names, columns));
+    }
+    for (BitSet image : included) {
+      if (image.cardinality() != logged) {
+        throw new IllegalStateException(String.format("The binary log holds partial row images of %s.%s. Change data "
+          + "capture needs binlog_row_image=FULL", database, table));
+      }
+    }
+    return tableMap;
+  }
+
+  /**
+   * One changed row, with the values of every column in column order.
+   */
+  private final class Change {
+    private final String changeType;
+    private final TableMapEventData tableMap;
+    private final Serializable[] values;
+
+    private Change(final String changeType, final TableMapEventData tableMap, final Serializable[] values) {
+      this.changeType = changeType;
+      this.tableMap = tableMap;
+      this.values = values;
+    }
+
+    private String encode() throws IOException {
+      CharArrayWriter buffer = new CharArrayWriter(256);
+      try (JsonGenerator generator = JSON_FACTORY.createGenerator(buffer)) {
+        generator.writeStartObject();
+        for (String field : selectedFields) {
+          Integer column = positions.get(field);
+          if (column != null) {
+            generator.writeFieldName(field);
+            writeValue(generator, values[column], types.get(column),
+              ColumnType.byCode(tableMap.getColumnTypes()[column] & 0xFF));
+          }
+        }
+        generator.writeStringField(CHANGE_TYPE_FIELD, changeType);
+        generator.writeEndObject();
+      }
+      return buffer.toString();
+    }
+  }
+
+  private static void writeValue(final JsonGenerator generator, final Serializable value,
+                                 final FieldDataType fieldType, final ColumnType columnType) throws IOException {
+    if (value == null) {
+      generator.writeNull();
+    } else if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      if (columnType == ColumnType.JSON) {
+        generator.writeString(JsonBinary.parseAsString(bytes));
+      } else if (fieldType == FieldDataType.ByteArray) {
+        generator.writeBinary(bytes);
+      } else {
+        generator.writeString(new String(bytes, StandardCharsets.UTF_8));
+      }
+    } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      generator.writeNumber(((Number) value).longValue());
+    } else if (value instanceof BigDecimal) {
+      generator.writeNumber((BigDecimal) value);
+    } else if (value instanceof BigInteger) {
+      generator.writeNumber((BigInteger) value);
+    } else if (value instanceof Float || value instanceof Double) {
+      generator.writeNumber(((Number) value).doubleValue());
+    } else if (value instanceof java.sql.Date) {
+      generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE.format(((java.sql.Date) value).toLocalDate()));
+    } else if (value instanceof java.sql.Time) {
+      generator.writeString(DateTimeFormatter.ISO_LOCAL_TIME.format(((java.sql.Time) value).toLocalTime()));
+    } else if (value instanceof java.util.Date) {
+      generator.writeString(DATE_TIME.format(((java.util.Date) value).toInstant()));
+    } else if (value instanceof BitSet) {
+      BitSet bits = (BitSet) value;
+      long[] words = bits.toLongArray();
+      generator.writeNumber(words.length == 0 ? 0 : words[0]);
+    } else {
+      generator.writeString(value.toString());
+    }
+  }
+
+  /**
+   * Changes read for one page.
+   */
+  static final class ChangePage {
+    private final List<String> records;
+    private final PageToken next;
+    private final BinlogPosition reached;
+
+    private ChangePage(final List<String> records, final PageToken next, final BinlogPosition reached) {
+      this.records = records;
+      this.next = next;
+      this.reached = reached;
+    }
+
+    List<String> getRecords() {
+      return records;
+    }
+
+    /**
+     * @return PageToken where the next page starts, null once the log has been read up to the end position
+     */
+    PageToken getNext() {
+      return next;
+    }
+
+    /**
+     * @return BinlogPosition position the log was read up to, set on the last page only
+     */
+    BinlogPosition getReached() {
+      return reached;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.github.shyiko.mysql.binlog.event.Event;
+
+import java.io.IOException;
+
+/**
+ * Supplies binary log events in log order, either streamed from the server or read from a binary log file.
+ */
+@FunctionalInterface
+interface BinlogEventSource {
+  /**
+   * @return Event next event, null once the source has no further events
+   */
+  Event next() throws IOException;
+}
@@ -0,0 +1,61 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import java.util.Objects;
+
+/**
+ * Position in the MySQL binary log: a log file name and a byte offset within it. Log files are numbered with a
+ * zero-padded suffix, so positions order by file name first.
+ */
+final class BinlogPosition implements Comparable<BinlogPosition> {
+  private final String file;
+  private final long position;
+
+  BinlogPosition(final String file, final long position) {
+    this.file = Objects.requireNonNull(file);
+    this.position = position;
+  }
+
+  /**
+   * @param value position written by {@link #toString()}
+   * @return BinlogPosition parsed position
+   */
+  static BinlogPosition parse(final String value) {
+    int separator = value.lastIndexOf(':');
+    if (separator < 1) {
+      throw new IllegalArgumentException("Invalid binary log position: " + value);
+    }
+    return new BinlogPosition(value.substring(0, separator), Long.parseLong(value.substring(separator + 1)));
+  }
+
+  String getFile() {
+    return file;
+  }
+
+  long getPosition() {
+    return position;
+  }
+
+  @Override
+  public int compareTo(final BinlogPosition other) {
+    int files = file.compareTo(other.file);
+    return files != 0 ? files : Long.compare(position, other.position);
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    return other instanceof BinlogPosition && compareTo((BinlogPosition) other) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(file, position);
+  }
+
+  @Override
+  public String toString() {
+    return file + ":" + position;
+  }
+}
@@ -0,0 +1,108 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.github.shyiko.mysql.binlog.BinaryLogClient;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.deserialization.EventDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Streams binary log events from the server by connecting as a replica, which needs the REPLICATION SLAVE and
+ * REPLICATION CLIENT privileges and row-based logging of full rows ({@code binlog_format=ROW},
+ * {@code binlog_row_image=FULL}). Events are handed over through a bounded queue, so the replication thread stalls
+ * instead of buffering the log when pages are read slowly.
+ */
+final class BinlogStream implements BinlogEventSource, Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BinlogStream.class);
+  private static final long CONNECT_TIMEOUT_MILLIS = 10_000;
+  private static final long EVENT_TIMEOUT_SECONDS = 30;
+
+  private final BinaryLogClient client;
+  private final BlockingQueue<Event> events = new ArrayBlockingQueue<>(1024);
+  private volatile boolean closed;
+
+  private BinlogStream(final BinaryLogClient client) {
+    this.client = client;
+  }
+
+  /**
+   * @param credentials connection details from the secret
+   * @param start       position to stream from, must be an event boundary
+   * @return BinlogStream connected stream
+   */
+  static BinlogStream open(final Map<String, String> credentials, final BinlogPosition start) throws IOException {
+    BinaryLogClient client = new BinaryLogClient(credentials.get("hostname"),
+      Integer.parseInt(credentials.get("port")), credentials.get("username"), credentials.get("password"));
+    // Each reader must use a server id no other replica of the source uses.
+    client.setServerId(ThreadLocalRandom.current().nextLong(0x10000L, 0x7FFFFFFFL));
+    client.setBinlogFilename(start.getFile());
+    client.setBinlogPosition(start.getPosition());
+    client.setKeepAlive(false);
+    client.setEventDeserializer(eventDeserializer());
+
+    BinlogStream stream = new BinlogStream(client);
+    client.registerEventListener(stream::enqueue);
+    try {
+      client.connect(CONNECT_TIMEOUT_MILLIS);
+    } catch (TimeoutException e) {
+      throw new IOException("Timed out connecting to the binary log at " + start, e);
+    }
+    return stream;
+  }
+
+  /**
+   * @return EventDeserializer deserializer that leaves character columns as bytes, decoded as UTF-8 when encoded
+   */
+  static EventDeserializer eventDeserializer() {
+    EventDeserializer deserializer = new EventDeserializer();
+    deserializer.setCompatibilityMode(EventDeserializer.CompatibilityMode.CHAR_AND_BINARY_AS_BYTE_ARRAY);
+    return deserializer;
+  }
+
+  private void enqueue(final Event event) {
+    try {
+      while (!closed && !events.offer(event, 1, TimeUnit.SECONDS)) {
+        LOGGER.debug("Waiting for binary log events to be consumed");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Waits for the next event. The caller stops at the end position read when the run started, so the server always
+   * has further events to send; running out of them means the connection stalled.
+   */
+  @Override
+  public Event next() throws IOException {
+    try {
+      Event event = events.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      if (event == null) {
+        throw new IOException("No binary log event received within " + EVENT_TIMEOUT_SECONDS + " seconds");
+      }
+      return event;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while reading the binary log");
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    client.disconnect();
+  }
+}
@@ -0,0 +1,24 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Implemented by the clients of databases with a bulk loader, which are the only ones the bulkLoad setting is
+ * accepted for.
+ */
+interface BulkLoader {
+  /**
+   * Inserts the records with the database's bulk loader.
+   *
+   * @param columns columns of the records, in table order
+   */
+  void bulkInsert(Connection conn, String entity, List<String> columns, List<Integer> rows, List<JsonNode> records)
+    throws SQLException;
+}
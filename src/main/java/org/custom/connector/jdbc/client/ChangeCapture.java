@@ -0,0 +1,17 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.query.QueryDataRequest;
+
+/**
+ * Implemented by the clients of databases whose change log the connector can read, which are the only ones the
+ * changeDataCapture setting is accepted for.
+ */
+interface ChangeCapture {
+  /**
+   * Reads one page of the changes made to the entity since the previous run.
+   */
+  QueryPage queryChanges(QueryDataRequest request, PageToken token);
+}
@@ -0,0 +1,225 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Writes one result set column as a JSON value of the matching type. A codec is picked once per column from the
+ * result set metadata, so the per-row loop neither branches on the column type nor goes through an intermediate
+ * String for numeric columns.
+ */
+@FunctionalInterface
+interface ColumnCodec {
+  String ZERO_DATE = "0000-00-00";
+
+  ColumnCodec LONG = (rs, column, generator) -> {
+    long value = rs.getLong(column);
+    if (rs.wasNull()) {
+      generator.writeNull();
+    } else {
+      generator.writeNumber(value);
+    }
+  };
+
+  ColumnCodec BIG_INTEGER = (rs, column, generator) -> {
+    BigInteger value = rs.getObject(column, BigInteger.class);
+    if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeNumber(value);
+    }
+  };
+
+  ColumnCodec DOUBLE = (rs, column, generator) -> {
+    double value = rs.getDouble(column);
+    if (rs.wasNull()) {
+      generator.writeNull();
+    } else {
+      generator.writeNumber(value);
+    }
+  };
+
+  ColumnCodec DECIMAL = (rs, column, generator) -> {
+    BigDecimal value = rs.getBigDecimal(column);
+    if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeNumber(value);
+    }
+  };
+
+  ColumnCodec BOOLEAN = (rs, column, generator) -> {
+    boolean value = rs.getBoolean(column);
+    if (rs.wasNull()) {
+      generator.writeNull();
+    } else {
+      generator.writeBoolean(value);
+    }
+  };
+
+  ColumnCodec DATE = (rs, column, generator) ->
+    writeTemporal(rs, column, generator, LocalDate.class, DateTimeFormatter.ISO_LOCAL_DATE);
+
+  ColumnCodec TIME = (rs, column, generator) ->
+    writeTemporal(rs, column, generator, LocalTime.class, DateTimeFormatter.ISO_LOCAL_TIME);
+
+  ColumnCodec TIMESTAMP = (rs, column, generator) ->
+    writeTemporal(rs, column, generator, LocalDateTime.class, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+
+  ColumnCodec TIMESTAMP_WITH_TIMEZONE = (rs, column, generator) -> {
+    OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+    if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeString(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(value));
+    }
+  };
+
+  // Binary values are emitted as base64 strings.
+  ColumnCodec BINARY = (rs, column, generator) -> {
+    byte[] value = rs.getBytes(column);
+    if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeBinary(value);
+    }
+  };
+
+  // Large objects are copied from the driver's stream into the record, without a String or byte[] of the whole value.
+  ColumnCodec CHARACTER_STREAM = (rs, column, generator) -> {
+    try (Reader value = rs.getCharacterStream(column)) {
+      if (value == null) {
+        generator.writeNull();
+      } else {
+        generator.writeString(value, -1);
+      }
+    }
+  };
+  ColumnCodec BINARY_STREAM = (rs, column, generator) -> {
+    try (InputStream value = rs.getBinaryStream(column)) {
+      if (value == null) {
+        generator.writeNull();
+      } else {
+        generator.writeBinary(value, -1);
+      }
+    }
+  };
+  ColumnCodec STRING = (rs, column, generator) -> {
+    String value = rs.getString(column);
+    if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeString(value);
+    }
+  };
+
+  void write(ResultSet rs, int column, JsonGenerator generator) throws SQLException, IOException;
+
+  /**
+   * Writes a date or time value in ISO format. Values that have no java.time equivalent, MySQL's zero dates and TIME
+   * values outside a day such as {@code 838:59:59} or negative durations, make the driver fail the conversion; zero
+   * dates are then written as null, as they name no date, and other values as the database's own text.
+   */
+  private static <T extends TemporalAccessor> void writeTemporal(final ResultSet rs, final int column,
+                                                                 final JsonGenerator generator, final Class<T> type,
+                                                                 final DateTimeFormatter format)
+    throws SQLException, IOException {
+    T value;
+    try {
+      value = rs.getObject(column, type);
+    } catch (SQLException | DateTimeException e) {
+      String text = rs.getString(column);
+      if (text == null || text.startsWith(ZERO_DATE)) {
+        generator.writeNull();
+      } else {
+        generator.writeString(text);
+      }
+      return;
+    }
+    if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeString(format.format(value));
+    }
+  }
+
+  /**
+   * @param metaData metadata of the result set being encoded
+   * @param column   1-based column index
+   * @return ColumnCodec codec for the column's JDBC type
+   */
+  static ColumnCodec forColumn(final ResultSetMetaData metaData, final int column) throws SQLException {
+    switch (metaData.getColumnType(column)) {
+      case Types.BIT:
+      case Types.TINYINT:
+      case Types.SMALLINT:
+      case Types.INTEGER:
+        return LONG;
+      case Types.BIGINT:
+        return metaData.isSigned(column) ? LONG : BIG_INTEGER;
+      case Types.REAL:
+      case Types.FLOAT:
+      case Types.DOUBLE:
+        return DOUBLE;
+      case Types.DECIMAL:
+      case Types.NUMERIC:
+        return DECIMAL;
+      case Types.BOOLEAN:
+        return BOOLEAN;
+      case Types.DATE:
+        return DATE;
+      case Types.TIME:
+        return TIME;
+      case Types.TIMESTAMP:
+        return TIMESTAMP;
+      case Types.TIMESTAMP_WITH_TIMEZONE:
+        return TIMESTAMP_WITH_TIMEZONE;
+      case Types.BINARY:
+      case Types.VARBINARY:
+      case Types.LONGVARBINARY:
+        return BINARY;
+      case Types.BLOB:
+        return BINARY_STREAM;
+      case Types.CLOB:
+      case Types.NCLOB:
+        return CHARACTER_STREAM;
+      default:
+        return STRING;
+    }
+  }
+
+  /**
+   * @param column 1-based index of a column holding large objects
+   * @return ColumnCodec streaming the column's values
+   */
+  static ColumnCodec forLargeObject(final ResultSetMetaData metaData, final int column) throws SQLException {
+    switch (metaData.getColumnType(column)) {
+      case Types.BINARY:
+      case Types.VARBINARY:
+      case Types.LONGVARBINARY:
+      case Types.BLOB:
+        return BINARY_STREAM;
+      default:
+        return CHARACTER_STREAM;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses how many rows a write transaction takes before it is committed. Every commit waits for the log to be
+ * flushed to disk, so larger transactions write faster, until they hold their locks too long or outgrow the log
+ * buffer. The size doubles while commits still take a noticeable share of the time, and halves when a commit is
+ * slow, the log buffer filled up during the transaction, or a transaction lost a deadlock.
+ */
+final class CommitSizer {
+  static final int MIN_ROWS = 100;
+  static final int MAX_ROWS = 50_000;
+  private static final int INITIAL_ROWS = 1000;
+  // Grow while the commit takes more than 1/20 of the time spent in the transaction.
+  private static final int COMMIT_SHARE = 20;
+  private static final long SLOW_COMMIT_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+  private final int minRows;
+  private final int maxRows;
+  private int rows;
+
+  CommitSizer() {
+    this(MIN_ROWS, MAX_ROWS);
+  }
+
+  private CommitSizer(final int minRows, final int maxRows) {
+    this.minRows = minRows;
+    this.maxRows = maxRows;
+    rows = Math.max(minRows, Math.min(maxRows, INITIAL_ROWS));
+  }
+
+  /**
+   * @return CommitSizer that always answers the given size
+   */
+  static CommitSizer fixed(final int rows) {
+    return new CommitSizer(rows, rows);
+  }
+
+  synchronized int rows() {
+    return rows;
+  }
+
+  /**
+   * @param committedRows rows of the transaction; a transaction that ended short of the size says nothing about
+   *                      whether a larger one would have been faster
+   * @param writeNanos    time from the first statement of the transaction to its commit
+   * @param commitNanos   time the commit took
+   * @param logWaits      whether writers had to wait for space in the log buffer during the transaction
+   */
+  synchronized void committed(final int committedRows, final long writeNanos, final long commitNanos,
+                              final boolean logWaits) {
+    if (logWaits || commitNanos > SLOW_COMMIT_NANOS) {
+      rows = Math.max(minRows, rows / 2);
+    } else if (committedRows >= rows && commitNanos * COMMIT_SHARE > writeNanos) {
+      rows = Math.min(maxRows, rows * 2);
+    }
+  }
+
+  /**
+   * Records a transaction rolled back by a deadlock or lock wait timeout.
+   */
+  synchronized void contended() {
+    rows = Math.max(minRows, rows / 2);
+  }
+}
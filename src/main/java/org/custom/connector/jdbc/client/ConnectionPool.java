@@ -0,0 +1,328 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide pool of physical JDBC connections. Pools are registered per secret ARN and connection parameters and
+ * live in static state, so they survive warm Lambda invocations. Borrowed connections are proxies whose
+ * {@code close()} hands the physical connection back to the pool instead of closing it.
+ * <p>
+ * A secret has one pool at a time: once its parameters change, e.g. when its password was rotated, the pool built
+ * from the earlier version is closed.
+ */
+final class ConnectionPool {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPool.class);
+  private static final Map<List<String>, ConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+  static final int DEFAULT_MAX_SIZE = intFromEnv("JDBC_POOL_MAX_SIZE", 4);
+  static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofSeconds(intFromEnv("JDBC_POOL_IDLE_TIMEOUT_SECONDS", 300));
+  static final Duration DEFAULT_BORROW_TIMEOUT = Duration.ofSeconds(intFromEnv("JDBC_POOL_BORROW_TIMEOUT_SECONDS", 10));
+
+  // Connections used more recently than this are handed out without a round trip to the server.
+  private static final long VALIDATION_INTERVAL_NANOS = Duration.ofSeconds(5).toNanos();
+  private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+  /**
+   * Opens a new physical connection.
+   */
+  @FunctionalInterface
+  interface ConnectionFactory {
+    Connection open() throws SQLException;
+  }
+
+  private final ConnectionFactory factory;
+  private int maxSize;
+  private final long idleTimeoutNanos;
+  private final long borrowTimeoutNanos;
+  private final Deque<Idle> idle = new ArrayDeque<>();
+  private int total;
+  private boolean closed;
+
+  ConnectionPool(final ConnectionFactory factory, final int maxSize, final Duration idleTimeout,
+                 final Duration borrowTimeout) {
+    this.factory = factory;
+    this.maxSize = maxSize;
+    this.idleTimeoutNanos = idleTimeout.toNanos();
+    this.borrowTimeoutNanos = borrowTimeout.toNanos();
+  }
+
+  /**
+   * @param key     secret ARN followed by the connection parameters
+   * @param factory opens physical connections for a newly registered pool
+   * @return ConnectionPool shared pool for the key
+   */
+  static ConnectionPool forKey(final List<String> key, final ConnectionFactory factory) {
+    ConnectionPool pool = POOLS.get(key);
+    return pool != null ? pool : register(key, factory);
+  }
+
+  private static synchronized ConnectionPool register(final List<String> key, final ConnectionFactory factory) {
+    ConnectionPool pool = POOLS.get(key);
+    if (pool != null) {
+      return pool;
+    }
+    // Pools of the same secret under other parameters were built from an earlier version of it.
+    POOLS.entrySet().removeIf(entry -> {
+      if (entry.getKey().get(0).equals(key.get(0))) {
+        LOGGER.info("Closing the connection pool of a previous version of the secret");
+        entry.getValue().close();
+        return true;
+      }
+      return false;
+    });
+    pool = new ConnectionPool(factory, DEFAULT_MAX_SIZE, DEFAULT_IDLE_TIMEOUT, DEFAULT_BORROW_TIMEOUT);
+    POOLS.put(key, pool);
+    return pool;
+  }
+
+  /**
+   * Hands out an idle connection, or opens a new one while the pool is below its cap. Otherwise waits for a
+   * connection to be returned.
+   */
+  Connection borrow() throws SQLException {
+    long deadline = System.nanoTime() + borrowTimeoutNanos;
+    while (true) {
+      Idle candidate;
+      synchronized (this) {
+        evictExpired();
+        candidate = idle.pollFirst();
+        if (candidate == null) {
+          if (total < maxSize) {
+            total++;
+          } else {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+              throw new SQLException("Timed out waiting for a pooled connection, pool size is " + maxSize);
+            }
+            waitFor(remaining);
+            continue;
+          }
+        }
+      }
+
+      if (candidate == null) {
+        return wrap(open());
+      }
+      if (isUsable(candidate)) {
+        return wrap(candidate.connection);
+      }
+      discard(candidate.connection);
+    }
+  }
+
+  /**
+   * Changes the cap on open connections. Connections above a lowered cap are closed as they are returned.
+   */
+  synchronized void resize(final int size) {
+    if (size != maxSize) {
+      maxSize = size;
+      while (total > maxSize && !idle.isEmpty()) {
+        closeQuietly(idle.pollLast().connection);
+        total--;
+      }
+      notifyAll();
+    }
+  }
+
+  /**
+   * Closes every idle connection. Borrowed connections are closed when they are returned.
+   */
+  synchronized void clear() {
+    while (!idle.isEmpty()) {
+      closeQuietly(idle.pollFirst().connection);
+      total--;
+    }
+    notifyAll();
+  }
+
+  /**
+   * Closes every idle connection, and borrowed ones as they are returned instead of keeping them.
+   */
+  synchronized void close() {
+    closed = true;
+    clear();
+  }
+
+  synchronized int getMaxSize() {
+    return maxSize;
+  }
+
+  synchronized int getTotal() {
+    return total;
+  }
+
+  synchronized int getIdle() {
+    return idle.size();
+  }
+
+  private Connection open() throws SQLException {
+    try {
+      return factory.open();
+    } catch (SQLException | RuntimeException e) {
+      synchronized (this) {
+        total--;
+        notifyAll();
+      }
+      throw e;
+    }
+  }
+
+  private boolean isUsable(final Idle candidate) {
+    if (System.nanoTime() - candidate.returnedAt < VALIDATION_INTERVAL_NANOS) {
+      return true;
+    }
+    try {
+      return candidate.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private void release(final Connection connection) {
+    try {
+      if (connection.isClosed()) {
+        discard(connection);
+        return;
+      }
+      if (!connection.getAutoCommit()) {
+        connection.rollback();
+        connection.setAutoCommit(true);
+      }
+    } catch (SQLException e) {
+      LOGGER.warn("Discarding pooled connection that could not be reset: " + e.getMessage());
+      discard(connection);
+      return;
+    }
+    synchronized (this) {
+      if (closed || total > maxSize) {
+        closeQuietly(connection);
+        total--;
+      } else {
+        idle.addFirst(new Idle(connection, System.nanoTime()));
+      }
+      notifyAll();
+    }
+  }
+
+  private void discard(final Connection connection) {
+    closeQuietly(connection);
+    synchronized (this) {
+      total--;
+      notifyAll();
+    }
+  }
+
+  private void evictExpired() {
+    long now = System.nanoTime();
+    Iterator<Idle> iterator = idle.descendingIterator();
+    while (iterator.hasNext()) {
+      Idle candidate = iterator.next();
+      if (now - candidate.returnedAt < idleTimeoutNanos) {
+        break;
+      }
+      iterator.remove();
+      closeQuietly(candidate.connection);
+      total--;
+    }
+  }
+
+  private void waitFor(final long nanos) throws SQLException {
+    try {
+      long millis = Math.max(1, nanos / 1_000_000);
+      wait(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for a pooled connection", e);
+    }
+  }
+
+  private Connection wrap(final Connection connection) {
+    return (Connection) Proxy.newProxyInstance(
+      ConnectionPool.class.getClassLoader(),
+      new Class<?>[]{Connection.class},
+      new Lease(connection));
+  }
+
+  private static void closeQuietly(final Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      // Connection is being thrown away anyway.
+    }
+  }
+
+  private static int intFromEnv(final String name, final int defaultValue) {
+    String value = System.getenv(name);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+
+  private static final class Idle {
+    private final Connection connection;
+    private final long returnedAt;
+
+    private Idle(final Connection connection, final long returnedAt) {
+      this.connection = connection;
+      this.returnedAt = returnedAt;
+    }
+  }
+
+  /**
+   * Invocation handler of a borrowed connection. Closing the lease returns the connection to the pool; any further
+   * use of the proxy fails as it would on a closed connection.
+   */
+  private final class Lease implements InvocationHandler {
+    private Connection connection;
+
+    private Lease(final Connection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (connection != null) {
+            Connection released = connection;
+            connection = null;
+            release(released);
+          }
+          return null;
+        case "isClosed":
+          return connection == null || connection.isClosed();
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "PooledConnection[" + connection + "]";
+        default:
+          if (connection == null) {
+            throw new SQLException("Connection is closed");
+          }
+          try {
+            return method.invoke(connection, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+      }
+    }
+  }
+}
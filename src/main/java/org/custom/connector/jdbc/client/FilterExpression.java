@@ -0,0 +1,460 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * A filterExpression of a query parsed into a tree, rendered as SQL whose values are all bound parameters. Requests
+ * with the same filter shape, whatever their values, then share one statement text that the driver and the server can
+ * keep prepared, and values can no longer change the meaning of the statement.
+ * <p>
+ * Understands the AppFlow filter grammar: comparisons ({@code = != < <= > >=}) of a field with a value,
+ * {@code BETWEEN ... AND ...}, {@code IN (...)}, {@code CONTAINS}, combined with {@code AND}, {@code OR}, {@code NOT}
+ * and parentheses. Values are double or single quoted strings, numbers, {@code true}, {@code false}, {@code null},
+ * and ISO dates and date-times.
+ */
+final class FilterExpression {
+  private static final int MAX_PARSED = 256;
+  private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+  private static final Pattern DATE_TIME =
+    Pattern.compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}(:\\d{2}(\\.\\d+)?)?(Z|[+-]\\d{2}:?\\d{2})?");
+  private static final Pattern NUMBER = Pattern.compile("-?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+  // Parsed filters by their text; AppFlow sends the same expression with every page of a run.
+  private static final Map<String, FilterExpression> PARSED = Collections.synchronizedMap(
+    new LinkedHashMap<String, FilterExpression>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, FilterExpression> eldest) {
+        return size() > MAX_PARSED;
+      }
+    });
+
+  private final Node root;
+
+  private FilterExpression(final Node root) {
+    this.root = root;
+  }
+
+  /**
+   * @throws IllegalArgumentException when the expression does not follow the filter grammar
+   */
+  static FilterExpression parse(final String expression) {
+    FilterExpression parsed = PARSED.get(expression);
+    if (parsed == null) {
+      parsed = new FilterExpression(new Parser(expression).parse());
+      PARSED.put(expression, parsed);
+    }
+    return parsed;
+  }
+
+  /**
+   * @return String condition with a {@code ?} placeholder for every value, in the order of {@link #parameters()}
+   */
+  String toSql(final SqlDialect dialect) {
+    StringBuilder sql = new StringBuilder();
+    root.render(sql, dialect::quote);
+    return sql.toString();
+  }
+
+  /**
+   * @return List values to bind, each with the field it is compared to
+   */
+  List<Parameter> parameters() {
+    List<Parameter> parameters = new ArrayList<>();
+    root.collect(parameters);
+    return parameters;
+  }
+
+  /**
+   * @return Set fields the filter refers to, in order of appearance
+   */
+  Set<String> fields() {
+    Set<String> fields = new LinkedHashSet<>();
+    root.collectFields(fields);
+    return fields;
+  }
+
+  /**
+   * @return String the filter with its values left out, equal for filters that render the same statement
+   */
+  String shape() {
+    StringBuilder shape = new StringBuilder();
+    root.render(shape, UnaryOperator.identity());
+    return shape.toString();
+  }
+
+  /**
+   * A value of the filter and the field it is compared to, whose type decides how it is bound.
+   */
+  static final class Parameter {
+    private final String field;
+    private final JsonNode value;
+
+    private Parameter(final String field, final JsonNode value) {
+      this.field = field;
+      this.value = value;
+    }
+
+    String getField() {
+      return field;
+    }
+
+    JsonNode getValue() {
+      return value;
+    }
+  }
+
+  private interface Node {
+    void render(StringBuilder sql, UnaryOperator<String> quote);
+
+    void collect(List<Parameter> parameters);
+
+    void collectFields(Set<String> fields);
+  }
+
+  private static final class Logical implements Node {
+    private final String operator;
+    private final Node left;
+    private final Node right;
+
+    private Logical(final String operator, final Node left, final Node right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public void render(final StringBuilder sql, final UnaryOperator<String> quote) {
+      sql.append('(');
+      left.render(sql, quote);
+      sql.append(' ').append(operator).append(' ');
+      right.render(sql, quote);
+      sql.append(')');
+    }
+
+    @Override
+    public void collect(final List<Parameter> parameters) {
+      left.collect(parameters);
+      right.collect(parameters);
+    }
+
+    @Override
+    public void collectFields(final Set<String> fields) {
+      left.collectFields(fields);
+      right.collectFields(fields);
+    }
+  }
+
+  private static final class Not implements Node {
+    private final Node operand;
+
+    private Not(final Node operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    public void render(final StringBuilder sql, final UnaryOperator<String> quote) {
+      sql.append("NOT (");
+      operand.render(sql, quote);
+      sql.append(')');
+    }
+
+    @Override
+    public void collect(final List<Parameter> parameters) {
+      operand.collect(parameters);
+    }
+
+    @Override
+    public void collectFields(final Set<String> fields) {
+      operand.collectFields(fields);
+    }
+  }
+
+  /**
+   * A field compared to values, rendered as {@code field <sql> ?, ?...<suffix>}.
+   */
+  private static final class Predicate implements Node {
+    private final String field;
+    private final String sql;
+    private final String separator;
+    private final String suffix;
+    private final List<JsonNode> values;
+
+    private Predicate(final String field, final String sql, final String separator, final String suffix,
+                      final List<JsonNode> values) {
+      this.field = field;
+      this.sql = sql;
+      this.separator = separator;
+      this.suffix = suffix;
+      this.values = values;
+    }
+
+    @Override
+    public void render(final StringBuilder builder, final UnaryOperator<String> quote) {
+      builder.append(quote.apply(field)).append(' ').append(sql)
+        .append(values.stream().map(value -> "?").collect(Collectors.joining(separator)))
+        .append(suffix);
+    }
+
+    @Override
+    public void collect(final List<Parameter> parameters) {
+      values.forEach(value -> parameters.add(new Parameter(field, value)));
+    }
+
+    @Override
+    public void collectFields(final Set<String> fields) {
+      fields.add(field);
+    }
+  }
+
+  private static final class Token {
+    private final TokenType type;
+    private final String text;
+
+    private Token(final TokenType type, final String text) {
+      this.type = type;
+      this.text = text;
+    }
+
+    private boolean isWord(final String word) {
+      return type == TokenType.WORD && text.equalsIgnoreCase(word);
+    }
+  }
+
+  private enum TokenType {
+    WORD, STRING, LITERAL, OPERATOR, OPEN, CLOSE, COMMA, END
+  }
+
+  /**
+   * Recursive descent parser; OR binds loosest, then AND, then NOT.
+   */
+  private static final class Parser {
+    private final String expression;
+    private final List<Token> tokens;
+    private int position;
+
+    private Parser(final String expression) {
+      this.expression = expression;
+      tokens = tokenize(expression);
+    }
+
+    private Node parse() {
+      Node node = or();
+      expect(TokenType.END, "end of filter");
+      return node;
+    }
+
+    private Node or() {
+      Node node = and();
+      while (peek().isWord("OR")) {
+        position++;
+        node = new Logical("OR", node, and());
+      }
+      return node;
+    }
+
+    private Node and() {
+      Node node = not();
+      while (peek().isWord("AND")) {
+        position++;
+        node = new Logical("AND", node, not());
+      }
+      return node;
+    }
+
+    private Node not() {
+      if (peek().isWord("NOT")) {
+        position++;
+        return new Not(not());
+      }
+      if (peek().type == TokenType.OPEN) {
+        position++;
+        Node node = or();
+        expect(TokenType.CLOSE, "')'");
+        return node;
+      }
+      return predicate();
+    }
+
+    private Node predicate() {
+      String field = expect(TokenType.WORD, "field name").text;
+      if (isKeyword(field)) {
+        throw error("field name", field);
+      }
+      Token operator = next();
+      if (operator.type == TokenType.OPERATOR) {
+        JsonNode value = value();
+        if (value.isNull()) {
+          if ("=".equals(operator.text)) {
+            return new Predicate(field, "IS NULL", "", "", List.of());
+          }
+          if ("!=".equals(operator.text)) {
+            return new Predicate(field, "IS NOT NULL", "", "", List.of());
+          }
+          throw new IllegalArgumentException("Only = and != can compare " + field + " to null");
+        }
+        String sql = "!=".equals(operator.text) ? "<>" : operator.text;
+        return new Predicate(field, sql + " ", "", "", List.of(value));
+      }
+      if (operator.isWord("BETWEEN")) {
+        JsonNode low = nonNullValue(field);
+        if (!next().isWord("AND")) {
+          throw error("AND", tokens.get(position - 1).text);
+        }
+        return new Predicate(field, "BETWEEN ", " AND ", "", List.of(low, nonNullValue(field)));
+      }
+      if (operator.isWord("IN")) {
+        expect(TokenType.OPEN, "'('");
+        List<JsonNode> values = new ArrayList<>(List.of(nonNullValue(field)));
+        while (peek().type == TokenType.COMMA) {
+          position++;
+          values.add(nonNullValue(field));
+        }
+        expect(TokenType.CLOSE, "')'");
+        return new Predicate(field, "IN (", ", ", ")", Collections.unmodifiableList(values));
+      }
+      if (operator.isWord("CONTAINS")) {
+        // '!' is the escape character: it needs no escaping itself in any dialect's string literals, unlike '\'.
+        String pattern = "%" + nonNullValue(field).asText().replaceAll("([!%_])", "!$1") + "%";
+        return new Predicate(field, "LIKE ", "", " ESCAPE '!'", List.of(JsonNodeFactory.instance.textNode(pattern)));
+      }
+      throw error("comparison operator", operator.text);
+    }
+
+    private JsonNode nonNullValue(final String field) {
+      JsonNode value = value();
+      if (value.isNull()) {
+        throw new IllegalArgumentException("Only = and != can compare " + field + " to null");
+      }
+      return value;
+    }
+
+    private JsonNode value() {
+      Token token = next();
+      if (token.type == TokenType.STRING) {
+        return JsonNodeFactory.instance.textNode(token.text);
+      }
+      if (token.isWord("TRUE") || token.isWord("FALSE")) {
+        return JsonNodeFactory.instance.booleanNode(Boolean.parseBoolean(token.text.toLowerCase(Locale.ROOT)));
+      }
+      if (token.isWord("NULL")) {
+        return JsonNodeFactory.instance.nullNode();
+      }
+      if (token.type == TokenType.LITERAL) {
+        if (DATE.matcher(token.text).matches() || DATE_TIME.matcher(token.text).matches()) {
+          return JsonNodeFactory.instance.textNode(token.text);
+        }
+        if (NUMBER.matcher(token.text).matches()) {
+          BigDecimal number = new BigDecimal(token.text);
+          return number.scale() <= 0 && number.abs().compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0
+            ? JsonNodeFactory.instance.numberNode(number.longValueExact())
+            : JsonNodeFactory.instance.numberNode(number);
+        }
+      }
+      throw error("value", token.text);
+    }
+
+    private Token peek() {
+      return tokens.get(position);
+    }
+
+    private Token next() {
+      Token token = tokens.get(position);
+      if (token.type != TokenType.END) {
+        position++;
+      }
+      return token;
+    }
+
+    private Token expect(final TokenType type, final String what) {
+      Token token = next();
+      if (token.type != type) {
+        throw error(what, token.text);
+      }
+      return token;
+    }
+
+    private IllegalArgumentException error(final String expected, final String found) {
+      return new IllegalArgumentException(String.format("Invalid filterExpression, expected %s but found %s: %s",
+        expected, found.isEmpty() ? "end of filter" : "'" + found + "'", expression));
+    }
+
+    private static boolean isKeyword(final String word) {
+      return Set.of("AND", "OR", "NOT", "BETWEEN", "IN", "CONTAINS", "TRUE", "FALSE", "NULL")
+        .contains(word.toUpperCase(Locale.ROOT));
+    }
+
+    private List<Token> tokenize(final String text) {
+      List<Token> result = new ArrayList<>();
+      int i = 0;
+      while (i < text.length()) {
+        char c = text.charAt(i);
+        if (Character.isWhitespace(c)) {
+          i++;
+        } else if (c == '(' || c == ')' || c == ',') {
+          result.add(new Token(c == '(' ? TokenType.OPEN : c == ')' ? TokenType.CLOSE : TokenType.COMMA,
+            String.valueOf(c)));
+          i++;
+        } else if (c == '"' || c == '\'') {
+          StringBuilder value = new StringBuilder();
+          int end = i + 1;
+          while (end < text.length() && text.charAt(end) != c) {
+            if (text.charAt(end) == '\\' && end + 1 < text.length()) {
+              end++;
+            }
+            value.append(text.charAt(end++));
+          }
+          if (end == text.length()) {
+            throw new IllegalArgumentException("Invalid filterExpression, unterminated string: " + expression);
+          }
+          result.add(new Token(TokenType.STRING, value.toString()));
+          i = end + 1;
+        } else if (c == '!' || c == '=' || c == '<' || c == '>') {
+          int end = i + 1 < text.length() && text.charAt(i + 1) == '=' ? i + 2 : i + 1;
+          String operator = text.substring(i, end);
+          if ("!".equals(operator)) {
+            throw error("comparison operator", operator);
+          }
+          result.add(new Token(TokenType.OPERATOR, "==".equals(operator) ? "=" : operator));
+          i = end;
+        } else if (Character.isDigit(c) || c == '-' || c == '.') {
+          int end = i + 1;
+          while (end < text.length() && (Character.isLetterOrDigit(text.charAt(end))
+            || ":.+-".indexOf(text.charAt(end)) >= 0)) {
+            end++;
+          }
+          result.add(new Token(TokenType.LITERAL, text.substring(i, end)));
+          i = end;
+        } else if (Character.isLetter(c) || c == '_') {
+          int end = i + 1;
+          while (end < text.length() && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '_'
+            || text.charAt(end) == '$' || text.charAt(end) == '.')) {
+            end++;
+          }
+          result.add(new Token(TokenType.WORD, text.substring(i, end)));
+          i = end;
+        } else {
+          throw new IllegalArgumentException(String.format("Invalid filterExpression, unexpected '%c': %s", c,
+            expression));
+        }
+      }
+      result.add(new Token(TokenType.END, ""));
+      return result;
+    }
+  }
+}
@@ -6,6 +6,7 @@ package org.custom.connector.jdbc.client;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 
 import com.amazonaws.appflow.custom.connector.model.metadata.DescribeEntityRequest;
 import com.amazonaws.appflow.custom.connector.model.metadata.Entity;
@@ -14,6 +15,7 @@ import com.amazonaws.appflow.custom.connector.model.metadata.ListEntitiesRequest
 import com.amazonaws.appflow.custom.connector.model.query.QueryDataRequest;
 import com.amazonaws.appflow.custom.connector.model.write.WriteDataRequest;
 import com.amazonaws.appflow.custom.connector.model.write.WriteOperationType;
+import com.amazonaws.appflow.custom.connector.model.write.WriteRecordResult;
 
 public interface JDBCClient {
   List<WriteOperationType> getWriteOperations();
@@ -26,7 +28,14 @@ public interface JDBCClient {
 
   long getTotalData(final QueryDataRequest request) throws SQLException;
 
-  List<String> queryData(final QueryDataRequest request) throws SQLException;
+  long estimateTotalData(final QueryDataRequest request) throws SQLException;
 
-  int[] writeData(final WriteDataRequest request) throws SQLException;
+  QueryPage queryData(final QueryDataRequest request) throws SQLException;
+
+  List<WriteRecordResult> writeData(final WriteDataRequest request) throws SQLException;
+
+  /**
+   * @return Map error message by setting key, empty when the client accepts every setting
+   */
+  Map<String, String> validateSettings(final Map<String, String> settings);
 }
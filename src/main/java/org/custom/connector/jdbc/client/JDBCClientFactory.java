@@ -18,7 +18,9 @@ public class JDBCClientFactory implements AbstractFactory<JDBCClient> {
 
     switch (driver) {
       case "mysql":
-        return new MySQLClient(secrets);
+        return new MySQLClient(creds.secretArn(), secrets);
+      case "postgresql":
+        return new PostgreSQLClient(creds.secretArn(), secrets);
       default:
         throw new NotImplementedException("JDBC Driver: " + driver + " is not yet implemented");
     }
@@ -0,0 +1,77 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches schema metadata (entity lists and field definitions) keyed by secret ARN, database and table.
+ * An entry older than its time to live is not dropped straight away: the cheap fingerprint query it was stored with
+ * is run again and the entry is kept for another period when the schema has not changed.
+ */
+final class MetadataCache<T> {
+  static final Duration DEFAULT_TTL = Duration.ofSeconds(
+    Long.parseLong(System.getenv().getOrDefault("METADATA_CACHE_TTL_SECONDS", "300")));
+
+  /**
+   * Runs a metadata query against the database.
+   */
+  @FunctionalInterface
+  interface Loader<V> {
+    V load() throws SQLException;
+  }
+
+  private final Map<List<String>, Entry<T>> entries = new ConcurrentHashMap<>();
+  private final long ttlNanos;
+  private final LongSupplier clock;
+
+  MetadataCache(final Duration ttl, final LongSupplier clock) {
+    this.ttlNanos = ttl.toNanos();
+    this.clock = clock;
+  }
+
+  /**
+   * @param key         secret ARN, database and, for field definitions, the table
+   * @param fingerprint returns a value that changes whenever the cached metadata does
+   * @param loader      reads the metadata
+   * @return T cached, revalidated or freshly loaded metadata
+   */
+  T get(final List<String> key, final Loader<String> fingerprint, final Loader<T> loader) throws SQLException {
+    Entry<T> entry = entries.get(key);
+    if (entry != null && clock.getAsLong() - entry.validatedAt < ttlNanos) {
+      return entry.value;
+    }
+
+    String current = fingerprint.load();
+    if (entry != null && current != null && current.equals(entry.fingerprint)) {
+      entries.put(key, new Entry<>(entry.value, current, clock.getAsLong()));
+      return entry.value;
+    }
+
+    T value = loader.load();
+    entries.put(key, new Entry<>(value, current, clock.getAsLong()));
+    return value;
+  }
+
+  void invalidate(final List<String> key) {
+    entries.remove(key);
+  }
+
+  private static final class Entry<T> {
+    private final T value;
+    private final String fingerprint;
+    private final long validatedAt;
+
+    private Entry(final T value, final String fingerprint, final long validatedAt) {
+      this.value = value;
+      this.fingerprint = fingerprint;
+      this.validatedAt = validatedAt;
+    }
+  }
+}
@@ -3,288 +3,96 @@
 
 package org.custom.connector.jdbc.client;
 
-import com.amazonaws.appflow.custom.connector.model.metadata.DescribeEntityRequest;
-import com.amazonaws.appflow.custom.connector.model.metadata.Entity;
-import com.amazonaws.appflow.custom.connector.model.metadata.FieldDataType;
 import com.amazonaws.appflow.custom.connector.model.metadata.FieldDefinition;
-import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableEntity;
-import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableFieldDefinition;
-import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableReadOperationProperty;
-import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableWriteOperationProperty;
-import com.amazonaws.appflow.custom.connector.model.metadata.ListEntitiesRequest;
 import com.amazonaws.appflow.custom.connector.model.query.QueryDataRequest;
-import com.amazonaws.appflow.custom.connector.model.write.WriteDataRequest;
-import com.amazonaws.appflow.custom.connector.model.write.WriteOperationType;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.text.StringEscapeUtils;
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.RuntimeProperty;
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.custom.connector.jdbc.config.RuntimeSettings;
+import org.custom.connector.jdbc.utils.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DatabaseMetaData;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLWarning;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
-public final class MySQLClient implements JDBCClient {
+/**
+ * MySQL client, which can also read the changes of an entity from the binary log.
+ */
+public final class MySQLClient extends AbstractJDBCClient implements ChangeCapture, BulkLoader {
   private static final Logger LOGGER = LoggerFactory.getLogger(MySQLClient.class);
-  final ObjectMapper objectMapper = new ObjectMapper();
-  private Connection conn = null;
-  private final Map<String, String> credentials;
 
-  public MySQLClient(final Map<String, String> creds) {
-    credentials = creds;
+  public MySQLClient(final String arn, final Map<String, String> creds) {
+    this(arn, creds, null);
   }
 
-  @Override
-  public List<WriteOperationType> getWriteOperations() {
-    List<WriteOperationType> writeOperationTypes = new ArrayList<>();
-    writeOperationTypes.add(WriteOperationType.UPSERT);
-    writeOperationTypes.add(WriteOperationType.UPDATE);
-    writeOperationTypes.add(WriteOperationType.INSERT);
-    return writeOperationTypes;
-  }
-
-  @Override
-  public List<Entity> getEntities(final ListEntitiesRequest request) throws SQLException {
-    final List<Entity> records = new ArrayList<Entity>();
-
-    Connection conn = getConnection();
-
-    DatabaseMetaData metaData = conn.getMetaData();
-    String[] types = {"TABLE"};
-    // Retrieving the columns in the database
-    ResultSet tables = metaData.getTables(null, null, "%", types);
-    while (tables.next()) {
-      records.add(
-        ImmutableEntity.builder()
-          .entityIdentifier(tables.getString("TABLE_NAME"))
-          .description(tables.getString("TABLE_NAME"))
-          .label(tables.getString("TABLE_NAME"))
-          .hasNestedEntities(false)
-          .build());
-    }
-    conn.close();
-    return records;
+  /**
+   * @param connectionFactory opens physical connections in place of the JDBC URL built from the credentials,
+   *                          used to run the client against an embedded database
+   */
+  MySQLClient(final String arn, final Map<String, String> creds,
+              final ConnectionPool.ConnectionFactory connectionFactory) {
+    super(arn, creds, new MySQLDialect(), connectionFactory);
   }
 
+  /**
+   * Reads one page of inserts, updates and deletes from the binary log. A run reads from the checkpoint where the
+   * previous complete run stopped up to the end of the log when it started, so it finishes even while the table keeps
+   * changing. Without a checkpoint, on the first run or when the checkpoint was lost, the run starts from the
+   * binlogStart setting and fails when there is none, as the changes since the last run cannot be found otherwise.
+   * The initial load has to come from a regular read.
+   */
   @Override
-  public List<FieldDefinition> getFieldDefinitions(final DescribeEntityRequest request) throws SQLException {
-    final List<FieldDefinition> fieldDefinitions = new ArrayList<>();
-    Connection conn = getConnection();
-
-    Statement st = conn.createStatement();
-    String sql = String.format("DESCRIBE `%s`", request.entityIdentifier());
-    ResultSet rs = st.executeQuery(sql);
-
-    while (rs.next()) {
-      fieldDefinitions.add(ImmutableFieldDefinition.builder()
-        .fieldName(rs.getString(1))
-        .dataType(mapFieldType(rs.getString(2)))
-        .dataTypeLabel(rs.getString(1))
-        .label(rs.getString(1))
-        .isPrimaryKey(rs.getString(4).equals("PRI"))
-        .readProperties(ImmutableReadOperationProperty.builder()
-          .isQueryable(true)
-          .isRetrievable(true)
-          .build())
-        .writeProperties(ImmutableWriteOperationProperty.builder()
-          .isNullable(true)
-          .isUpdatable(true)
-          .isCreatable(true)
-          .isDefaultedOnCreate(!rs.getString(4).equals("PRI"))
-          .supportedWriteOperations(getWriteOperations())
-          .build())
-        .build());
-    }
-    rs.close();
-    conn.close();
-    return fieldDefinitions;
-  }
-
-  @Override
-  public Connection getConnection() {
-    try {
-      if (conn != null && conn.isValid(0)) {
-        return conn;
-      }
-    } catch (SQLException e) {
-      // Do nothing for now.
-    }
-
-    try {
-      String uri = String.format(
-        "jdbc:%s://%s:%s/%s?user=%s&password=%s",
-        credentials.get("driver"),
-        credentials.get("hostname"),
-        credentials.get("port"),
-        credentials.get("database"),
-        credentials.get("username"),
-        credentials.get("password")
-      );
-
-      conn = DriverManager.getConnection(uri);
-    } catch (SQLException ex) {
-      // handle any errors
-      LOGGER.error("SQLException: " + ex.getMessage());
-      LOGGER.error("SQLState: " + ex.getSQLState());
-      LOGGER.error("VendorError: " + ex.getErrorCode());
-    }
-    return conn;
-  }
-
-  private FieldDataType mapFieldType(final String mysqlType) {
-    String[] temp = mysqlType.split("\\(");
-    String mtype = temp[0].toUpperCase();
-    switch (mtype) {
-      case "ARRAY":
-      case "STRUCT":
-        return FieldDataType.Struct;
-      case "BIGINT":
-      case "NUMERIC":
-        return FieldDataType.BigInteger;
-      case "BINARY":
-      case "LONGVARBINARY":
-      case "VARBINARY":
-        return FieldDataType.ByteArray;
-      case "BIT":
-      case "SMALLINT":
-      case "INTEGER":
-      case "TINYINT":
-      case "MEDIUMINT":
-      case "INT":
-        return FieldDataType.Integer;
-      case "BLOB":
-        return FieldDataType.String;
-      case "BOOLEAN":
-        return FieldDataType.Boolean;
-      case "CHAR":
-        return FieldDataType.String;
-      case "CLOB":
-        return FieldDataType.String;
-      case "DATALINK":
-        return FieldDataType.String;
-      case "DATE":
-        return FieldDataType.Date;
-      case "DECIMAL":
-      case "DOUBLE":
-        return FieldDataType.Double;
-      case "DISTINCT":
-        return FieldDataType.String;
-      case "FLOAT":
-        return FieldDataType.Float;
-      case "JAVA_OBJECT":
-        return FieldDataType.Map;
-      case "LONGNVARCHAR":
-        return FieldDataType.String;
-      case "LONGVARCHAR":
-        return FieldDataType.String;
-      case "NCHAR":
-        return FieldDataType.String;
-      case "NCLOB":
-        return FieldDataType.String;
-      case "NULL":
-        return FieldDataType.String;
-      case "NVARCHAR":
-        return FieldDataType.String;
-      case "OTHER":
-        return FieldDataType.String;
-      case "REAL":
-        return FieldDataType.Long;
-      case "REF":
-        return FieldDataType.String;
-      case "REF_CURSOR":
-        return FieldDataType.String;
-      case "ROWID":
-        return FieldDataType.String;
-      case "SQLXML":
-        return FieldDataType.String;
-      case "TIME":
-      case "TIME_WITH_TIMEZONE":
-      case "TIMESTAMP":
-      case "TIMESTAMP_WITH_TIMEZONE":
-        return FieldDataType.DateTime;
-      case "VARCHAR":
-        return FieldDataType.String;
-      default:
-        return FieldDataType.String;
+  public QueryPage queryChanges(final QueryDataRequest request, final PageToken token) {
+    String entity = request.entityIdentifier();
+    List<String> checkpointKey = Arrays.asList(secretArn, credentials.get("database"), entity, "binlog");
+    String checkpoint = token.isBinlog() ? null : WATERMARKS.get(checkpointKey);
+    String binlogStart = RuntimeSettings.of(request.connectorContext().connectorRuntimeSettings()).getBinlogStart();
+    if (!token.isBinlog() && checkpoint == null && binlogStart == null) {
+      throw new IllegalStateException(String.format("No binary log checkpoint of %s was found, so the changes since "
+        + "the last run cannot be told apart. Checkpoints are kept at WATERMARK_STORE_PATH, which must be storage "
+        + "shared by the function's containers, such as an EFS mount. Set binlogStart to the position to read from, "
+        + "or to %s to skip every change made so far", entity, RuntimeSettings.CURRENT));
     }
-  }
 
-  @Override
-  public long getTotalData(final QueryDataRequest request) {
     try (Connection conn = getConnection()) {
-      Statement st = conn.createStatement();
-
-      String sql = String.format("SELECT COUNT(*) as cnt FROM `%s`", request.entityIdentifier());
-      if (request.filterExpression() != null) {
-        sql = sql + String.format(" WHERE %s", request.filterExpression());
-      }
-
-      ResultSet rs = st.executeQuery(sql);
-      rs.next();
-      long count = rs.getLong("cnt");
-      st.close();
-      conn.close();
-      return count;
-    } catch (SQLException ex) {
-      LOGGER.error("SQLException information");
-      while (ex != null) {
-        LOGGER.error("Error msg: " + ex.getMessage());
-        ex = ex.getNextException();
+      BinlogPosition end = token.isBinlog() ? token.getBinlogEnd() : queryBinlogEnd(conn);
+      BinlogPosition start;
+      if (token.isBinlog()) {
+        start = token.getBinlogPosition();
+      } else if (checkpoint != null) {
+        start = BinlogPosition.parse(checkpoint);
+      } else {
+        LOGGER.warn(String.format("No binary log checkpoint of %s, starting from binlogStart %s", entity, binlogStart));
+        start = RuntimeSettings.CURRENT.equalsIgnoreCase(binlogStart) ? end : BinlogPosition.parse(binlogStart);
       }
-      throw new RuntimeException("Error");
-    }
-  }
-
-  @Override
-  public List<String> queryData(final QueryDataRequest request) {
-    List<String> records = new ArrayList<String>();
-
-    try (Connection conn = getConnection()) {
-
-      Statement st = conn.createStatement();
-      String sql = String.format(
-        "SELECT %s FROM `%s`", String.join(",", request.selectedFieldNames()), request.entityIdentifier()
-      );
-
-      if (request.filterExpression() != null) {
-        sql = sql + String.format(" WHERE %s", request.filterExpression());
+      if (start.compareTo(end) >= 0) {
+        WATERMARKS.put(checkpointKey, start.toString());
+        return new QueryPage(List.of(), null);
       }
 
-      if (request.maxResults() != null) {
-        int nextToken = 0;
-        if (request.nextToken() != null) {
-          nextToken = Integer.parseInt(request.nextToken());
-        }
-        sql = sql + String.format(" LIMIT %s, %s", nextToken, request.maxResults());
+      List<FieldDefinition> fields = describeEntity(conn, entity);
+      BinlogChangeReader reader = new BinlogChangeReader(credentials.get("database"), entity, fields,
+        request.selectedFieldNames());
+      BinlogChangeReader.ChangePage page;
+      try (Metrics.Timer ignored = Metrics.current().time("BinlogRead");
+           BinlogStream stream = BinlogStream.open(credentials, start)) {
+        page = reader.read(stream, start, token.getBinlogSkip(), end, request.maxResults());
       }
-
-      ResultSet rs = st.executeQuery(sql);
-      Map<String, String> rows = new HashMap<>();
-
-      while (rs.next()) {
-        for (int i = 0; i < request.selectedFieldNames().size(); i++) {
-          rows.put(request.selectedFieldNames().get(i), rs.getString(i + 1));
-        }
-        try {
-          records.add(objectMapper.writeValueAsString(rows));
-          rows.clear();
-        } catch (JsonProcessingException e) {
-          e.printStackTrace();
-        }
+      if (page.getNext() != null) {
+        return new QueryPage(page.getRecords(), page.getNext().encode());
       }
-      rs.close();
+      WATERMARKS.put(checkpointKey, page.getReached().toString());
+      return new QueryPage(page.getRecords(), null);
     } catch (SQLException ex) {
       LOGGER.error("SQLException information");
       while (ex != null) {
@@ -292,93 +100,61 @@ public final class MySQLClient implements JDBCClient {
         ex = ex.getNextException();
       }
       throw new RuntimeException("Error");
+    } catch (IOException ex) {
+      LOGGER.error("Error reading the binary log: " + ex.getMessage());
+      throw new RuntimeException("Error");
     }
-    return records;
   }
 
+  /**
+   * Streams the records to {@code LOAD DATA LOCAL INFILE} as tab separated lines, straight from the parsed JSON and
+   * without a temporary file. Reading local files is only enabled on the connection while the statement runs, and
+   * then only for this stream; the URL restricts any file the server asks for to a directory that is never used.
+   * <p>
+   * With a local file the server skips rows whose key already exists and stores values it has to convert, reporting
+   * both only as warnings. A load that stored fewer rows than were sent, or raised any warning, therefore fails, so
+   * that the transaction splits it down to the records at fault.
+   */
   @Override
-  public int[] writeData(final WriteDataRequest request) {
-    JsonNode recordJson;
-
-    try (Connection conn = getConnection()) {
-      conn.setAutoCommit(true);
-      Statement statement = conn.createStatement();
-
-      String sql;
-
-      for (String record : request.records()) {
-        sql = "";
-        try {
-          recordJson = objectMapper.readValue(record, JsonNode.class);
-        } catch (JsonProcessingException e) {
-          throw new IllegalArgumentException("Invalid record provided for Write operation. Record must be valid JSON", e);
-        }
-        List<String> keys = new ArrayList<>();
-        Iterator<String> iterator = recordJson.fieldNames();
-        iterator.forEachRemaining(e -> keys.add(e));
-
-        if (WriteOperationType.INSERT.equals(request.operation()) || WriteOperationType.UPSERT.equals(request.operation())) {
-          if (WriteOperationType.UPSERT.equals(request.operation())) {
-            sql = "REPLACE";
-          } else {
-            sql = "INSERT";
-          }
-
-          sql += String.format(" INTO `%s` (%s) VALUES (", request.entityIdentifier(), String.join(",", keys));
-          String value;
-
-          for (int i = 0; i < keys.size(); i++) {
-            value = StringEscapeUtils.escapeJava(getValueFromRecord(recordJson, keys.get(i)));
-            if (i > 0) {
-              sql += String.format(", \"%s\"", value);
-            } else {
-              sql += String.format("\"%s\"", value);
-            }
-          }
-          sql += ")";
-        } else if (WriteOperationType.UPDATE.equals(request.operation())) {
-          if (Objects.requireNonNull(request.idFieldNames()).size() != 1) {
-            throw new IllegalArgumentException("A single Id field is required for UPSERT operations in JDBC");
-          }
-
-          String recordIdKey = request.idFieldNames().get(0);
-          String recordId = getValueFromRecord(recordJson, recordIdKey);
-          String value;
-          sql = String.format("UPDATE `%s` SET ", request.entityIdentifier());
-          for (int i = 0; i < keys.size(); i++) {
-            value = StringEscapeUtils.escapeJava(getValueFromRecord(recordJson, keys.get(i)));
-
-            if (i > 0) {
-              sql += String.format(", %s = \"%s\"", keys.get(i), value);
-            } else {
-              sql += String.format("%s = \"%s\"", keys.get(i), value);
-            }
-          }
-          sql += String.format(" WHERE %s = %s", recordIdKey, recordId);
-        }
-        statement.addBatch(sql);
+  public void bulkInsert(final Connection conn, final String entity, final List<String> columns,
+                         final List<Integer> rows, final List<JsonNode> records) throws SQLException {
+    String sql = String.format("LOAD DATA LOCAL INFILE 'records.tsv' INTO TABLE %s CHARACTER SET utf8mb4 (%s)",
+      dialect.quote(entity), dialect.quoteAll(columns));
+    RuntimeProperty<Boolean> allowLocalInfile = conn.unwrap(JdbcConnection.class).getPropertySet()
+      .getBooleanProperty(PropertyKey.allowLoadLocalInfile);
+    allowLocalInfile.setValue(true);
+    try (Metrics.Timer ignored = Metrics.current().time("BulkLoad");
+         Statement st = conn.createStatement()) {
+      st.unwrap(JdbcStatement.class).setLocalInfileInputStream(
+        new TsvRecordStream(columns, rows.stream().map(records::get).iterator()));
+      st.execute(sql);
+      int loaded = st.getUpdateCount();
+      SQLWarning warning = st.getWarnings();
+      if (loaded != rows.size() || warning != null) {
+        throw new SQLException(String.format("Loaded %d of %d rows%s", loaded, rows.size(),
+          warning == null ? "" : ": " + warning.getMessage()));
       }
-      int[] records = statement.executeBatch();
-      statement.close();
-      conn.close();
-      return records;
-    } catch (SQLException ex) {
-      LOGGER.error("SQLException information");
-      while (ex != null) {
-        LOGGER.error("Error msg: " + ex.getMessage());
-        ex = ex.getNextException();
-      }
-      throw new RuntimeException("Error");
+    } finally {
+      allowLocalInfile.setValue(false);
     }
   }
 
-  private String getValueFromRecord(final JsonNode jsonRecord, final String key) {
-    if (Objects.isNull(jsonRecord) || Objects.isNull(jsonRecord.get(key))) {
-      throw new IllegalArgumentException(key + " key is missing from JSON record but is required");
+  /**
+   * @return BinlogPosition current end of the binary log
+   */
+  private BinlogPosition queryBinlogEnd(final Connection conn) throws SQLException {
+    String sql = "SHOW MASTER STATUS";
+    if (conn.getMetaData().getDatabaseMajorVersion() > 8
+      || (conn.getMetaData().getDatabaseMajorVersion() == 8 && conn.getMetaData().getDatabaseMinorVersion() >= 2)) {
+      // Renamed in MySQL 8.2 and the old name removed in 8.4.
+      sql = "SHOW BINARY LOG STATUS";
     }
-    if (StringUtils.isEmpty(jsonRecord.get(key).textValue())) {
-      return null;
+    try (Statement st = conn.createStatement();
+         ResultSet rs = st.executeQuery(sql)) {
+      if (!rs.next()) {
+        throw new SQLException("Binary logging is not enabled on the server");
+      }
+      return new BinlogPosition(rs.getString("File"), rs.getLong("Position"));
     }
-    return jsonRecord.get(key).textValue();
   }
 }
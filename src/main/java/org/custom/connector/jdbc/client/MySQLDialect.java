@@ -0,0 +1,224 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.metadata.FieldDataType;
+import com.mysql.cj.jdbc.JdbcStatement;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * MySQL: backtick quoting, {@code INSERT ... ON DUPLICATE KEY UPDATE} for upserts and SHOW COLUMNS for metadata.
+ */
+final class MySQLDialect implements SqlDialect {
+  private static final int ER_LOCK_DEADLOCK = 1213;
+  private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+  // Cheap checksums that change with any DDL affecting the cached entity list or field definitions.
+  private static final String ENTITIES_FINGERPRINT_SQL = "SELECT CONCAT(COUNT(*), ':', "
+    + "COALESCE(SUM(CRC32(TABLE_NAME)), 0)) "
+    + "FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_TYPE = 'BASE TABLE'";
+  private static final String FIELDS_FINGERPRINT_SQL = "SELECT CONCAT(COUNT(*), ':', "
+    + "COALESCE(SUM(CRC32(CONCAT_WS(':', ORDINAL_POSITION, COLUMN_NAME, COLUMN_TYPE, COLUMN_KEY))), 0)) "
+    + "FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+  @Override
+  public String driverClassName() {
+    return "com.mysql.cj.jdbc.Driver";
+  }
+
+  @Override
+  public String jdbcUrl(final Map<String, String> credentials) {
+    // Naming a local infile path makes the driver offer LOAD DATA LOCAL to the server; the bulk load replaces the file
+    // with its own stream, so the path only bounds what a server could request and is never read.
+    // Statements are built with placeholders and the same text recurs every page, so the driver keeps their parsed
+    // form per connection.
+    // Cursor fetch lets a read with a fetch size pull its rows from a server-side cursor. It makes prepared statements
+    // server-side, which the statement cache then keeps prepared on the connection.
+    return String.format("jdbc:mysql://%s:%s/%s?rewriteBatchedStatements=true"
+      + "&allowLoadLocalInfileInPath=/tmp/jdbc-connector-load-data"
+      + "&cachePrepStmts=true&prepStmtCacheSize=256&prepStmtCacheSqlLimit=4096&useCursorFetch=true",
+      credentials.get("hostname"), credentials.get("port"), credentials.get("database"));
+  }
+
+  @Override
+  public String quote(final String identifier) {
+    return '`' + identifier.replace("`", "``") + '`';
+  }
+
+  /**
+   * Updates rows in place on a key conflict. Unlike REPLACE, which deletes and re-inserts the row, this leaves
+   * secondary indexes of unchanged columns alone, fires no delete triggers and keeps the auto-increment counter.
+   * Conflicting rows of a key-only write are left as they are.
+   */
+  @Override
+  public String upsert(final String table, final List<String> columns, final List<String> keys, final int rows) {
+    String sql = insert(table, columns, rows) + " ON DUPLICATE KEY UPDATE ";
+    List<String> updated = columns.stream().filter(column -> !keys.contains(column)).collect(Collectors.toList());
+    if (updated.isEmpty()) {
+      return sql + String.format("%1$s = %1$s", quote(columns.get(0)));
+    }
+    return sql + updated.stream()
+      .map(column -> String.format("%1$s = VALUES(%1$s)", quote(column)))
+      .collect(Collectors.joining(", "));
+  }
+
+  @Override
+  public String createStagingTable(final String staging, final String table, final List<String> columns) {
+    return String.format("CREATE TEMPORARY TABLE %s SELECT %s FROM %s LIMIT 0",
+      quote(staging), quoteAll(columns), quote(table));
+  }
+
+  /**
+   * Only ever drops a temporary table, and without the implicit commit of DROP TABLE.
+   */
+  @Override
+  public String dropStagingTable(final String staging) {
+    return "DROP TEMPORARY TABLE IF EXISTS " + quote(staging);
+  }
+
+  @Override
+  public String updateFromStaging(final String table, final String staging, final List<String> keys,
+                                  final List<String> columns) {
+    return String.format("UPDATE %s t JOIN %s s USING (%s) SET %s", quote(table), quote(staging), quoteAll(keys),
+      columns.stream().map(column -> String.format("t.%1$s = s.%1$s", quote(column)))
+        .collect(Collectors.joining(", ")));
+  }
+
+  @Override
+  public List<Column> describeColumns(final Connection conn, final String table) throws SQLException {
+    List<Column> columns = new ArrayList<>();
+    try (Statement st = conn.createStatement();
+         ResultSet rs = st.executeQuery("SHOW COLUMNS FROM " + quote(table))) {
+      while (rs.next()) {
+        columns.add(new Column(rs.getString(1), rs.getString(2), "PRI".equals(rs.getString(4))));
+      }
+    }
+    return Collections.unmodifiableList(columns);
+  }
+
+  @Override
+  public FieldDataType mapFieldType(final String mysqlType) {
+    String[] temp = mysqlType.split("[( ]");
+    String mtype = temp[0].toUpperCase();
+    switch (mtype) {
+      case "ARRAY":
+      case "STRUCT":
+        return FieldDataType.Struct;
+      case "BIGINT":
+      case "NUMERIC":
+        return FieldDataType.BigInteger;
+      case "BINARY":
+      case "LONGVARBINARY":
+      case "VARBINARY":
+        return FieldDataType.ByteArray;
+      case "BIT":
+      case "SMALLINT":
+      case "INTEGER":
+      case "TINYINT":
+      case "MEDIUMINT":
+      case "INT":
+        return FieldDataType.Integer;
+      case "BLOB":
+        return FieldDataType.String;
+      case "BOOLEAN":
+        return FieldDataType.Boolean;
+      case "CHAR":
+        return FieldDataType.String;
+      case "CLOB":
+        return FieldDataType.String;
+      case "DATALINK":
+        return FieldDataType.String;
+      case "DATE":
+        return FieldDataType.Date;
+      case "DECIMAL":
+      case "DOUBLE":
+        return FieldDataType.Double;
+      case "DISTINCT":
+        return FieldDataType.String;
+      case "FLOAT":
+        return FieldDataType.Float;
+      case "JAVA_OBJECT":
+        return FieldDataType.Map;
+      case "LONGNVARCHAR":
+        return FieldDataType.String;
+      case "LONGVARCHAR":
+        return FieldDataType.String;
+      case "NCHAR":
+        return FieldDataType.String;
+      case "NCLOB":
+        return FieldDataType.String;
+      case "NULL":
+        return FieldDataType.String;
+      case "NVARCHAR":
+        return FieldDataType.String;
+      case "OTHER":
+        return FieldDataType.String;
+      case "REAL":
+        return FieldDataType.Double;
+      case "REF":
+        return FieldDataType.String;
+      case "REF_CURSOR":
+        return FieldDataType.String;
+      case "ROWID":
+        return FieldDataType.String;
+      case "SQLXML":
+        return FieldDataType.String;
+      case "DATETIME":
+      case "TIME":
+      case "TIME_WITH_TIMEZONE":
+      case "TIMESTAMP":
+      case "TIMESTAMP_WITH_TIMEZONE":
+        return FieldDataType.DateTime;
+      case "VARCHAR":
+        return FieldDataType.String;
+      default:
+        return FieldDataType.String;
+    }
+  }
+
+  @Override
+  public String entitiesFingerprintSql() {
+    return ENTITIES_FINGERPRINT_SQL;
+  }
+
+  @Override
+  public String fieldsFingerprintSql() {
+    return FIELDS_FINGERPRINT_SQL;
+  }
+
+  @Override
+  public String estimatedRowsSql() {
+    return "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+  }
+
+  @Override
+  public String logWaitsSql() {
+    return "SELECT VARIABLE_VALUE FROM performance_schema.global_status WHERE VARIABLE_NAME = 'Innodb_log_waits'";
+  }
+
+  @Override
+  public boolean isTransient(final SQLException ex) {
+    return ex.getErrorCode() == ER_LOCK_DEADLOCK || ex.getErrorCode() == ER_LOCK_WAIT_TIMEOUT;
+  }
+
+  /**
+   * Have Connector/J stream rows off the socket instead of buffering the whole result, row by row by default. With a
+   * fetch size the rows are read from a server-side cursor instead, that many per round trip; the server then
+   * materializes the result before the first row is returned.
+   */
+  @Override
+  public void streamResults(final Connection conn, final Statement st, final Integer fetchSize) throws SQLException {
+    if (st.isWrapperFor(JdbcStatement.class)) {
+      st.setFetchSize(fetchSize == null ? Integer.MIN_VALUE : fetchSize);
+    }
+  }
+}
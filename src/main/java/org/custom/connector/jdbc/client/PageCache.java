@@ -0,0 +1,311 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.query.QueryDataRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.custom.connector.jdbc.config.RuntimeSettings;
+import org.custom.connector.jdbc.utils.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Pages returned by recent reads, so that a page AppFlow asks for again, on a retry or by a flow running the same
+ * query minutes later, is answered without the database. A page is keyed by everything that shapes it: secret, entity,
+ * selected fields, filter, page size, runtime settings and the cursor it starts from.
+ * <p>
+ * Pages live for a short time to live and are evicted least recently used once the cache holds more than its byte
+ * budget. With a spill directory, evicted pages are written there instead, up to a budget of their own, and read back
+ * from disk. A write through the connector drops the pages of its entity; writes from elsewhere show once the pages
+ * expire, so the time to live bounds how stale a page can be.
+ * <p>
+ * Incremental reads and change data capture are never cached, their pages depend on what changed since the last run.
+ * The cache is off unless PAGE_CACHE_BYTES is set; PAGE_CACHE_TTL_SECONDS (60 by default), PAGE_CACHE_SPILL_DIR and
+ * PAGE_CACHE_SPILL_BYTES (256 MiB by default) tune it.
+ */
+public final class PageCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(PageCache.class);
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final long DEFAULT_SPILL_BYTES = 256L * 1024 * 1024;
+
+  private final long maxBytes;
+  private final long ttlNanos;
+  private final Path spillDirectory;
+  private final long maxSpillBytes;
+  private final LongSupplier clock;
+  private final LinkedHashMap<List<Object>, Entry> pages = new LinkedHashMap<>(16, 0.75f, true);
+  private final LinkedHashMap<List<Object>, Entry> spilled = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<List<String>, Long> generations = new HashMap<>();
+  private long bytes;
+  private long spillBytes;
+  private long spillFiles;
+
+  /**
+   * @param maxBytes       size of the pages kept in memory, 0 to cache nothing
+   * @param spillDirectory where evicted pages are written, null to drop them
+   * @param maxSpillBytes  size of the pages kept on disk
+   * @param clock          nanosecond clock
+   */
+  PageCache(final long maxBytes, final Duration ttl, final Path spillDirectory, final long maxSpillBytes,
+            final LongSupplier clock) {
+    this.maxBytes = maxBytes;
+    this.ttlNanos = ttl.toNanos();
+    this.spillDirectory = spillDirectory;
+    this.maxSpillBytes = maxSpillBytes;
+    this.clock = clock;
+  }
+
+  /**
+   * @return PageCache configured by the PAGE_CACHE_* variables, shared by the container
+   */
+  public static PageCache fromEnvironment() {
+    Map<String, String> env = System.getenv();
+    String spillDirectory = env.get("PAGE_CACHE_SPILL_DIR");
+    return new PageCache(
+      Long.parseLong(env.getOrDefault("PAGE_CACHE_BYTES", "0")),
+      Duration.ofSeconds(Long.parseLong(env.getOrDefault("PAGE_CACHE_TTL_SECONDS", "60"))),
+      spillDirectory == null || spillDirectory.isEmpty() ? null : Paths.get(spillDirectory),
+      Long.parseLong(env.getOrDefault("PAGE_CACHE_SPILL_BYTES", String.valueOf(DEFAULT_SPILL_BYTES))),
+      System::nanoTime);
+  }
+
+  /**
+   * @param loader reads the page from the database when it is not cached
+   * @return QueryPage cached page of the request, else the loaded one
+   */
+  public QueryPage get(final QueryDataRequest request, final PageLoader loader) throws SQLException {
+    List<Object> key = maxBytes > 0 ? key(request) : null;
+    if (key == null) {
+      return loader.load();
+    }
+    List<String> entity = entity(request);
+    long generation;
+    synchronized (this) {
+      QueryPage page = lookup(key);
+      if (page != null) {
+        Metrics.current().count("PageCacheHits", 1);
+        return page;
+      }
+      generation = generations.getOrDefault(entity, 0L);
+    }
+    Metrics.current().count("PageCacheMisses", 1);
+    QueryPage page = loader.load();
+    synchronized (this) {
+      // A write that ran while the page was read may or may not show in it.
+      if (generations.getOrDefault(entity, 0L) == generation) {
+        store(key, page);
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Drops the pages of an entity, after records were written to it.
+   */
+  public synchronized void invalidate(final String secretArn, final String entity) {
+    if (maxBytes <= 0) {
+      return;
+    }
+    List<String> entityKey = Arrays.asList(secretArn, entity);
+    generations.merge(entityKey, 1L, Long::sum);
+    pages.entrySet().removeIf(e -> {
+      if (entityKey.equals(e.getKey().subList(0, 2))) {
+        bytes -= e.getValue().bytes;
+        return true;
+      }
+      return false;
+    });
+    spilled.entrySet().removeIf(e -> {
+      if (entityKey.equals(e.getKey().subList(0, 2))) {
+        deleteSpilled(e.getValue());
+        return true;
+      }
+      return false;
+    });
+  }
+
+  synchronized long getBytes() {
+    return bytes;
+  }
+
+  synchronized long getSpillBytes() {
+    return spillBytes;
+  }
+
+  /**
+   * @return List key of the request's page, null when the page must not be cached
+   */
+  private static List<Object> key(final QueryDataRequest request) {
+    Map<String, String> runtimeSettings = request.connectorContext().connectorRuntimeSettings();
+    try {
+      RuntimeSettings settings = RuntimeSettings.of(runtimeSettings);
+      if (settings.getIncrementalField() != null || settings.isChangeDataCapture()) {
+        return null;
+      }
+    } catch (IllegalArgumentException e) {
+      // Left to the client to report.
+      return null;
+    }
+    return Arrays.asList(request.connectorContext().credentials().secretArn(), request.entityIdentifier(),
+      request.selectedFieldNames(), request.filterExpression(), request.maxResults(),
+      runtimeSettings == null ? null : new TreeMap<>(runtimeSettings), request.nextToken());
+  }
+
+  private static List<String> entity(final QueryDataRequest request) {
+    return Arrays.asList(request.connectorContext().credentials().secretArn(), request.entityIdentifier());
+  }
+
+  private QueryPage lookup(final List<Object> key) {
+    long now = clock.getAsLong();
+    Entry entry = pages.get(key);
+    if (entry != null) {
+      if (now - entry.storedAt < ttlNanos) {
+        return entry.page;
+      }
+      pages.remove(key);
+      bytes -= entry.bytes;
+    }
+    entry = spilled.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (now - entry.storedAt < ttlNanos) {
+      QueryPage page = readSpilled(entry);
+      if (page != null) {
+        return page;
+      }
+    }
+    spilled.remove(key);
+    deleteSpilled(entry);
+    return null;
+  }
+
+  private void store(final List<Object> key, final QueryPage page) {
+    long size = size(page);
+    if (size > maxBytes) {
+      return;
+    }
+    Entry previous = pages.put(key, new Entry(page, size, clock.getAsLong()));
+    bytes += size - (previous == null ? 0 : previous.bytes);
+    Entry stale = spilled.remove(key);
+    if (stale != null) {
+      deleteSpilled(stale);
+    }
+    for (Iterator<Map.Entry<List<Object>, Entry>> it = pages.entrySet().iterator(); bytes > maxBytes; ) {
+      Map.Entry<List<Object>, Entry> eldest = it.next();
+      it.remove();
+      bytes -= eldest.getValue().bytes;
+      spill(eldest.getKey(), eldest.getValue());
+    }
+  }
+
+  private void spill(final List<Object> key, final Entry entry) {
+    if (spillDirectory == null || entry.bytes > maxSpillBytes || clock.getAsLong() - entry.storedAt >= ttlNanos) {
+      return;
+    }
+    ObjectNode json = MAPPER.createObjectNode();
+    ArrayNode records = json.putArray("records");
+    entry.page.getRecords().forEach(records::add);
+    json.put("nextToken", entry.page.getNextToken());
+    try {
+      Files.createDirectories(spillDirectory);
+      Path file = spillDirectory.resolve("page-" + spillFiles++ + ".json");
+      MAPPER.writeValue(file.toFile(), json);
+      spilled.put(key, new Entry(file, entry.bytes, entry.storedAt));
+      spillBytes += entry.bytes;
+    } catch (IOException e) {
+      LOGGER.warn("Could not spill a cached page: " + e.getMessage());
+      return;
+    }
+    for (Iterator<Map.Entry<List<Object>, Entry>> it = spilled.entrySet().iterator(); spillBytes > maxSpillBytes; ) {
+      Entry eldest = it.next().getValue();
+      it.remove();
+      deleteSpilled(eldest);
+    }
+  }
+
+  private static QueryPage readSpilled(final Entry entry) {
+    try {
+      JsonNode json = MAPPER.readTree(entry.file.toFile());
+      List<String> records = new ArrayList<>(json.get("records").size());
+      json.get("records").forEach(record -> records.add(record.asText()));
+      JsonNode nextToken = json.get("nextToken");
+      return new QueryPage(records, nextToken.isNull() ? null : nextToken.asText());
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Could not read a spilled page: " + e.getMessage());
+      return null;
+    }
+  }
+
+  private void deleteSpilled(final Entry entry) {
+    spillBytes -= entry.bytes;
+    try {
+      Files.deleteIfExists(entry.file);
+    } catch (IOException e) {
+      LOGGER.warn("Could not delete a spilled page: " + e.getMessage());
+    }
+  }
+
+  /**
+   * @return long approximate heap taken by the page's strings
+   */
+  private static long size(final QueryPage page) {
+    long size = page.getNextToken() == null ? 0 : 2L * page.getNextToken().length();
+    for (String record : page.getRecords()) {
+      size += 2L * record.length();
+    }
+    return size;
+  }
+
+  /**
+   * Reads a page from the database.
+   */
+  @FunctionalInterface
+  public interface PageLoader {
+    QueryPage load() throws SQLException;
+  }
+
+  /**
+   * A page held in memory, or the file it was spilled to.
+   */
+  private static final class Entry {
+    private final QueryPage page;
+    private final Path file;
+    private final long bytes;
+    private final long storedAt;
+
+    private Entry(final QueryPage page, final long bytes, final long storedAt) {
+      this.page = page;
+      this.file = null;
+      this.bytes = bytes;
+      this.storedAt = storedAt;
+    }
+
+    private Entry(final Path file, final long bytes, final long storedAt) {
+      this.page = null;
+      this.file = file;
+      this.bytes = bytes;
+      this.storedAt = storedAt;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import java.util.List;
+
+/**
+ * Learns the size of an entity's encoded rows from the pages read, to ask the database for no more rows than fit the
+ * page's byte budget. A page still ends early once its rows reach the budget; the estimate only spares fetching, and
+ * with a streaming driver draining, rows that would be left over. The average leans towards recent pages, as the rows
+ * paged through may grow or shrink.
+ */
+final class PageSizer {
+  // Share of the latest page in the average row size.
+  private static final double WEIGHT = 0.5;
+
+  private double rowBytes;
+
+  /**
+   * @return Long rows expected to fit the budget, null until a page has been measured
+   */
+  synchronized Long rows(final long maxBytes) {
+    if (rowBytes == 0) {
+      return null;
+    }
+    return Math.max(1, (long) (maxBytes / rowBytes));
+  }
+
+  synchronized void measured(final List<String> records) {
+    if (records.isEmpty()) {
+      return;
+    }
+    long bytes = 0;
+    for (String record : records) {
+      bytes += responseBytes(record);
+    }
+    double pageRowBytes = (double) bytes / records.size();
+    rowBytes = rowBytes == 0 ? pageRowBytes : rowBytes + WEIGHT * (pageRowBytes - rowBytes);
+  }
+
+  /**
+   * Measures a record as it is sent back to AppFlow: a JSON string of the response, encoded as UTF-8. The quotes and
+   * backslashes the record holds are escaped, and so are control characters, though the encoder leaves none.
+   *
+   * @return long bytes the record takes in the response, with its quotes and separator
+   */
+  static long responseBytes(final String record) {
+    long bytes = 3;
+    for (int i = 0; i < record.length(); i++) {
+      char c = record.charAt(i);
+      if (c == '"' || c == '\\') {
+        bytes += 2;
+      } else if (c < 0x20) {
+        bytes += c == '\b' || c == '\t' || c == '\n' || c == '\f' || c == '\r' ? 2 : 6;
+      } else if (c < 0x80) {
+        bytes += 1;
+      } else if (c < 0x800 || Character.isSurrogate(c)) {
+        // Each half of a surrogate pair counts for half of the pair's four bytes.
+        bytes += 2;
+      } else {
+        bytes += 3;
+      }
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,246 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Opaque pagination cursor handed to AppFlow as the nextToken.
+ * A token either carries a row offset (tables without a usable key), the key tuple of the last row returned
+ * (keyset pagination), the state of every primary key range of a partitioned read, the watermark range of an
+ * incremental read together with its key tuple, or the binary log position of a change data capture read. Plain
+ * numeric tokens issued by earlier versions are still understood as offsets.
+ */
+final class PageToken {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String OFFSET = "o";
+  private static final String KEY = "k";
+  private static final String PARTITION_COLUMN = "pc";
+  private static final String PARTITIONS = "p";
+  private static final String WATERMARK_HIGH = "wh";
+  private static final String BINLOG_POSITION = "b";
+  private static final String BINLOG_SKIP = "bs";
+  private static final String BINLOG_END = "be";
+
+  private final long offset;
+  private final List<String> key;
+  private final String partitionColumn;
+  private final List<Partition> partitions;
+  private final String watermarkHigh;
+  private final BinlogPosition binlogPosition;
+  private final int binlogSkip;
+  private final BinlogPosition binlogEnd;
+
+  private PageToken(final long offset, final List<String> key, final String partitionColumn,
+                    final List<Partition> partitions, final String watermarkHigh, final BinlogPosition binlogPosition,
+                    final int binlogSkip, final BinlogPosition binlogEnd) {
+    this.offset = offset;
+    this.key = key;
+    this.partitionColumn = partitionColumn;
+    this.partitions = partitions;
+    this.watermarkHigh = watermarkHigh;
+    this.binlogPosition = binlogPosition;
+    this.binlogSkip = binlogSkip;
+    this.binlogEnd = binlogEnd;
+  }
+
+  static PageToken first() {
+    return offset(0);
+  }
+
+  static PageToken offset(final long offset) {
+    return new PageToken(offset, Collections.emptyList(), null, Collections.emptyList(), null, null, 0, null);
+  }
+
+  static PageToken keyset(final List<String> key) {
+    return new PageToken(0, Collections.unmodifiableList(new ArrayList<>(key)), null, Collections.emptyList(),
+      null, null, 0, null);
+  }
+
+  static PageToken partitioned(final String column, final List<Partition> partitions) {
+    return new PageToken(0, Collections.emptyList(), column,
+      Collections.unmodifiableList(new ArrayList<>(partitions)), null, null, 0, null);
+  }
+
+  /**
+   * @param position position to resume reading the binary log from
+   * @param skip     records of the entity already returned from the events at that position
+   * @param end      end of the binary log when the run started
+   */
+  static PageToken binlog(final BinlogPosition position, final int skip, final BinlogPosition end) {
+    return new PageToken(0, Collections.emptyList(), null, Collections.emptyList(), null, position, skip, end);
+  }
+
+  /**
+   * @param high largest watermark value when the run started
+   * @param key  watermark value and primary key of the last row returned
+   */
+  static PageToken incremental(final String high, final List<String> key) {
+    return new PageToken(0, Collections.unmodifiableList(new ArrayList<>(key)), null, Collections.emptyList(),
+      high, null, 0, null);
+  }
+
+  /**
+   * @param token nextToken from the request, may be null
+   * @return PageToken decoded cursor
+   */
+  static PageToken decode(final String token) {
+    if (token == null || token.isEmpty()) {
+      return first();
+    }
+    if (token.chars().allMatch(Character::isDigit)) {
+      return offset(Long.parseLong(token));
+    }
+    try {
+      JsonNode node = MAPPER.readTree(Base64.getUrlDecoder().decode(token));
+      if (node.has(BINLOG_POSITION)) {
+        return binlog(BinlogPosition.parse(node.get(BINLOG_POSITION).asText()), node.path(BINLOG_SKIP).asInt(0),
+          BinlogPosition.parse(node.get(BINLOG_END).asText()));
+      }
+      if (node.has(WATERMARK_HIGH)) {
+        return incremental(node.get(WATERMARK_HIGH).asText(), readKey(node));
+      }
+      if (node.has(PARTITIONS)) {
+        List<Partition> partitions = new ArrayList<>();
+        for (JsonNode partition : node.get(PARTITIONS)) {
+          partitions.add(new Partition(partition.get(0).asLong(), partition.get(1).asLong(),
+            partition.get(2).isNull() ? null : partition.get(2).asLong()));
+        }
+        return partitioned(node.get(PARTITION_COLUMN).asText(), partitions);
+      }
+      if (node.has(KEY)) {
+        return keyset(readKey(node));
+      }
+      return offset(node.path(OFFSET).asLong(0));
+    } catch (IOException | IllegalArgumentException | NullPointerException e) {
+      throw new IllegalArgumentException("Invalid nextToken provided: " + token, e);
+    }
+  }
+
+  private static List<String> readKey(final JsonNode node) {
+    List<String> key = new ArrayList<>();
+    node.path(KEY).forEach(value -> key.add(value.isNull() ? null : value.asText()));
+    return key;
+  }
+
+  String encode() {
+    ObjectNode node = MAPPER.createObjectNode();
+    if (isBinlog()) {
+      node.put(BINLOG_POSITION, binlogPosition.toString());
+      node.put(BINLOG_SKIP, binlogSkip);
+      node.put(BINLOG_END, binlogEnd.toString());
+    } else if (isIncremental()) {
+      node.put(WATERMARK_HIGH, watermarkHigh);
+      ArrayNode values = node.putArray(KEY);
+      key.forEach(values::add);
+    } else if (isPartitioned()) {
+      node.put(PARTITION_COLUMN, partitionColumn);
+      ArrayNode values = node.putArray(PARTITIONS);
+      for (Partition partition : partitions) {
+        values.addArray().add(partition.getLow()).add(partition.getHigh()).add(partition.getAfter());
+      }
+    } else if (isKeyset()) {
+      ArrayNode values = node.putArray(KEY);
+      key.forEach(values::add);
+    } else {
+      node.put(OFFSET, offset);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(node.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  boolean isFirst() {
+    return offset == 0 && key.isEmpty() && partitions.isEmpty() && watermarkHigh == null && binlogPosition == null;
+  }
+
+  boolean isKeyset() {
+    return !key.isEmpty() && watermarkHigh == null;
+  }
+
+  boolean isIncremental() {
+    return watermarkHigh != null;
+  }
+
+  boolean isBinlog() {
+    return binlogPosition != null;
+  }
+
+  boolean isPartitioned() {
+    return !partitions.isEmpty();
+  }
+
+  long getOffset() {
+    return offset;
+  }
+
+  List<String> getKey() {
+    return key;
+  }
+
+  String getPartitionColumn() {
+    return partitionColumn;
+  }
+
+  List<Partition> getPartitions() {
+    return partitions;
+  }
+
+  String getWatermarkHigh() {
+    return watermarkHigh;
+  }
+
+  BinlogPosition getBinlogPosition() {
+    return binlogPosition;
+  }
+
+  /**
+   * @return int records already returned from the events at the binary log position
+   */
+  int getBinlogSkip() {
+    return binlogSkip;
+  }
+
+  BinlogPosition getBinlogEnd() {
+    return binlogEnd;
+  }
+
+  /**
+   * Inclusive primary key range read by one worker of a partitioned read, and the last key already returned from it.
+   */
+  static final class Partition {
+    private final long low;
+    private final long high;
+    private final Long after;
+
+    Partition(final long low, final long high, final Long after) {
+      this.low = low;
+      this.high = high;
+      this.after = after;
+    }
+
+    long getLow() {
+      return low;
+    }
+
+    long getHigh() {
+      return high;
+    }
+
+    /**
+     * @return Long last key returned from this range, null before the first page
+     */
+    Long getAfter() {
+      return after;
+    }
+  }
+}
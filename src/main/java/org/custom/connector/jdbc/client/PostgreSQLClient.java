@@ -0,0 +1,25 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import java.util.Map;
+
+/**
+ * PostgreSQL client.
+ */
+public final class PostgreSQLClient extends AbstractJDBCClient {
+
+  public PostgreSQLClient(final String arn, final Map<String, String> creds) {
+    this(arn, creds, null);
+  }
+
+  /**
+   * @param connectionFactory opens physical connections in place of the JDBC URL built from the credentials,
+   *                          used to run the client against an embedded database
+   */
+  PostgreSQLClient(final String arn, final Map<String, String> creds,
+                   final ConnectionPool.ConnectionFactory connectionFactory) {
+    super(arn, creds, new PostgreSQLDialect(), connectionFactory);
+  }
+}
@@ -0,0 +1,113 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL: {@code INSERT ... ON CONFLICT} for upserts, catalog statistics for row estimates and cursor based
+ * fetching for reads.
+ */
+final class PostgreSQLDialect implements SqlDialect {
+  private static final int FETCH_SIZE = 1000;
+  private static final String ENTITIES_FINGERPRINT_SQL = "SELECT COUNT(*) || ':' || "
+    + "COALESCE(md5(string_agg(table_name, ',' ORDER BY table_name)), '') "
+    + "FROM information_schema.tables WHERE table_schema = CURRENT_SCHEMA AND table_type = 'BASE TABLE'";
+  private static final String FIELDS_FINGERPRINT_SQL = "SELECT COUNT(*) || ':' || "
+    + "COALESCE(md5(string_agg(ordinal_position || ':' || column_name || ':' || data_type, ',' "
+    + "ORDER BY ordinal_position)), '') "
+    + "FROM information_schema.columns WHERE table_schema = CURRENT_SCHEMA AND table_name = ?";
+  // reltuples is -1 until the table has been analyzed, which is read as "unknown" and answered with a count.
+  private static final String ESTIMATED_ROWS_SQL =
+    "SELECT NULLIF(reltuples, -1)::bigint FROM pg_class WHERE oid = to_regclass(quote_ident(?))";
+
+  @Override
+  public String driverClassName() {
+    return "org.postgresql.Driver";
+  }
+
+  /**
+   * Strings are sent untyped so the server casts them to the column type, as AppFlow sends most values as strings.
+   */
+  @Override
+  public String jdbcUrl(final Map<String, String> credentials) {
+    return String.format("jdbc:postgresql://%s:%s/%s?reWriteBatchedInserts=true&stringtype=unspecified",
+      credentials.get("hostname"), credentials.get("port"), credentials.get("database"));
+  }
+
+  @Override
+  public String[] tableTypes() {
+    return new String[] {"TABLE", "PARTITIONED TABLE"};
+  }
+
+  @Override
+  public String upsert(final String table, final List<String> columns, final List<String> keys, final int rows) {
+    String sql = insert(table, columns, rows) + String.format(" ON CONFLICT (%s) DO ", quoteAll(keys));
+    List<String> updated = columns.stream().filter(column -> !keys.contains(column)).collect(Collectors.toList());
+    if (updated.isEmpty()) {
+      return sql + "NOTHING";
+    }
+    return sql + "UPDATE SET " + updated.stream()
+      .map(column -> String.format("%1$s = EXCLUDED.%1$s", quote(column)))
+      .collect(Collectors.joining(", "));
+  }
+
+  /**
+   * UPDATE ... FROM rather than MERGE, which needs PostgreSQL 15.
+   */
+  @Override
+  public String updateFromStaging(final String table, final String staging, final List<String> keys,
+                                  final List<String> columns) {
+    return String.format("UPDATE %s t SET %s FROM %s s WHERE %s", quote(table),
+      columns.stream().map(column -> String.format("%1$s = s.%1$s", quote(column))).collect(Collectors.joining(", ")),
+      quote(staging),
+      keys.stream().map(key -> String.format("t.%1$s = s.%1$s", quote(key))).collect(Collectors.joining(" AND ")));
+  }
+
+  @Override
+  public String entitiesFingerprintSql() {
+    return ENTITIES_FINGERPRINT_SQL;
+  }
+
+  @Override
+  public String fieldsFingerprintSql() {
+    return FIELDS_FINGERPRINT_SQL;
+  }
+
+  @Override
+  public String estimatedRowsSql() {
+    return ESTIMATED_ROWS_SQL;
+  }
+
+  /**
+   * Available from PostgreSQL 14.
+   */
+  @Override
+  public String logWaitsSql() {
+    return "SELECT wal_buffers_full FROM pg_stat_wal";
+  }
+
+  /**
+   * Serialization failures, deadlocks and lock timeouts.
+   */
+  @Override
+  public boolean isTransient(final SQLException ex) {
+    return "40001".equals(ex.getSQLState()) || "40P01".equals(ex.getSQLState()) || "55P03".equals(ex.getSQLState());
+  }
+
+  /**
+   * The driver only fetches rows in batches, through a server-side cursor, inside a transaction; otherwise it reads
+   * the whole result. The pool rolls the transaction back and restores autocommit when the connection is returned.
+   */
+  @Override
+  public void streamResults(final Connection conn, final Statement st, final Integer fetchSize) throws SQLException {
+    conn.setAutoCommit(false);
+    st.setFetchSize(fetchSize != null ? fetchSize : FETCH_SIZE);
+  }
+}
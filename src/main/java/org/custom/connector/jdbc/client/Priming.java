@@ -0,0 +1,54 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.custom.connector.jdbc.config.RuntimeSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the code every request goes through once, without a database, so that its classes are loaded and initialized
+ * before the first request arrives. Called from the handler's static initialization when PRIME_ON_INIT is true, which
+ * moves that work into the Lambda init phase; with SnapStart it is captured in the snapshot and not paid again on
+ * restore.
+ * <p>
+ * Nothing primed holds a connection, a socket or a credential, so the snapshot can be restored safely. Connections and
+ * Secrets Manager clients are still created on the first request that needs them.
+ */
+public final class Priming {
+  private static final Logger LOGGER = LoggerFactory.getLogger(Priming.class);
+  private static final List<SqlDialect> DIALECTS = Arrays.asList(new MySQLDialect(), new PostgreSQLDialect());
+
+  private Priming() {
+  }
+
+  /**
+   * Primes the shared code paths and the MySQL and PostgreSQL drivers. Failures are logged, since priming only
+   * saves time.
+   */
+  public static void prime() {
+    long start = System.nanoTime();
+    try {
+      JsonNode record = AbstractJDBCClient.MAPPER.readTree("{\"id\":1,\"name\":\"prime\",\"updated\":\"2000-01-01\"}");
+      AbstractJDBCClient.MAPPER.writeValueAsString(record);
+      PageToken.decode(PageToken.keyset(Arrays.asList("1")).encode());
+      RuntimeSettings.of(Map.of());
+      FilterExpression filter = FilterExpression.parse("id > 0 AND name != \"prime\"");
+      for (SqlDialect dialect : DIALECTS) {
+        filter.toSql(dialect);
+        AbstractJDBCClient.driver(dialect.driverClassName());
+      }
+    } catch (JsonProcessingException | RuntimeException e) {
+      LOGGER.warn("Priming failed: " + e.getMessage());
+      return;
+    }
+    LOGGER.info("Primed in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+  }
+}
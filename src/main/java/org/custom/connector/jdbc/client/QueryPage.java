@@ -0,0 +1,30 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import java.util.List;
+
+/**
+ * A single page of records returned by {@link JDBCClient#queryData} together with the cursor of the next page.
+ */
+public final class QueryPage {
+  private final List<String> records;
+  private final String nextToken;
+
+  public QueryPage(final List<String> records, final String nextToken) {
+    this.records = records;
+    this.nextToken = nextToken;
+  }
+
+  public List<String> getRecords() {
+    return records;
+  }
+
+  /**
+   * @return String cursor for the page following this one, null when this is the last page
+   */
+  public String getNextToken() {
+    return nextToken;
+  }
+}
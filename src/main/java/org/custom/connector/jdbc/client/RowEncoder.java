@@ -0,0 +1,88 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serializes result set rows straight to JSON records. One generator and buffer are reused for every row of a page,
+ * field names are encoded once up front and each column is written by a {@link ColumnCodec} chosen from the result
+ * set metadata on the first row, so values keep the JSON type matching their column. Columns of large objects are
+ * streamed from the driver into the record.
+ */
+final class RowEncoder {
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final SerializedString[] fieldNames;
+  private final boolean[] largeObjects;
+  private final CharArrayWriter buffer = new CharArrayWriter(256);
+  private final JsonGenerator generator;
+  private ColumnCodec[] codecs;
+
+  /**
+   * @param fieldNames record field names, in the order of the result set columns they are read from
+   */
+  RowEncoder(final List<String> fieldNames) {
+    this(fieldNames, Set.of());
+  }
+
+  /**
+   * @param fieldNames   record field names, in the order of the result set columns they are read from
+   * @param largeObjects fields whose columns hold large objects, by the entity's metadata
+   */
+  RowEncoder(final List<String> fieldNames, final Set<String> largeObjects) {
+    this.fieldNames = fieldNames.stream().map(SerializedString::new).toArray(SerializedString[]::new);
+    this.largeObjects = new boolean[fieldNames.size()];
+    for (int i = 0; i < fieldNames.size(); i++) {
+      this.largeObjects[i] = largeObjects.contains(fieldNames.get(i));
+    }
+    try {
+      this.generator = JSON_FACTORY.createGenerator(buffer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.generator.setRootValueSeparator(null);
+  }
+
+  /**
+   * @param rs result set positioned on the row to encode
+   * @return String JSON object holding the first {@code fieldNames.size()} columns of the row
+   */
+  String encode(final ResultSet rs) throws SQLException {
+    if (codecs == null) {
+      codecs = new ColumnCodec[fieldNames.length];
+      ResultSetMetaData metaData = rs.getMetaData();
+      for (int i = 0; i < codecs.length; i++) {
+        codecs[i] = largeObjects[i]
+          ? ColumnCodec.forLargeObject(metaData, i + 1)
+          : ColumnCodec.forColumn(metaData, i + 1);
+      }
+    }
+    try {
+      generator.writeStartObject();
+      for (int i = 0; i < fieldNames.length; i++) {
+        generator.writeFieldName(fieldNames[i]);
+        codecs[i].write(rs, i + 1, generator);
+      }
+      generator.writeEndObject();
+      generator.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    String record = buffer.toString();
+    buffer.reset();
+    return record;
+  }
+}
@@ -0,0 +1,89 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches secrets by ARN for a fixed time to live. Once an entry has used up most of its lifetime it is still
+ * served, while a fresh copy is fetched in the background, so callers only wait on Secrets Manager for the very
+ * first lookup or after an invalidation.
+ */
+final class SecretCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SecretCache.class);
+  private static final double REFRESH_AHEAD_RATIO = 0.8;
+
+  private final Function<String, Map<String, String>> loader;
+  private final Executor refresher;
+  private final LongSupplier clock;
+  private final long ttlNanos;
+  private final long refreshAfterNanos;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+  /**
+   * @param loader    fetches the secret for an ARN
+   * @param ttl       how long a fetched secret may be served
+   * @param refresher runs refresh-ahead fetches
+   * @param clock     monotonic time source in nanoseconds
+   */
+  SecretCache(final Function<String, Map<String, String>> loader, final Duration ttl, final Executor refresher,
+              final LongSupplier clock) {
+    this.loader = loader;
+    this.refresher = refresher;
+    this.clock = clock;
+    this.ttlNanos = ttl.toNanos();
+    this.refreshAfterNanos = (long) (ttlNanos * REFRESH_AHEAD_RATIO);
+  }
+
+  Map<String, String> get(final String arn) {
+    Entry entry = entries.get(arn);
+    long age = entry == null ? Long.MAX_VALUE : clock.getAsLong() - entry.loadedAt;
+
+    if (age >= ttlNanos) {
+      return load(arn);
+    }
+    if (age >= refreshAfterNanos && refreshing.add(arn)) {
+      refresher.execute(() -> {
+        try {
+          load(arn);
+        } catch (RuntimeException e) {
+          LOGGER.warn("Background refresh of secret failed: " + e.getMessage());
+        } finally {
+          refreshing.remove(arn);
+        }
+      });
+    }
+    return entry.value;
+  }
+
+  void invalidate(final String arn) {
+    entries.remove(arn);
+  }
+
+  private Map<String, String> load(final String arn) {
+    Map<String, String> value = Map.copyOf(loader.apply(arn));
+    entries.put(arn, new Entry(value, clock.getAsLong()));
+    return value;
+  }
+
+  private static final class Entry {
+    private final Map<String, String> value;
+    private final long loadedAt;
+
+    private Entry(final Map<String, String> value, final long loadedAt) {
+      this.value = value;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
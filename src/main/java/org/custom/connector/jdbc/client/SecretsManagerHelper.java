@@ -3,45 +3,91 @@
 
 package org.custom.connector.jdbc.client;
 
-import com.amazonaws.appflow.custom.connector.util.CredentialsProvider;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.AWSSecretsManagerClient;
-import org.apache.commons.collections4.map.HashedMap;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.custom.connector.jdbc.utils.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public final class SecretsManagerHelper {
   private static final Logger LOGGER = LoggerFactory.getLogger(SecretsManagerHelper.class);
+  private static final Duration SECRET_TTL = Duration.ofSeconds(
+    Long.parseLong(System.getenv().getOrDefault("SECRET_CACHE_TTL_SECONDS", "300")));
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  // Secrets Manager clients are thread safe and expensive to build, one per region is kept for the container.
+  static final Map<String, AWSSecretsManager> CLIENTS = new ConcurrentHashMap<>();
+  private static final ExecutorService REFRESHER = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "secret-refresh");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private static final SecretCache CACHE = new SecretCache(
+    SecretsManagerHelper::fetchSecret, SECRET_TTL, REFRESHER, System::nanoTime);
 
   private SecretsManagerHelper() {
   }
 
   /**
+   * Returns the secret from the in-process cache, fetching it from Secrets Manager when absent or expired.
+   * The time to live defaults to five minutes and can be changed with the SECRET_CACHE_TTL_SECONDS variable.
+   *
    * @param arn Secrets Manager Arn
    * @return Map<String, String> Credentials
    */
   public static Map<String, String> getSecret(final String arn) {
-    Map<String, String> config = new HashedMap<>();
+    Map<String, String> config = new HashMap<>();
     try {
-      String[] parts = arn.split(":");
-      if (parts.length <= 1) {
-        throw new Exception("Invalid Secrets Manager Arn.");
-      }
-      String region = parts[3];
-
-      if (region == null) {
-        // defaulting to us-east-1
-        region = "us-east-1";
-      }
-      AWSSecretsManager sc = AWSSecretsManagerClient.builder().withRegion(Regions.fromName(region)).build();
-      config = CredentialsProvider.getCustomAuthCredentials(sc, arn)
-        .customCredentials();
+      config = CACHE.get(arn);
     } catch (Exception ex) {
       LOGGER.error("Error fetching secret: " + ex.getMessage());
     }
     return config;
   }
+
+  /**
+   * Drops the cached copy of a secret, e.g. after the database rejected its credentials because they were rotated.
+   *
+   * @param arn Secrets Manager Arn
+   */
+  public static void invalidate(final String arn) {
+    CACHE.invalidate(arn);
+  }
+
+  /**
+   * Fetches the secret with the client of its region and reads its JSON key/value pairs.
+   */
+  static Map<String, String> fetchSecret(final String arn) {
+    String[] parts = arn.split(":");
+    if (parts.length <= 3) {
+      throw new IllegalArgumentException("Invalid Secrets Manager Arn.");
+    }
+    String region = parts[3];
+
+    if (region.isEmpty()) {
+      // defaulting to us-east-1
+      region = "us-east-1";
+    }
+    // Only fetches on the request thread are timed; refreshes ahead of expiry run in the background.
+    try (Metrics.Timer ignored = Metrics.current().time("SecretFetch")) {
+      AWSSecretsManager sc = CLIENTS.computeIfAbsent(region,
+        r -> AWSSecretsManagerClient.builder().withRegion(Regions.fromName(r)).build());
+      String secret = sc.getSecretValue(new GetSecretValueRequest().withSecretId(arn)).getSecretString();
+      return MAPPER.readValue(secret, new TypeReference<Map<String, String>>() { });
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Secret " + arn + " is not a JSON object of credentials", e);
+    }
+  }
 }
@@ -0,0 +1,274 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.metadata.FieldDataType;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The SQL a database speaks: identifier quoting, paging, inserts and upserts, metadata queries and the mapping of
+ * its column types to AppFlow field types. The defaults follow the SQL standard and information_schema; each
+ * database overrides what it does differently or can do faster.
+ */
+interface SqlDialect {
+  // Types of MySQL, PostgreSQL and H2 whose values are unbounded, or too large to hold as a String without thought.
+  Set<String> LARGE_OBJECT_TYPES = Set.of("TEXT", "MEDIUMTEXT", "LONGTEXT", "BLOB", "MEDIUMBLOB", "LONGBLOB",
+    "BYTEA", "CLOB", "NCLOB", "CHARACTER LARGE OBJECT", "BINARY LARGE OBJECT");
+  // Reads the columns of a table of the current schema, in column order, with whether they are part of its key.
+  String STANDARD_COLUMNS_SQL = "SELECT c.column_name, c.data_type, "
+    + "CASE WHEN EXISTS (SELECT 1 FROM information_schema.table_constraints tc "
+    + "JOIN information_schema.key_column_usage k ON k.constraint_schema = tc.constraint_schema "
+    + "AND k.constraint_name = tc.constraint_name "
+    + "WHERE tc.constraint_type = 'PRIMARY KEY' AND tc.table_schema = c.table_schema "
+    + "AND tc.table_name = c.table_name AND k.table_name = c.table_name AND k.column_name = c.column_name) "
+    + "THEN 1 ELSE 0 END "
+    + "FROM information_schema.columns c WHERE c.table_schema = CURRENT_SCHEMA AND c.table_name = ? "
+    + "ORDER BY c.ordinal_position";
+
+  /**
+   * @param credentials connection details from the secret
+   * @return String JDBC URL of the database
+   */
+  String jdbcUrl(Map<String, String> credentials);
+
+  /**
+   * @return String class of the JDBC driver, loaded when the first connection is opened
+   */
+  String driverClassName();
+
+  default String quote(final String identifier) {
+    return '"' + identifier.replace("\"", "\"\"") + '"';
+  }
+
+  default String quoteAll(final List<String> identifiers) {
+    return identifiers.stream().map(this::quote).collect(Collectors.joining(", "));
+  }
+
+  /**
+   * @return String[] table types listed as entities
+   */
+  default String[] tableTypes() {
+    return new String[] {"TABLE"};
+  }
+
+  /**
+   * Appends the paging clause. Its parameters are bound in the order limit, then offset.
+   */
+  default String page(final String sql, final boolean withOffset) {
+    return sql + (withOffset ? " LIMIT ? OFFSET ?" : " LIMIT ?");
+  }
+
+  /**
+   * @return String multi-row INSERT with one placeholder per column and row
+   */
+  default String insert(final String table, final List<String> columns, final int rows) {
+    return String.format("INSERT INTO %s (%s) VALUES %s", quote(table), quoteAll(columns), tuples(columns, rows));
+  }
+
+  /**
+   * @param keys columns identifying the row, which must be covered by a primary key or unique index
+   * @return String multi-row insert that overwrites the rows whose keys already exist
+   */
+  String upsert(String table, List<String> columns, List<String> keys, int rows);
+
+  /**
+   * @return String statement creating an empty temporary table, private to the session, with the given columns of
+   * the table
+   */
+  default String createStagingTable(final String staging, final String table, final List<String> columns) {
+    return String.format("CREATE LOCAL TEMPORARY TABLE %s AS SELECT %s FROM %s WHERE 1 = 0",
+      quote(staging), quoteAll(columns), quote(table));
+  }
+
+  default String dropStagingTable(final String staging) {
+    return "DROP TABLE IF EXISTS " + quote(staging);
+  }
+
+  /**
+   * @return String statement setting the columns of the table rows whose keys match a staging table row
+   */
+  default String updateFromStaging(final String table, final String staging, final List<String> keys,
+                                   final List<String> columns) {
+    return String.format("MERGE INTO %s t USING %s s ON (%s) WHEN MATCHED THEN UPDATE SET %s",
+      quote(table), quote(staging),
+      keys.stream().map(key -> String.format("t.%1$s = s.%1$s", quote(key))).collect(Collectors.joining(" AND ")),
+      columns.stream().map(column -> String.format("%1$s = s.%1$s", quote(column))).collect(Collectors.joining(", ")));
+  }
+
+  /**
+   * Lists the columns of a table.
+   */
+  default List<Column> describeColumns(final Connection conn, final String table) throws SQLException {
+    List<Column> columns = new ArrayList<>();
+    try (PreparedStatement st = conn.prepareStatement(STANDARD_COLUMNS_SQL)) {
+      st.setString(1, table);
+      try (ResultSet rs = st.executeQuery()) {
+        while (rs.next()) {
+          columns.add(new Column(rs.getString(1), rs.getString(2), rs.getInt(3) == 1));
+        }
+      }
+    }
+    return Collections.unmodifiableList(columns);
+  }
+
+  /**
+   * @param nativeType column type as {@link #describeColumns} returns it
+   * @return boolean whether the column holds large objects, which are streamed or cut short when read
+   */
+  default boolean isLargeObject(final String nativeType) {
+    return LARGE_OBJECT_TYPES.contains(nativeType.split("\\(")[0].trim().toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * @return String expression of the first {@code length} characters of the column, or bytes for a binary one
+   */
+  default String truncate(final String column, final int length) {
+    return String.format("SUBSTRING(%s FROM 1 FOR %d)", quote(column), length);
+  }
+
+  /**
+   * @param nativeType column type as {@link #describeColumns} returns it
+   */
+  default FieldDataType mapFieldType(final String nativeType) {
+    String type = nativeType.split("[(\\[]")[0].trim().toUpperCase();
+    switch (type) {
+      case "TINYINT":
+      case "SMALLINT":
+      case "INT":
+      case "INT2":
+      case "INT4":
+      case "INTEGER":
+        return FieldDataType.Integer;
+      case "BIGINT":
+      case "INT8":
+        return FieldDataType.Long;
+      case "NUMERIC":
+      case "DECIMAL":
+        return FieldDataType.BigDecimal;
+      case "REAL":
+      case "FLOAT4":
+        return FieldDataType.Float;
+      case "FLOAT":
+      case "FLOAT8":
+      case "DOUBLE":
+      case "DOUBLE PRECISION":
+        return FieldDataType.Double;
+      case "BOOL":
+      case "BOOLEAN":
+        return FieldDataType.Boolean;
+      case "DATE":
+        return FieldDataType.Date;
+      case "BYTEA":
+      case "BINARY":
+      case "BINARY VARYING":
+      case "BINARY LARGE OBJECT":
+      case "VARBINARY":
+      case "BLOB":
+        return FieldDataType.ByteArray;
+      default:
+        return type.startsWith("TIMESTAMP") ? FieldDataType.DateTime : FieldDataType.String;
+    }
+  }
+
+  /**
+   * @return String query returning a checksum of the entity list, null when the database has none
+   */
+  default String entitiesFingerprintSql() {
+    return null;
+  }
+
+  /**
+   * @return String query returning a checksum of the columns of the table given as its parameter, null when the
+   * database has none
+   */
+  default String fieldsFingerprintSql() {
+    return null;
+  }
+
+  /**
+   * @return String query returning the estimated row count of the table given as its parameter, null to count rows
+   */
+  default String estimatedRowsSql() {
+    return null;
+  }
+
+  /**
+   * Sets up a query so the driver streams its rows instead of reading the whole result into memory.
+   *
+   * @param fetchSize rows per round trip from the fetchSize setting, null for the dialect's own choice
+   */
+  default void streamResults(final Connection conn, final Statement st, final Integer fetchSize) throws SQLException {
+    if (fetchSize != null) {
+      st.setFetchSize(fetchSize);
+    }
+  }
+
+  /**
+   * @return String query returning a counter of the times writers waited for space in the log buffer, null when the
+   * database has none
+   */
+  default String logWaitsSql() {
+    return null;
+  }
+
+  /**
+   * @return boolean whether the statement failed because of other transactions, losing a deadlock or waiting too
+   * long for a lock, so running it again unchanged can succeed
+   */
+  default boolean isTransient(final SQLException ex) {
+    return "40001".equals(ex.getSQLState());
+  }
+
+  /**
+   * @return boolean whether the database rejected the credentials, as it does once the secret has been rotated. The
+   * SQLSTATE class 28 covers both MySQL's 28000 and PostgreSQL's 28P01.
+   */
+  default boolean isAuthenticationFailure(final SQLException ex) {
+    return ex.getSQLState() != null && ex.getSQLState().startsWith("28");
+  }
+
+  static String tuples(final List<String> columns, final int rows) {
+    String tuple = columns.stream().map(column -> "?").collect(Collectors.joining(", ", "(", ")"));
+    return String.join(", ", Collections.nCopies(rows, tuple));
+  }
+
+  /**
+   * A column as the database describes it.
+   */
+  final class Column {
+    private final String name;
+    private final String type;
+    private final boolean primaryKey;
+
+    Column(final String name, final String type, final boolean primaryKey) {
+      this.name = name;
+      this.type = type;
+      this.primaryKey = primaryKey;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    String getType() {
+      return type;
+    }
+
+    boolean isPrimaryKey() {
+      return primaryKey;
+    }
+  }
+}
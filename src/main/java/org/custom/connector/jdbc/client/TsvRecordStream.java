@@ -0,0 +1,118 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Renders JSON records as tab separated lines in the default format of MySQL's LOAD DATA: fields separated by tabs,
+ * lines ended by newlines, backslash escapes and {@code \N} for NULL. Lines are encoded one at a time as the stream is
+ * read, so a batch never exists in memory twice.
+ */
+final class TsvRecordStream extends InputStream {
+  private static final byte[] EMPTY = new byte[0];
+
+  private final List<String> columns;
+  private final Iterator<JsonNode> records;
+  private final StringBuilder builder = new StringBuilder(256);
+  private byte[] line = EMPTY;
+  private int position;
+
+  /**
+   * @param columns fields written on each line, in the column order of the LOAD DATA statement
+   */
+  TsvRecordStream(final List<String> columns, final Iterator<JsonNode> records) {
+    this.columns = columns;
+    this.records = records;
+  }
+
+  @Override
+  public int read() {
+    if (position == line.length && !nextLine()) {
+      return -1;
+    }
+    return line[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] buffer, final int offset, final int length) {
+    if (length == 0) {
+      return 0;
+    }
+    int read = 0;
+    while (read < length) {
+      if (position == line.length && !nextLine()) {
+        break;
+      }
+      int count = Math.min(length - read, line.length - position);
+      System.arraycopy(line, position, buffer, offset + read, count);
+      position += count;
+      read += count;
+    }
+    return read == 0 ? -1 : read;
+  }
+
+  private boolean nextLine() {
+    if (!records.hasNext()) {
+      return false;
+    }
+    JsonNode record = records.next();
+    builder.setLength(0);
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        builder.append('\t');
+      }
+      appendValue(record.get(columns.get(i)));
+    }
+    builder.append('\n');
+    line = builder.toString().getBytes(StandardCharsets.UTF_8);
+    position = 0;
+    return true;
+  }
+
+  /**
+   * Writes the value the way the insert path binds it: empty strings as NULL and booleans as 1 or 0.
+   */
+  private void appendValue(final JsonNode value) {
+    if (value == null || value.isNull() || (value.isTextual() && value.textValue().isEmpty())) {
+      builder.append("\\N");
+    } else if (value.isBoolean()) {
+      builder.append(value.booleanValue() ? '1' : '0');
+    } else if (value.isValueNode()) {
+      appendEscaped(value.asText());
+    } else {
+      appendEscaped(value.toString());
+    }
+  }
+
+  private void appendEscaped(final String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\t':
+          builder.append("\\t");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\r':
+          builder.append("\\r");
+          break;
+        case '\0':
+          builder.append("\\0");
+          break;
+        default:
+          builder.append(c);
+      }
+    }
+  }
+}
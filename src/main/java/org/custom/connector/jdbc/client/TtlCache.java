@@ -0,0 +1,62 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal in-process cache whose entries expire a fixed time after they were loaded. Lives for as long as the
+ * Lambda container stays warm.
+ */
+final class TtlCache<K, V> {
+  private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final long ttlNanos;
+
+  TtlCache(final Duration ttl) {
+    this.ttlNanos = ttl.toNanos();
+  }
+
+  /**
+   * @param key    cache key
+   * @param loader invoked when the key is absent or expired
+   * @return V cached or freshly loaded value
+   */
+  V get(final K key, final Callable<V> loader) {
+    Entry<V> entry = entries.get(key);
+    if (entry != null && System.nanoTime() - entry.loadedAt < ttlNanos) {
+      return entry.value;
+    }
+    V value;
+    try {
+      value = loader.call();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+    entries.put(key, new Entry<>(value, System.nanoTime()));
+    return value;
+  }
+
+  void invalidate(final K key) {
+    entries.remove(key);
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+    private final long loadedAt;
+
+    private Entry(final V value, final long loadedAt) {
+      this.value = value;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
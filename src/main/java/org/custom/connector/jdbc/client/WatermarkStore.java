@@ -0,0 +1,84 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Checkpoints of incremental reads and change data capture, kept in a small properties file so they outlive a single
+ * invocation. The file lives in the Lambda container's /tmp by default, which is gone with the container;
+ * WATERMARK_STORE_PATH points it at storage the function's containers share and keep, such as an EFS mount.
+ * <p>
+ * A missing incremental checkpoint turns the next run into a full read, which costs time but not rows. Change data
+ * capture cannot find the changes it missed without one, so it does not start without a checkpoint unless told where
+ * to. The file is read again on every access, as other containers may have moved a checkpoint since.
+ */
+final class WatermarkStore {
+  private static final Logger LOGGER = LoggerFactory.getLogger(WatermarkStore.class);
+  static final Path DEFAULT_PATH = Paths.get(
+    System.getenv().getOrDefault("WATERMARK_STORE_PATH", "/tmp/jdbc-connector-watermarks.properties"));
+
+  private final Path path;
+
+  WatermarkStore(final Path path) {
+    this.path = path;
+  }
+
+  /**
+   * @param key secret ARN, database, entity, watermark column and filter of the flow
+   * @return String watermark saved by the last complete run, null if there is none
+   */
+  synchronized String get(final List<String> key) {
+    return load().getProperty(String.join("|", key));
+  }
+
+  /**
+   * Saves the watermark and rewrites the file. Writers of other containers are held off by a lock file while the file
+   * is read, updated and replaced, and the file is replaced atomically so a concurrent reader never sees a partial
+   * write.
+   */
+  synchronized void put(final List<String> key, final String watermark) {
+    Path directory = path.toAbsolutePath().getParent();
+    try (FileChannel lockFile = FileChannel.open(directory.resolve(path.getFileName() + ".lock"),
+      StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+         FileLock ignored = lockFile.lock()) {
+      Properties watermarks = load();
+      watermarks.setProperty(String.join("|", key), watermark);
+      Path temp = Files.createTempFile(directory, "watermarks", ".tmp");
+      try (OutputStream out = Files.newOutputStream(temp)) {
+        watermarks.store(out, null);
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      LOGGER.warn("Could not save watermark, the next run reads from the previous one: " + e.getMessage());
+    }
+  }
+
+  private Properties load() {
+    Properties watermarks = new Properties();
+    if (!Files.exists(path)) {
+      return watermarks;
+    }
+    try (InputStream in = Files.newInputStream(path)) {
+      watermarks.load(in);
+    } catch (IOException e) {
+      LOGGER.warn("Could not read watermarks, incremental reads start over: " + e.getMessage());
+    }
+    return watermarks;
+  }
+}
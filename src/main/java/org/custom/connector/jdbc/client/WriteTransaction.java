@@ -0,0 +1,279 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.custom.connector.jdbc.utils.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Groups the writes of a request into transactions that are committed once they reach the row count chosen by a
+ * {@link CommitSizer} or a byte budget, instead of paying a commit, and a log flush, for every statement.
+ * <p>
+ * Each write is a unit applied completely or not at all, inside a savepoint. A unit that fails on its data is rolled
+ * back to its savepoint and split in halves until the failure is pinned to single records. A deadlock or lock wait
+ * timeout rolls back the whole open transaction, so its units are written again in a transaction each, retried with
+ * backoff.
+ */
+final class WriteTransaction {
+  static final int MAX_ATTEMPTS = 4;
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteTransaction.class);
+  private static final Duration RETRY_BASE_DELAY = Duration.ofMillis(100);
+
+  private final Connection conn;
+  private final SqlDialect dialect;
+  private final CommitSizer sizer;
+  private final long maxBytes;
+  private final IntToLongFunction rowBytes;
+  private final FailureHandler failures;
+  private final boolean allOrNone;
+  private final List<Unit> pending = new ArrayList<>();
+  private int pendingRows;
+  private long pendingBytes;
+  private long startNanos;
+  private Long logWaits;
+
+  /**
+   * @param conn     connection with auto-commit disabled
+   * @param maxBytes commits once the records written since the last commit reach this size
+   * @param rowBytes size of a record, by row
+   * @param failures told about the records that could not be written
+   */
+  WriteTransaction(final Connection conn, final SqlDialect dialect, final CommitSizer sizer, final long maxBytes,
+                   final IntToLongFunction rowBytes, final FailureHandler failures) {
+    this.conn = conn;
+    this.dialect = dialect;
+    this.sizer = sizer;
+    this.maxBytes = maxBytes;
+    this.rowBytes = rowBytes;
+    this.failures = failures;
+    allOrNone = false;
+    logWaits = readLogWaits();
+  }
+
+  private WriteTransaction(final Connection conn, final SqlDialect dialect) {
+    this.conn = conn;
+    this.dialect = dialect;
+    sizer = null;
+    maxBytes = Long.MAX_VALUE;
+    rowBytes = null;
+    failures = null;
+    allOrNone = true;
+  }
+
+  /**
+   * @param conn connection with auto-commit disabled
+   * @return WriteTransaction writing everything in one transaction, committed by {@link #commit}; the first failure
+   * is thrown and the caller rolls back
+   */
+  static WriteTransaction allOrNone(final Connection conn, final SqlDialect dialect) {
+    return new WriteTransaction(conn, dialect);
+  }
+
+  /**
+   * Writes the rows in the open transaction, committing it when it is full. Failures are reported to the failure
+   * handler, except those of the connection itself.
+   */
+  void write(final List<Integer> rows, final RowWriter writer) throws SQLException {
+    if (allOrNone) {
+      writer.write(rows);
+      return;
+    }
+    if (pending.isEmpty()) {
+      startNanos = System.nanoTime();
+    }
+    Savepoint savepoint = conn.setSavepoint();
+    try {
+      writer.write(rows);
+    } catch (SQLException ex) {
+      if (dialect.isTransient(ex)) {
+        pending.add(new Unit(rows, writer));
+        rewritePending(ex);
+      } else if (rows.size() == 1) {
+        conn.rollback(savepoint);
+        failures.failed(rows, ex);
+      } else {
+        conn.rollback(savepoint);
+        int middle = rows.size() / 2;
+        write(rows.subList(0, middle), writer);
+        write(rows.subList(middle, rows.size()), writer);
+      }
+      return;
+    }
+    conn.releaseSavepoint(savepoint);
+    pending.add(new Unit(rows, writer));
+    pendingRows += rows.size();
+    for (int row : rows) {
+      pendingBytes += rowBytes.applyAsLong(row);
+    }
+    if (pendingRows >= sizer.rows() || pendingBytes >= maxBytes) {
+      commit();
+    }
+  }
+
+  /**
+   * Commits the open transaction, then writes the rows in a transaction of their own. For writes that cannot share
+   * a transaction, such as those creating tables.
+   */
+  void writeAlone(final List<Integer> rows, final RowWriter writer) throws SQLException {
+    if (allOrNone) {
+      writer.write(rows);
+      return;
+    }
+    commit();
+    writeCommitted(rows, writer);
+  }
+
+  /**
+   * Commits the open transaction and adjusts the transaction size to how long the commit took.
+   */
+  void commit() throws SQLException {
+    if (allOrNone) {
+      conn.commit();
+      return;
+    }
+    if (pending.isEmpty()) {
+      return;
+    }
+    long commitStart = System.nanoTime();
+    try {
+      conn.commit();
+    } catch (SQLException ex) {
+      if (!dialect.isTransient(ex)) {
+        throw ex;
+      }
+      rewritePending(ex);
+      return;
+    }
+    long commitNanos = System.nanoTime() - commitStart;
+    Metrics.current().addTime("Commit", commitNanos);
+    Metrics.current().count("Commits", 1);
+    Long waits = readLogWaits();
+    sizer.committed(pendingRows, commitStart - startNanos, commitNanos,
+      waits != null && logWaits != null && waits > logWaits);
+    logWaits = waits;
+    pending.clear();
+    pendingRows = 0;
+    pendingBytes = 0;
+  }
+
+  /**
+   * Writes the units of a transaction that was rolled back because of other transactions again, one transaction each.
+   */
+  private void rewritePending(final SQLException cause) throws SQLException {
+    conn.rollback();
+    sizer.contended();
+    List<Unit> units = new ArrayList<>(pending);
+    pending.clear();
+    pendingRows = 0;
+    pendingBytes = 0;
+    LOGGER.warn("Rewriting " + units.size() + " statements after: " + cause.getMessage());
+    Metrics.current().count("TransientFailures", 1);
+    for (Unit unit : units) {
+      writeCommitted(unit.rows, unit.writer);
+    }
+  }
+
+  /**
+   * Writes the rows and commits them. Transient failures are retried up to {@value #MAX_ATTEMPTS} times in all; any
+   * other failure bisects the rows until it is pinned to single records. Splitting does not help against contention,
+   * and would wait out another lock timeout per half, so rows still failing transiently fail together.
+   */
+  private void writeCommitted(final List<Integer> rows, final RowWriter writer) throws SQLException {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        writer.write(rows);
+        conn.commit();
+        return;
+      } catch (SQLException ex) {
+        conn.rollback();
+        if (dialect.isTransient(ex) && attempt < MAX_ATTEMPTS && backOff(attempt)) {
+          LOGGER.warn("Retrying write of " + rows.size() + " records after: " + ex.getMessage());
+        } else if (dialect.isTransient(ex) || rows.size() == 1) {
+          failures.failed(rows, ex);
+          return;
+        } else {
+          int middle = rows.size() / 2;
+          writeCommitted(rows.subList(0, middle), writer);
+          writeCommitted(rows.subList(middle, rows.size()), writer);
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return Long the dialect's counter of waits for log buffer space, null when the database has none or the
+   * connection may not read it
+   */
+  private Long readLogWaits() {
+    String sql = dialect.logWaitsSql();
+    if (sql == null) {
+      return null;
+    }
+    try (Statement st = conn.createStatement();
+         ResultSet rs = st.executeQuery(sql)) {
+      return rs.next() ? rs.getLong(1) : null;
+    } catch (SQLException ex) {
+      try {
+        // A failed statement leaves some databases' transaction unusable until it is rolled back.
+        conn.rollback();
+      } catch (SQLException ignored) {
+        // The next write reports a broken connection.
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Sleeps before the next attempt: the base delay doubled per attempt, with jitter so that writers which deadlocked
+   * each other do not retry in step.
+   *
+   * @return boolean false when interrupted, in which case the write is not retried
+   */
+  static boolean backOff(final int attempt) {
+    long delay = RETRY_BASE_DELAY.toMillis() << (attempt - 1);
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(delay / 2, delay + 1));
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * A write of some of the records that is applied completely or not at all.
+   */
+  @FunctionalInterface
+  interface RowWriter {
+    void write(List<Integer> rows) throws SQLException;
+  }
+
+  @FunctionalInterface
+  interface FailureHandler {
+    void failed(List<Integer> rows, SQLException ex);
+  }
+
+  private static final class Unit {
+    private final List<Integer> rows;
+    private final RowWriter writer;
+
+    private Unit(final List<Integer> rows, final RowWriter writer) {
+      this.rows = rows;
+      this.writer = writer;
+    }
+  }
+}
@@ -12,13 +12,205 @@ import com.amazonaws.appflow.custom.connector.model.connectorconfiguration.auth.
 import com.amazonaws.appflow.custom.connector.model.connectorconfiguration.auth.ImmutableAuthenticationConfig;
 import com.amazonaws.appflow.custom.connector.model.connectorconfiguration.auth.ImmutableCustomAuthConfig;
 import com.amazonaws.appflow.custom.connector.model.settings.ConnectorRuntimeSetting;
+import com.amazonaws.appflow.custom.connector.model.settings.ConnectorRuntimeSettingDataType;
+import com.amazonaws.appflow.custom.connector.model.settings.ConnectorRuntimeSettingScope;
+import com.amazonaws.appflow.custom.connector.model.settings.ImmutableConnectorRuntimeSetting;
 
 public final class JDBCConnectorConfiguration {
+  public static final String PARALLELISM = "parallelism";
+  public static final String INCREMENTAL_FIELD = "incrementalField";
+  public static final String CDC = "changeDataCapture";
+  public static final String BINLOG_START = "binlogStart";
+  public static final String BULK_LOAD = "bulkLoad";
+  public static final String COMMIT_ROWS = "commitRows";
+  public static final String COMMIT_BYTES = "commitBytes";
+  public static final String FETCH_SIZE = "fetchSize";
+  public static final String MAX_PAGE_SIZE = "maxPageSize";
+  public static final String MAX_PAGE_BYTES = "maxPageBytes";
+  public static final String LOB_POLICY = "lobPolicy";
+  public static final String LOB_LIMIT = "lobLimit";
+  public static final String PAGINATION = "pagination";
+  public static final String WRITE_BATCH_SIZE = "writeBatchSize";
+  public static final String BULK_UPDATE_ROWS = "bulkUpdateRows";
+  public static final String POOL_SIZE = "poolSize";
+  public static final String QUERY_TIMEOUT = "queryTimeout";
+
   private JDBCConnectorConfiguration() {
   }
 
   public static List<ConnectorRuntimeSetting> getConnectorRuntimeSettings() {
-    return null;
+    ConnectorRuntimeSetting parallelism = ImmutableConnectorRuntimeSetting.builder()
+        .key(PARALLELISM)
+        .dataType(ConnectorRuntimeSettingDataType.Integer)
+        .required(false)
+        .label("Parallel reads")
+        .description("Number of primary key ranges read concurrently, each on its own connection, at most the "
+            + "connection pool size")
+        .scope(ConnectorRuntimeSettingScope.SOURCE)
+        .build();
+
+    ConnectorRuntimeSetting incrementalField = ImmutableConnectorRuntimeSetting.builder()
+        .key(INCREMENTAL_FIELD)
+        .dataType(ConnectorRuntimeSettingDataType.String)
+        .required(false)
+        .label("Incremental field")
+        .description("Indexed column whose value only grows when a row changes, such as an auto-increment id or an "
+            + "updated_at timestamp. When set, each run reads only the rows changed since the last complete run")
+        .scope(ConnectorRuntimeSettingScope.SOURCE)
+        .build();
+
+    ConnectorRuntimeSetting cdc = ImmutableConnectorRuntimeSetting.builder()
+        .key(CDC)
+        .dataType(ConnectorRuntimeSettingDataType.Boolean)
+        .required(false)
+        .label("Change data capture")
+        .description("Read inserts, updates and deletes from the MySQL binary log instead of the table. Needs "
+            + "row-based binary logging of full rows (binlog_format=ROW, binlog_row_image=FULL) and replication "
+            + "privileges; each run returns the changes since the last one")
+        .scope(ConnectorRuntimeSettingScope.SOURCE)
+        .build();
+
+    ConnectorRuntimeSetting binlogStart = ImmutableConnectorRuntimeSetting.builder()
+        .key(BINLOG_START)
+        .dataType(ConnectorRuntimeSettingDataType.String)
+        .required(false)
+        .label("Binary log start")
+        .description("Where change data capture starts when no checkpoint of a previous run is found: a position "
+            + "such as mysql-bin.000042:4, or CURRENT for the end of the log, skipping every earlier change")
+        .scope(ConnectorRuntimeSettingScope.SOURCE)
+        .build();
+
+    ConnectorRuntimeSetting bulkLoad = ImmutableConnectorRuntimeSetting.builder()
+        .key(BULK_LOAD)
+        .dataType(ConnectorRuntimeSettingDataType.Boolean)
+        .required(false)
+        .label("Bulk load")
+        .description("Write inserts with MySQL's LOAD DATA LOCAL INFILE, the fastest way to load large tables. Needs "
+            + "local_infile enabled on the server; records whose key already exists or whose values need converting "
+            + "fail")
+        .scope(ConnectorRuntimeSettingScope.DESTINATION)
+        .build();
+
+    ConnectorRuntimeSetting commitRows = ImmutableConnectorRuntimeSetting.builder()
+        .key(COMMIT_ROWS)
+        .dataType(ConnectorRuntimeSettingDataType.Integer)
+        .required(false)
+        .label("Rows per commit")
+        .description("Number of rows written per transaction. By default it is adjusted to the commit latency "
+            + "measured on the destination")
+        .scope(ConnectorRuntimeSettingScope.DESTINATION)
+        .build();
+
+    ConnectorRuntimeSetting commitBytes = ImmutableConnectorRuntimeSetting.builder()
+        .key(COMMIT_BYTES)
+        .dataType(ConnectorRuntimeSettingDataType.Integer)
+        .required(false)
+        .label("Bytes per commit")
+        .description("Size of the records, as JSON, after which a transaction is committed whatever its row count. "
+            + "Defaults to 8 MiB")
+        .scope(ConnectorRuntimeSettingScope.DESTINATION)
+        .build();
+
+    ConnectorRuntimeSetting fetchSize = ImmutableConnectorRuntimeSetting.builder()
+        .key(FETCH_SIZE)
+        .dataType(ConnectorRuntimeSettingDataType.Integer)
+        .required(false)
+        .label("Fetch size")
+        .description("Rows fetched per round trip while reading a page. MySQL reads them from a server-side cursor "
+            + "when set, and streams rows one at a time otherwise")
+        .scope(ConnectorRuntimeSettingScope.SOURCE)
+        .build();
+
+    ConnectorRuntimeSetting maxPageSize = ImmutableConnectorRuntimeSetting.builder()
+        .key(MAX_PAGE_SIZE)
+        .dataType(ConnectorRuntimeSettingDataType.Integer)
+        .required(false)
+        .label("Maximum page size")
+        .description("Largest number of records returned per page, whatever page size AppFlow asks for. Bounds the "
+            + "memory a page takes for wide rows")
+        .scope(ConnectorRuntimeSettingScope.SOURCE)
+        .build();
+
+    ConnectorRuntimeSetting maxPageBytes = ImmutableConnectorRuntimeSetting.builder()
+        .key(MAX_PAGE_BYTES)
+        .dataType(ConnectorRuntimeSettingDataType.Integer)
+        .required(false)
+        .label("Maximum page bytes")
+        .description("Size of the records, as UTF-8 JSON in the response, at which a page ends early, so that pages "
+            + "of wide rows stay under the Lambda response limit. Defaults to 4 MiB, at most 5000000")
+        .scope(ConnectorRuntimeSettingScope.SOURCE)
+        .build();
+
+    ConnectorRuntimeSetting lobPolicy = ImmutableConnectorRuntimeSetting.builder()
+        .key(LOB_POLICY)
+        .dataType(ConnectorRuntimeSettingDataType.String)
+        .required(false)
+        .label("Large object policy")
+        .description("How TEXT, BLOB and similar columns are read: FULL streams whole values, TRUNCATE cuts them to "
+            + "the large object limit, SKIP leaves them null. Defaults to FULL")
+        .scope(ConnectorRuntimeSettingScope.SOURCE)
+        .build();
+
+    ConnectorRuntimeSetting lobLimit = ImmutableConnectorRuntimeSetting.builder()
+        .key(LOB_LIMIT)
+        .dataType(ConnectorRuntimeSettingDataType.Integer)
+        .required(false)
+        .label("Large object limit")
+        .description("Characters, or bytes for binary columns, large objects are truncated to under the TRUNCATE "
+            + "policy. Defaults to 65536")
+        .scope(ConnectorRuntimeSettingScope.SOURCE)
+        .build();
+
+    ConnectorRuntimeSetting pagination = ImmutableConnectorRuntimeSetting.builder()
+        .key(PAGINATION)
+        .dataType(ConnectorRuntimeSettingDataType.String)
+        .required(false)
+        .label("Pagination")
+        .description("AUTO pages by primary key when the table has one and by offset otherwise, KEYSET always by "
+            + "primary key, OFFSET always by offset. Defaults to AUTO")
+        .scope(ConnectorRuntimeSettingScope.SOURCE)
+        .build();
+
+    ConnectorRuntimeSetting writeBatchSize = ImmutableConnectorRuntimeSetting.builder()
+        .key(WRITE_BATCH_SIZE)
+        .dataType(ConnectorRuntimeSettingDataType.Integer)
+        .required(false)
+        .label("Write batch size")
+        .description("Rows sent per multi-row INSERT statement. Defaults to 1000")
+        .scope(ConnectorRuntimeSettingScope.DESTINATION)
+        .build();
+
+    ConnectorRuntimeSetting bulkUpdateRows = ImmutableConnectorRuntimeSetting.builder()
+        .key(BULK_UPDATE_ROWS)
+        .dataType(ConnectorRuntimeSettingDataType.Integer)
+        .required(false)
+        .label("Bulk update rows")
+        .description("Records of an update from which they are loaded into a staging table and applied by a single "
+            + "UPDATE, instead of one statement per record. Defaults to 50")
+        .scope(ConnectorRuntimeSettingScope.DESTINATION)
+        .build();
+
+    ConnectorRuntimeSetting poolSize = ImmutableConnectorRuntimeSetting.builder()
+        .key(POOL_SIZE)
+        .dataType(ConnectorRuntimeSettingDataType.Integer)
+        .required(false)
+        .label("Connection pool size")
+        .description("Connections kept open to the database. Flows using the same secret share the pool")
+        .scope(ConnectorRuntimeSettingScope.SOURCE_AND_DESTINATION)
+        .build();
+
+    ConnectorRuntimeSetting queryTimeout = ImmutableConnectorRuntimeSetting.builder()
+        .key(QUERY_TIMEOUT)
+        .dataType(ConnectorRuntimeSettingDataType.Integer)
+        .required(false)
+        .label("Query timeout")
+        .description("Seconds a read or write statement may run before it is cancelled. No limit by default")
+        .scope(ConnectorRuntimeSettingScope.SOURCE_AND_DESTINATION)
+        .build();
+
+    return Arrays.asList(parallelism, incrementalField, cdc, binlogStart, bulkLoad, commitRows, commitBytes, fetchSize,
+        maxPageSize, maxPageBytes, lobPolicy, lobLimit, pagination, writeBatchSize, bulkUpdateRows, poolSize,
+        queryTimeout);
   }
 
   public static List<ConnectorModes> getConnectorModes() {
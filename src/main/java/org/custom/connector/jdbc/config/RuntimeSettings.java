@@ -0,0 +1,315 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.config;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Typed view of the connector runtime settings of a flow, declared by
+ * {@link JDBCConnectorConfiguration#getConnectorRuntimeSettings()}. Settings left blank take their default. The same
+ * parsing checks the settings when a flow is saved, through {@link #validate}, and reads them on every request.
+ */
+public final class RuntimeSettings {
+  public static final int DEFAULT_WRITE_BATCH_SIZE = 1000;
+  // A staged update costs four statements, one of them DDL, before a single row is updated. Below a few dozen rows
+  // that outweighs the round trips it saves over a batch of single-row updates.
+  public static final int DEFAULT_BULK_UPDATE_ROWS = 50;
+  // Half of InnoDB's default 16 MiB log buffer, so a transaction's redo fits it without an early flush.
+  public static final int DEFAULT_COMMIT_BYTES = 8 * 1024 * 1024;
+  // Pages are measured as the UTF-8 of their records escaped into the response. The limit keeps a page, with the rest
+  // of the response, well under Lambda's 6 MB response payload.
+  public static final int DEFAULT_MAX_PAGE_BYTES = 4 * 1024 * 1024;
+  public static final int DEFAULT_LOB_LIMIT = 64 * 1024;
+  // binlogStart value starting change data capture at the current end of the binary log.
+  public static final String CURRENT = "CURRENT";
+  private static final RuntimeSettings DEFAULTS = new RuntimeSettings(Map.of(), new LinkedHashMap<>());
+
+  /**
+   * How pages of a full read are cut.
+   */
+  public enum Pagination {
+    /**
+     * By primary key when the entity has one, else by offset.
+     */
+    AUTO,
+    /**
+     * By primary key; entities without one cannot be read.
+     */
+    KEYSET,
+    /**
+     * By offset, which the database has to skip over again for every page.
+     */
+    OFFSET
+  }
+
+  /**
+   * How large object columns, such as TEXT, BLOB or bytea, are read.
+   */
+  public enum LobPolicy {
+    /**
+     * Whole, streamed from the driver into the record.
+     */
+    FULL,
+    /**
+     * Cut by the database to the first lobLimit characters, or bytes for binary columns.
+     */
+    TRUNCATE,
+    /**
+     * Not read; the field is null.
+     */
+    SKIP
+  }
+
+  private final Integer fetchSize;
+  private final Long maxPageSize;
+  private final int maxPageBytes;
+  private final int writeBatchSize;
+  private final int bulkUpdateRows;
+  private final int parallelism;
+  private final Integer poolSize;
+  private final int queryTimeout;
+  private final Pagination pagination;
+  private final LobPolicy lobPolicy;
+  private final int lobLimit;
+  private final String incrementalField;
+  private final boolean changeDataCapture;
+  private final String binlogStart;
+  private final boolean bulkLoad;
+  private final Integer commitRows;
+  private final int commitBytes;
+
+  private RuntimeSettings(final Map<String, String> settings, final Map<String, String> errors) {
+    Parser parser = new Parser(settings, errors);
+    fetchSize = parser.integer(JDBCConnectorConfiguration.FETCH_SIZE, 1, 100_000);
+    Integer pageSize = parser.integer(JDBCConnectorConfiguration.MAX_PAGE_SIZE, 1, 100_000);
+    maxPageSize = pageSize == null ? null : pageSize.longValue();
+    maxPageBytes = parser.integer(JDBCConnectorConfiguration.MAX_PAGE_BYTES, 1024, 5_000_000,
+      DEFAULT_MAX_PAGE_BYTES);
+    writeBatchSize = parser.integer(JDBCConnectorConfiguration.WRITE_BATCH_SIZE, 1, 10_000, DEFAULT_WRITE_BATCH_SIZE);
+    bulkUpdateRows = parser.integer(JDBCConnectorConfiguration.BULK_UPDATE_ROWS, 1, 1_000_000,
+      DEFAULT_BULK_UPDATE_ROWS);
+    parallelism = parser.integer(JDBCConnectorConfiguration.PARALLELISM, 1, 32, 1);
+    poolSize = parser.integer(JDBCConnectorConfiguration.POOL_SIZE, 1, 64);
+    queryTimeout = parser.integer(JDBCConnectorConfiguration.QUERY_TIMEOUT, 1, 900, 0);
+    pagination = parser.choice(JDBCConnectorConfiguration.PAGINATION, Pagination.AUTO);
+    lobPolicy = parser.choice(JDBCConnectorConfiguration.LOB_POLICY, LobPolicy.FULL);
+    lobLimit = parser.integer(JDBCConnectorConfiguration.LOB_LIMIT, 1, 16 * 1024 * 1024, DEFAULT_LOB_LIMIT);
+    incrementalField = parser.string(JDBCConnectorConfiguration.INCREMENTAL_FIELD);
+    changeDataCapture = parser.bool(JDBCConnectorConfiguration.CDC);
+    binlogStart = parser.string(JDBCConnectorConfiguration.BINLOG_START);
+    bulkLoad = parser.bool(JDBCConnectorConfiguration.BULK_LOAD);
+    commitRows = parser.integer(JDBCConnectorConfiguration.COMMIT_ROWS, 1, 1_000_000);
+    commitBytes = parser.integer(JDBCConnectorConfiguration.COMMIT_BYTES, 1024, Integer.MAX_VALUE,
+      DEFAULT_COMMIT_BYTES);
+
+    if (binlogStart != null && !CURRENT.equalsIgnoreCase(binlogStart) && !binlogStart.matches(".+:\\d+")) {
+      errors.put(JDBCConnectorConfiguration.BINLOG_START, "Must be a position such as mysql-bin.000042:4 or CURRENT");
+    }
+    if (changeDataCapture && incrementalField != null) {
+      errors.put(JDBCConnectorConfiguration.INCREMENTAL_FIELD,
+        "Incremental reads and change data capture cannot be combined");
+    }
+  }
+
+  /**
+   * @param settings connector runtime settings of the request, null when the flow has none
+   * @throws IllegalArgumentException when a setting is invalid
+   */
+  public static RuntimeSettings of(final Map<String, String> settings) {
+    if (settings == null || settings.isEmpty()) {
+      return DEFAULTS;
+    }
+    Map<String, String> errors = new LinkedHashMap<>();
+    RuntimeSettings parsed = new RuntimeSettings(settings, errors);
+    if (!errors.isEmpty()) {
+      throw new IllegalArgumentException("Invalid connector runtime settings: " + errors);
+    }
+    return parsed;
+  }
+
+  /**
+   * @return Map error message by setting key, empty when every setting is valid
+   */
+  public static Map<String, String> validate(final Map<String, String> settings) {
+    Map<String, String> errors = new LinkedHashMap<>();
+    if (settings != null) {
+      new RuntimeSettings(settings, errors);
+    }
+    return Collections.unmodifiableMap(errors);
+  }
+
+  /**
+   * @return Integer rows the driver fetches per round trip when streaming a read, null for the dialect's default
+   */
+  public Integer getFetchSize() {
+    return fetchSize;
+  }
+
+  /**
+   * @return Long largest page returned, whatever page size AppFlow asks for; null for no cap
+   */
+  public Long getMaxPageSize() {
+    return maxPageSize;
+  }
+
+  /**
+   * @return int size of the records, as JSON, at which a page ends even if it holds fewer rows than asked for
+   */
+  public int getMaxPageBytes() {
+    return maxPageBytes;
+  }
+
+  /**
+   * @return int rows per multi-row INSERT statement
+   */
+  public int getWriteBatchSize() {
+    return writeBatchSize;
+  }
+
+  /**
+   * @return int records of an update from which they are applied from a staging table
+   */
+  public int getBulkUpdateRows() {
+    return bulkUpdateRows;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @return Integer connections pooled per secret, null for the pool's default
+   */
+  public Integer getPoolSize() {
+    return poolSize;
+  }
+
+  /**
+   * @return int seconds a statement may run before it is cancelled, 0 for no limit
+   */
+  public int getQueryTimeout() {
+    return queryTimeout;
+  }
+
+  public Pagination getPagination() {
+    return pagination;
+  }
+
+  public LobPolicy getLobPolicy() {
+    return lobPolicy;
+  }
+
+  /**
+   * @return int characters, or bytes, a large object is truncated to under {@link LobPolicy#TRUNCATE}
+   */
+  public int getLobLimit() {
+    return lobLimit;
+  }
+
+  public String getIncrementalField() {
+    return incrementalField;
+  }
+
+  public boolean isChangeDataCapture() {
+    return changeDataCapture;
+  }
+
+  /**
+   * @return String binary log position change data capture starts from when there is no checkpoint, {@link #CURRENT}
+   * for the end of the log, null to fail instead
+   */
+  public String getBinlogStart() {
+    return binlogStart;
+  }
+
+  public boolean isBulkLoad() {
+    return bulkLoad;
+  }
+
+  /**
+   * @return Integer rows per write transaction, null to adapt it to the measured commit latency
+   */
+  public Integer getCommitRows() {
+    return commitRows;
+  }
+
+  public int getCommitBytes() {
+    return commitBytes;
+  }
+
+  /**
+   * Reads settings, recording what is wrong with them instead of failing on the first error.
+   */
+  private static final class Parser {
+    private final Map<String, String> settings;
+    private final Map<String, String> errors;
+
+    private Parser(final Map<String, String> settings, final Map<String, String> errors) {
+      this.settings = settings;
+      this.errors = errors;
+    }
+
+    private String string(final String key) {
+      String value = settings.get(key);
+      return StringUtils.isBlank(value) ? null : value.trim();
+    }
+
+    private Integer integer(final String key, final int min, final int max) {
+      String value = string(key);
+      if (value == null) {
+        return null;
+      }
+      try {
+        int parsed = Integer.parseInt(value);
+        if (parsed >= min && parsed <= max) {
+          return parsed;
+        }
+      } catch (NumberFormatException e) {
+        // Reported below like an out of range number.
+      }
+      errors.put(key, String.format("Must be a whole number from %d to %d", min, max));
+      return null;
+    }
+
+    private int integer(final String key, final int min, final int max, final int defaultValue) {
+      Integer value = integer(key, min, max);
+      return value == null ? defaultValue : value;
+    }
+
+    private boolean bool(final String key) {
+      String value = string(key);
+      if (value == null || "false".equalsIgnoreCase(value)) {
+        return false;
+      }
+      if ("true".equalsIgnoreCase(value)) {
+        return true;
+      }
+      errors.put(key, "Must be true or false");
+      return false;
+    }
+
+    private <E extends Enum<E>> E choice(final String key, final E defaultValue) {
+      String value = string(key);
+      if (value == null) {
+        return defaultValue;
+      }
+      try {
+        return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        E[] choices = defaultValue.getDeclaringClass().getEnumConstants();
+        errors.put(key, "Must be one of " + Arrays.stream(choices, 0, choices.length - 1)
+          .map(Enum::name)
+          .collect(Collectors.joining(", ")) + " or " + choices[choices.length - 1]);
+        return defaultValue;
+      }
+    }
+  }
+}
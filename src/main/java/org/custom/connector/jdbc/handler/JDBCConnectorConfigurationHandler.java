@@ -15,23 +15,39 @@ import com.amazonaws.appflow.custom.connector.model.credentials.ValidateCredenti
 import com.amazonaws.appflow.custom.connector.model.settings.ImmutableValidateConnectorRuntimeSettingsResponse;
 import com.amazonaws.appflow.custom.connector.model.settings.ValidateConnectorRuntimeSettingsRequest;
 import com.amazonaws.appflow.custom.connector.model.settings.ValidateConnectorRuntimeSettingsResponse;
+import org.custom.connector.jdbc.client.AbstractFactory;
 import org.custom.connector.jdbc.client.JDBCClient;
 import org.custom.connector.jdbc.client.JDBCClientFactory;
 import org.custom.connector.jdbc.config.JDBCConnectorConfiguration;
+import org.custom.connector.jdbc.config.RuntimeSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
+import java.util.Map;
 
 public class JDBCConnectorConfigurationHandler implements ConfigurationHandler {
   private static final String CONNECTOR_OWNER = "ksharlandjiev";
   private static final String CONNECTOR_NAME = "JDBCConnector";
   private static final String CONNECTOR_VERSION = "1.0";
   private static final Logger LOGGER = LoggerFactory.getLogger(JDBCConnectorConfigurationHandler.class);
-  private final JDBCClientFactory jdbcClient = new JDBCClientFactory();
+  private final AbstractFactory<JDBCClient> jdbcClient;
+
+  public JDBCConnectorConfigurationHandler() {
+    this(new JDBCClientFactory());
+  }
+
+  /**
+   * @param jdbcClient creates the client used for each request
+   */
+  public JDBCConnectorConfigurationHandler(final AbstractFactory<JDBCClient> jdbcClient) {
+    this.jdbcClient = jdbcClient;
+  }
 
   /**
    * Validates the user inputs corresponding to the connector settings for a given ConnectorRuntimeSettingScope.
+   * Each invalid setting is reported against its key, as is each setting the database of the credentials does not
+   * support.
    *
    * @param request - {@link ValidateConnectorRuntimeSettingsRequest}
    * @return - {@link ValidateConnectorRuntimeSettingsResponse}
@@ -40,6 +56,20 @@ public class JDBCConnectorConfigurationHandler implements ConfigurationHandler {
   public ValidateConnectorRuntimeSettingsResponse validateConnectorRuntimeSettings(
     final ValidateConnectorRuntimeSettingsRequest request
   ) {
+    Map<String, String> errors = request.credentials() == null
+      ? RuntimeSettings.validate(request.connectorRuntimeSettings())
+      : jdbcClient.create(request.credentials()).validateSettings(request.connectorRuntimeSettings());
+    if (!errors.isEmpty()) {
+      LOGGER.error("Invalid connector runtime settings " + errors);
+      return ImmutableValidateConnectorRuntimeSettingsResponse.builder()
+        .isSuccess(false)
+        .errorsByInputField(errors)
+        .errorDetails(ImmutableErrorDetails.builder()
+          .errorCode(ErrorCode.InvalidArgument)
+          .errorMessage("Invalid connector runtime settings: " + String.join(", ", errors.keySet()))
+          .build())
+        .build();
+    }
     return ImmutableValidateConnectorRuntimeSettingsResponse.builder().isSuccess(true).build();
   }
 
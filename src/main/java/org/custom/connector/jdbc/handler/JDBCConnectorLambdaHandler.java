@@ -4,14 +4,79 @@
 package org.custom.connector.jdbc.handler;
 
 import com.amazonaws.appflow.custom.connector.lambda.handler.BaseLambdaConnectorHandler;
+import com.amazonaws.services.lambda.runtime.Context;
+import org.custom.connector.jdbc.client.AbstractFactory;
+import org.custom.connector.jdbc.client.JDBCClient;
+import org.custom.connector.jdbc.client.JDBCClientFactory;
+import org.custom.connector.jdbc.client.Priming;
+import org.custom.connector.jdbc.utils.Metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 public class JDBCConnectorLambdaHandler extends BaseLambdaConnectorHandler {
 
+  static {
+    // Runs in the init phase, before the first request; see Priming.
+    if (Boolean.parseBoolean(System.getenv().getOrDefault("PRIME_ON_INIT", "false"))) {
+      Priming.prime();
+    }
+  }
+
   public JDBCConnectorLambdaHandler() {
+    this(new JDBCClientFactory());
+  }
+
+  /**
+   * @param jdbcClient creates the client used by every handler, e.g. one backed by an embedded database
+   */
+  public JDBCConnectorLambdaHandler(final AbstractFactory<JDBCClient> jdbcClient) {
     super(
-      new JDBCConnectorMetadataHandler(),
-      new JDBCConnectorRecordHandler(),
-      new JDBCConnectorConfigurationHandler()
+      new JDBCConnectorMetadataHandler(jdbcClient),
+      new JDBCConnectorRecordHandler(jdbcClient),
+      new JDBCConnectorConfigurationHandler(jdbcClient)
     );
   }
+
+  /**
+   * Handles the request inside the metrics of the invocation, which add the size of the response and the time taken
+   * to serialize it, measured from when the handler returned it.
+   */
+  @Override
+  public void handleRequest(final InputStream input, final OutputStream output, final Context context) {
+    try (Metrics metrics = Metrics.begin();
+         Metrics.Timer ignored = metrics.time("Invocation")) {
+      if (!metrics.isEnabled()) {
+        super.handleRequest(input, output, context);
+        return;
+      }
+      metrics.property("RequestId", context == null ? null : context.getAwsRequestId());
+      CountingOutputStream counted = new CountingOutputStream(output);
+      super.handleRequest(input, counted, context);
+      metrics.stop("ResponseSerialization");
+      metrics.countBytes("ResponseBytes", counted.count);
+    }
+  }
+
+  private static final class CountingOutputStream extends FilterOutputStream {
+    private long count;
+
+    private CountingOutputStream(final OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+  }
 }
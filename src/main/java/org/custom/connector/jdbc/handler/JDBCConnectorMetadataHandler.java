@@ -6,6 +6,7 @@ package org.custom.connector.jdbc.handler;
 import com.amazonaws.appflow.custom.connector.handlers.MetadataHandler;
 import com.amazonaws.appflow.custom.connector.model.ErrorCode;
 import com.amazonaws.appflow.custom.connector.model.ImmutableErrorDetails;
+import com.amazonaws.appflow.custom.connector.model.credentials.Credentials;
 import com.amazonaws.appflow.custom.connector.model.metadata.DescribeEntityRequest;
 import com.amazonaws.appflow.custom.connector.model.metadata.DescribeEntityResponse;
 import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableDescribeEntityResponse;
@@ -14,11 +15,24 @@ import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableEntityDefi
 import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableListEntitiesResponse;
 import com.amazonaws.appflow.custom.connector.model.metadata.ListEntitiesRequest;
 import com.amazonaws.appflow.custom.connector.model.metadata.ListEntitiesResponse;
+import org.custom.connector.jdbc.client.AbstractFactory;
 import org.custom.connector.jdbc.client.JDBCClient;
 import org.custom.connector.jdbc.client.JDBCClientFactory;
+import org.custom.connector.jdbc.utils.Metrics;
 
 public class JDBCConnectorMetadataHandler implements MetadataHandler {
-  private final JDBCClientFactory jdbcClient = new JDBCClientFactory();
+  private final AbstractFactory<JDBCClient> jdbcClient;
+
+  public JDBCConnectorMetadataHandler() {
+    this(new JDBCClientFactory());
+  }
+
+  /**
+   * @param jdbcClient creates the client used for each request
+   */
+  public JDBCConnectorMetadataHandler(final AbstractFactory<JDBCClient> jdbcClient) {
+    this.jdbcClient = jdbcClient;
+  }
 
   /**
    * Lists all the entities available in a paginated fashion. This API is recursive in nature and provides a heretical
@@ -30,9 +44,11 @@ public class JDBCConnectorMetadataHandler implements MetadataHandler {
    */
   @Override
   public ListEntitiesResponse listEntities(final ListEntitiesRequest request) {
-    JDBCClient client = jdbcClient.create(request.connectorContext().credentials());
+    Metrics metrics = Metrics.current();
+    metrics.operation("ListEntities");
+    JDBCClient client = createClient(request.connectorContext().credentials());
 
-    try {
+    try (Metrics.Timer ignored = metrics.time("Metadata")) {
       return ImmutableListEntitiesResponse.builder()
         .addAllEntities(client.getEntities(request))
         .isSuccess(true)
@@ -55,8 +71,11 @@ public class JDBCConnectorMetadataHandler implements MetadataHandler {
    */
   @Override
   public DescribeEntityResponse describeEntity(final DescribeEntityRequest request) {
-    JDBCClient client = jdbcClient.create(request.connectorContext().credentials());
-    try {
+    Metrics metrics = Metrics.current();
+    metrics.operation("DescribeEntity");
+    metrics.property("Entity", request.entityIdentifier());
+    JDBCClient client = createClient(request.connectorContext().credentials());
+    try (Metrics.Timer ignored = metrics.time("Metadata")) {
       return ImmutableDescribeEntityResponse.builder()
         .isSuccess(true)
         .entityDefinition(
@@ -79,4 +98,10 @@ public class JDBCConnectorMetadataHandler implements MetadataHandler {
         .isSuccess(false).build();
     }
   }
+
+  private JDBCClient createClient(final Credentials credentials) {
+    try (Metrics.Timer ignored = Metrics.current().time("ClientCreate")) {
+      return jdbcClient.create(credentials);
+    }
+  }
 }
@@ -7,6 +7,7 @@ import com.amazonaws.appflow.custom.connector.handlers.RecordHandler;
 import com.amazonaws.appflow.custom.connector.model.ErrorCode;
 import com.amazonaws.appflow.custom.connector.model.ErrorDetails;
 import com.amazonaws.appflow.custom.connector.model.ImmutableErrorDetails;
+import com.amazonaws.appflow.custom.connector.model.credentials.Credentials;
 import com.amazonaws.appflow.custom.connector.model.query.ImmutableQueryDataResponse;
 import com.amazonaws.appflow.custom.connector.model.query.QueryDataRequest;
 import com.amazonaws.appflow.custom.connector.model.query.QueryDataResponse;
@@ -16,18 +17,36 @@ import com.amazonaws.appflow.custom.connector.model.retreive.RetrieveDataRespons
 import com.amazonaws.appflow.custom.connector.model.write.ImmutableWriteDataResponse;
 import com.amazonaws.appflow.custom.connector.model.write.WriteDataRequest;
 import com.amazonaws.appflow.custom.connector.model.write.WriteDataResponse;
+import com.amazonaws.appflow.custom.connector.model.write.WriteRecordResult;
+import org.custom.connector.jdbc.client.AbstractFactory;
 import org.custom.connector.jdbc.client.JDBCClient;
 import org.custom.connector.jdbc.client.JDBCClientFactory;
+import org.custom.connector.jdbc.client.PageCache;
+import org.custom.connector.jdbc.client.QueryPage;
+import org.custom.connector.jdbc.utils.Metrics;
 import org.custom.connector.jdbc.validation.JDBCRequestValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Objects;
 
 public final class JDBCConnectorRecordHandler implements RecordHandler {
+  private static final PageCache PAGE_CACHE = PageCache.fromEnvironment();
   private final Logger logger = LoggerFactory.getLogger(JDBCConnectorRecordHandler.class);
-  private final JDBCClientFactory jdbcClient = new JDBCClientFactory();
+  private final AbstractFactory<JDBCClient> jdbcClient;
+
+  public JDBCConnectorRecordHandler() {
+    this(new JDBCClientFactory());
+  }
+
+  /**
+   * @param jdbcClient creates the client used for each request
+   */
+  public JDBCConnectorRecordHandler(final AbstractFactory<JDBCClient> jdbcClient) {
+    this.jdbcClient = jdbcClient;
+  }
 
   /**
    * Retrieves the batch of records against a set of identifiers from the source application
@@ -54,16 +73,28 @@ public final class JDBCConnectorRecordHandler implements RecordHandler {
    */
   @Override
   public WriteDataResponse writeData(final WriteDataRequest request) {
+    Metrics metrics = Metrics.current();
+    metrics.operation("WriteData");
+    metrics.property("Entity", request.entityIdentifier());
+    metrics.count("Records", request.records() == null ? 0 : request.records().size());
     ErrorDetails errorDetails = JDBCRequestValidator.validateWriteDataRequest(request);
     if (Objects.nonNull(errorDetails)) {
       logger.error("WriteData request failed with errorDetails " + errorDetails);
       return ImmutableWriteDataResponse.builder().isSuccess(false).errorDetails(errorDetails).build();
     }
     try {
-      JDBCClient client = jdbcClient.create(request.connectorContext().credentials());
-      client.writeData(request);
+      JDBCClient client = createClient(request.connectorContext().credentials());
+      List<WriteRecordResult> results;
+      try (Metrics.Timer ignored = metrics.time("Write")) {
+        results = client.writeData(request);
+      } finally {
+        PAGE_CACHE.invalidate(request.connectorContext().credentials().secretArn(), request.entityIdentifier());
+      }
+      metrics.count("FailedRecords", results.stream().filter(result -> !result.isSuccess()).count());
+      metrics.start("ResponseSerialization");
       return ImmutableWriteDataResponse.builder()
         .isSuccess(true)
+        .writeRecordResults(results)
         .build();
     } catch (SQLException ex) {
       logger.error("SQLException: " + ex.getMessage());
@@ -87,6 +118,9 @@ public final class JDBCConnectorRecordHandler implements RecordHandler {
    */
   @Override
   public QueryDataResponse queryData(final QueryDataRequest request) {
+    Metrics metrics = Metrics.current();
+    metrics.operation("QueryData");
+    metrics.property("Entity", request.entityIdentifier());
     ErrorDetails errorDetails = JDBCRequestValidator.validateQueryDataRequest(request);
     if (Objects.nonNull(errorDetails)) {
       logger.error("QueryData request failed with errorDetails " + errorDetails);
@@ -94,28 +128,16 @@ public final class JDBCConnectorRecordHandler implements RecordHandler {
     }
 
     try {
-      JDBCClient client = jdbcClient.create(request.connectorContext().credentials());
-
-      // get Total rows.
-      long totalRows = client.getTotalData(request);
-
-      String nextToken = request.nextToken();
-
-      if (totalRows > request.maxResults()) {
-        if (request.nextToken() != null) {
-          long n = Long.parseLong(request.nextToken()) + request.maxResults();
-          if (n >= totalRows) {
-            nextToken = null;
-          } else {
-            nextToken = Long.toString(n);
-          }
-        } else {
-          nextToken = request.maxResults().toString();
-        }
+      QueryPage page = PAGE_CACHE.get(request,
+        () -> createClient(request.connectorContext().credentials()).queryData(request));
+      metrics.count("Records", page.getRecords().size());
+      if (metrics.isEnabled()) {
+        metrics.countBytes("RecordBytes", page.getRecords().stream().mapToLong(String::length).sum());
       }
+      metrics.start("ResponseSerialization");
       return ImmutableQueryDataResponse.builder()
-        .records(client.queryData(request))
-        .nextToken(nextToken)
+        .records(page.getRecords())
+        .nextToken(page.getNextToken())
         .isSuccess(true)
         .build();
     } catch (SQLException ex) {
@@ -131,4 +153,10 @@ public final class JDBCConnectorRecordHandler implements RecordHandler {
         ).isSuccess(false).build();
     }
   }
+
+  private JDBCClient createClient(final Credentials credentials) {
+    try (Metrics.Timer ignored = Metrics.current().time("ClientCreate")) {
+      return jdbcClient.create(credentials);
+    }
+  }
 }
@@ -0,0 +1,235 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Timings and counters of one invocation, printed when it ends as a single CloudWatch Embedded Metric Format line on
+ * stdout, from which CloudWatch Logs extracts the metrics. Timers add up every time their phase runs, so a phase
+ * repeated per page or per statement reports its total.
+ * <p>
+ * Code on the request path reaches the invocation's metrics through {@link #current()}. Metrics are off unless the
+ * METRICS_ENABLED variable is true; then {@link #current()} is a shared instance that records nothing.
+ */
+public class Metrics implements AutoCloseable {
+  private static final boolean ENABLED =
+    Boolean.parseBoolean(System.getenv().getOrDefault("METRICS_ENABLED", "false"));
+  private static final String NAMESPACE =
+    System.getenv().getOrDefault("METRICS_NAMESPACE", "AppFlowJDBCConnector");
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final ThreadLocal<Metrics> CURRENT = new ThreadLocal<>();
+  private static final Metrics DISABLED = new Metrics();
+  private static final Timer NO_TIMER = () -> { };
+
+  private final Consumer<String> out;
+  private final LongSupplier clock;
+  private final Map<String, Long> timers = new LinkedHashMap<>();
+  private final Map<String, Long> started = new LinkedHashMap<>();
+  private final Map<String, Long> counts = new LinkedHashMap<>();
+  private final Map<String, Long> bytes = new LinkedHashMap<>();
+  private final Map<String, Long> gauges = new LinkedHashMap<>();
+  private final Map<String, String> properties = new LinkedHashMap<>();
+  private String operation = "Unknown";
+
+  private Metrics() {
+    out = null;
+    clock = null;
+  }
+
+  /**
+   * @param out   receives the metric line
+   * @param clock nanosecond clock
+   */
+  Metrics(final Consumer<String> out, final LongSupplier clock) {
+    this.out = out;
+    this.clock = clock;
+  }
+
+  /**
+   * Starts recording the metrics of an invocation on this thread.
+   *
+   * @return Metrics to close when the invocation ends
+   */
+  public static Metrics begin() {
+    if (!ENABLED) {
+      return DISABLED;
+    }
+    Metrics metrics = new Metrics(System.out::println, System::nanoTime);
+    CURRENT.set(metrics);
+    return metrics;
+  }
+
+  /**
+   * @return Metrics of the invocation running on this thread, one that records nothing when there is none
+   */
+  public static Metrics current() {
+    Metrics metrics = CURRENT.get();
+    return metrics == null ? DISABLED : metrics;
+  }
+
+  public boolean isEnabled() {
+    return out != null;
+  }
+
+  /**
+   * Names the operation, the dimension of every metric of the invocation.
+   */
+  public synchronized void operation(final String name) {
+    if (isEnabled()) {
+      operation = name;
+    }
+  }
+
+  /**
+   * Adds a value logged with the metrics, for finding the invocation, that is not a dimension.
+   */
+  public synchronized void property(final String key, final String value) {
+    if (isEnabled() && value != null) {
+      properties.put(key, value);
+    }
+  }
+
+  /**
+   * @return Timer adding the time until it is closed to the phase
+   */
+  public Timer time(final String phase) {
+    if (!isEnabled()) {
+      return NO_TIMER;
+    }
+    long start = clock.getAsLong();
+    return () -> addTime(phase, clock.getAsLong() - start);
+  }
+
+  /**
+   * Starts timing a phase that ends in another method, with {@link #stop}.
+   */
+  public synchronized void start(final String phase) {
+    if (isEnabled()) {
+      started.put(phase, clock.getAsLong());
+    }
+  }
+
+  /**
+   * Ends a phase begun with {@link #start}; does nothing when it was not started.
+   */
+  public synchronized void stop(final String phase) {
+    Long start = started.remove(phase);
+    if (start != null) {
+      addTime(phase, clock.getAsLong() - start);
+    }
+  }
+
+  public synchronized void addTime(final String phase, final long nanos) {
+    if (isEnabled()) {
+      timers.merge(phase, nanos, Long::sum);
+    }
+  }
+
+  public synchronized void count(final String name, final long value) {
+    if (isEnabled()) {
+      counts.merge(name, value, Long::sum);
+    }
+  }
+
+  public synchronized void countBytes(final String name, final long value) {
+    if (isEnabled()) {
+      bytes.merge(name, value, Long::sum);
+    }
+  }
+
+  /**
+   * Records a level, such as a pool's connections; the last value recorded is reported.
+   */
+  public synchronized void gauge(final String name, final long value) {
+    if (isEnabled()) {
+      gauges.put(name, value);
+    }
+  }
+
+  /**
+   * @return Callable running the task with this invocation's metrics, for tasks handed to other threads
+   */
+  public <T> Callable<T> wrap(final Callable<T> task) {
+    if (!isEnabled()) {
+      return task;
+    }
+    return () -> {
+      Metrics previous = CURRENT.get();
+      CURRENT.set(this);
+      try {
+        return task.call();
+      } finally {
+        CURRENT.set(previous);
+      }
+    };
+  }
+
+  /**
+   * Prints the metric line and stops recording on this thread.
+   */
+  @Override
+  public void close() {
+    if (!isEnabled()) {
+      return;
+    }
+    if (CURRENT.get() == this) {
+      CURRENT.remove();
+    }
+    out.accept(toEmf(System.currentTimeMillis()));
+  }
+
+  synchronized String toEmf(final long timestamp) {
+    ObjectNode line = MAPPER.createObjectNode();
+    ObjectNode aws = line.putObject("_aws");
+    aws.put("Timestamp", timestamp);
+    ObjectNode directive = aws.putArray("CloudWatchMetrics").addObject();
+    directive.put("Namespace", NAMESPACE);
+    directive.putArray("Dimensions").addArray().add("Operation");
+    ArrayNode definitions = directive.putArray("Metrics");
+    line.put("Operation", operation);
+
+    timers.forEach((name, nanos) -> {
+      definitions.addObject().put("Name", name).put("Unit", "Milliseconds");
+      line.put(name, nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    });
+    counts.forEach((name, value) -> {
+      definitions.addObject().put("Name", name).put("Unit", "Count");
+      line.put(name, value);
+    });
+    bytes.forEach((name, value) -> {
+      definitions.addObject().put("Name", name).put("Unit", "Bytes");
+      line.put(name, value);
+    });
+    gauges.forEach((name, value) -> {
+      definitions.addObject().put("Name", name).put("Unit", "Count");
+      line.put(name, value);
+    });
+    properties.forEach(line::put);
+    try {
+      return MAPPER.writeValueAsString(line);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * A running timer; closing it records the time.
+   */
+  @FunctionalInterface
+  public interface Timer extends AutoCloseable {
+    @Override
+    void close();
+  }
+}
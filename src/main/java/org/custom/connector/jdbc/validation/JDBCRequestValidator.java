@@ -11,7 +11,6 @@ import com.amazonaws.appflow.custom.connector.model.credentials.Credentials;
 import com.amazonaws.appflow.custom.connector.model.query.QueryDataRequest;
 import com.amazonaws.appflow.custom.connector.model.retreive.RetrieveDataRequest;
 import com.amazonaws.appflow.custom.connector.model.write.WriteDataRequest;
-import org.apache.commons.collections4.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,7 +26,7 @@ public final class JDBCRequestValidator {
 
   public static ErrorDetails validateRetrieveDataRequest(final RetrieveDataRequest request) {
     final List<String> errors = validateConnectorContext(request.connectorContext());
-    if (CollectionUtils.isEmpty(errors)) {
+    if (errors.isEmpty()) {
       return null;
     }
     return ImmutableErrorDetails.builder()
@@ -38,7 +37,7 @@ public final class JDBCRequestValidator {
 
   public static ErrorDetails validateWriteDataRequest(final WriteDataRequest request) {
     final List<String> errors = new ArrayList<>(validateConnectorContext(request.connectorContext()));
-    if (CollectionUtils.isEmpty(errors)) {
+    if (errors.isEmpty()) {
       return null;
     }
     return ImmutableErrorDetails.builder()
@@ -49,7 +48,7 @@ public final class JDBCRequestValidator {
 
   public static ErrorDetails validateQueryDataRequest(final QueryDataRequest request) {
     final List<String> errors = validateConnectorContext(request.connectorContext());
-    if (CollectionUtils.isEmpty(errors)) {
+    if (errors.isEmpty()) {
       return null;
     }
     return ImmutableErrorDetails.builder()
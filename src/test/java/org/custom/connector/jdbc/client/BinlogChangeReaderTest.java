@@ -0,0 +1,198 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.metadata.FieldDataType;
+import com.amazonaws.appflow.custom.connector.model.metadata.FieldDefinition;
+import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableFieldDefinition;
+import com.github.shyiko.mysql.binlog.BinaryLogFileReader;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventData;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.TableMapEventData;
+import com.github.shyiko.mysql.binlog.event.TableMapEventMetadata;
+import com.github.shyiko.mysql.binlog.event.UpdateRowsEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.ColumnType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads a recorded row-based binary log holding, for shop.orders, three inserts, an update, a delete and an insert
+ * with a NULL column, interleaved with an insert into shop.customers.
+ */
+class BinlogChangeReaderTest {
+  private static final String FIXTURE = "/binlog/mysql-bin.000001";
+  private static final BinlogPosition START = new BinlogPosition("mysql-bin.000001", 4);
+  private static final BinlogPosition END = new BinlogPosition("mysql-bin.000001", Long.MAX_VALUE);
+  private static final List<String> EXPECTED = Arrays.asList(
+    "{\"id\":1,\"status\":\"new\",\"amount\":10.5,\"updated_at\":\"2024-05-01T10:00:00\",\"_op\":\"INSERT\"}",
+    "{\"id\":2,\"status\":\"new\",\"amount\":20.0,\"updated_at\":\"2024-05-01T10:00:00\",\"_op\":\"INSERT\"}",
+    "{\"id\":3,\"status\":\"new\",\"amount\":7.25,\"updated_at\":\"2024-05-01T10:00:00\",\"_op\":\"INSERT\"}",
+    "{\"id\":2,\"status\":\"paid\",\"amount\":20.0,\"updated_at\":\"2024-05-01T11:00:00\",\"_op\":\"UPDATE\"}",
+    "{\"id\":3,\"status\":\"new\",\"amount\":7.25,\"updated_at\":\"2024-05-01T10:00:00\",\"_op\":\"DELETE\"}",
+    "{\"id\":4,\"status\":null,\"amount\":1.0,\"updated_at\":\"2024-05-01T12:00:00\",\"_op\":\"INSERT\"}");
+
+  private static final List<FieldDefinition> FIELDS = Arrays.asList(
+    field("id", FieldDataType.Integer),
+    field("status", FieldDataType.String),
+    field("amount", FieldDataType.Double),
+    field("updated_at", FieldDataType.DateTime));
+
+  private static BinlogChangeReader.ChangePage read(final BinlogPosition start, final int skip,
+                                                    final BinlogPosition end, final Long maxResults)
+    throws IOException {
+    return read(FIELDS, start, skip, end, maxResults);
+  }
+
+  private static BinlogChangeReader.ChangePage read(final List<FieldDefinition> fields, final BinlogPosition start,
+                                                    final int skip, final BinlogPosition end, final Long maxResults)
+    throws IOException {
+    BinlogChangeReader reader = new BinlogChangeReader("shop", "orders", fields,
+      Arrays.asList("id", "status", "amount", "updated_at"));
+    try (BinaryLogFileReader log = new BinaryLogFileReader(
+      BinlogChangeReaderTest.class.getResourceAsStream(FIXTURE), BinlogStream.eventDeserializer())) {
+      return reader.read(log::readEvent, start, skip, end, maxResults);
+    }
+  }
+
+  /**
+   * @return Event at {@code position} of the recorded log's file, {@code length} bytes long
+   */
+  private static Event event(final EventType type, final long position, final long length, final EventData data) {
+    EventHeaderV4 header = new EventHeaderV4();
+    header.setEventType(type);
+    header.setEventLength(length);
+    header.setNextPosition(position + length);
+    return new Event(header, data);
+  }
+
+  /**
+   * @param names column names logged with the table map, null if the server logs none
+   * @param after columns of the row after the update present in its image
+   * @return ChangePage of a log holding one update of shop.orders
+   */
+  private static BinlogChangeReader.ChangePage readUpdate(final List<String> names, final BitSet after)
+    throws IOException {
+    TableMapEventData tableMap = new TableMapEventData();
+    tableMap.setTableId(42);
+    tableMap.setDatabase("shop");
+    tableMap.setTable("orders");
+    tableMap.setColumnTypes(new byte[]{(byte) ColumnType.LONG.getCode(), (byte) ColumnType.VARCHAR.getCode(),
+      (byte) ColumnType.DOUBLE.getCode(), (byte) ColumnType.DATETIME.getCode()});
+    if (names != null) {
+      TableMapEventMetadata metadata = new TableMapEventMetadata();
+      metadata.setColumnNames(names);
+      tableMap.setEventMetadata(metadata);
+    }
+    BitSet all = new BitSet();
+    all.set(0, 4);
+    UpdateRowsEventData update = new UpdateRowsEventData();
+    update.setTableId(42);
+    update.setIncludedColumnsBeforeUpdate(all);
+    update.setIncludedColumns(after);
+    update.setRows(List.of(new AbstractMap.SimpleEntry<>(new Serializable[]{2, "new", 20.0, null},
+      after.cardinality() == 4 ? new Serializable[]{2, "paid", 20.0, null} : new Serializable[]{2, "paid"})));
+
+    Iterator<Event> events = List.of(event(EventType.TABLE_MAP, 4, 50, tableMap),
+      event(EventType.EXT_UPDATE_ROWS, 54, 60, update)).iterator();
+    return new BinlogChangeReader("shop", "orders", FIELDS, Arrays.asList("id", "status", "amount"))
+      .read(() -> events.hasNext() ? events.next() : null, START, 0, END, null);
+  }
+
+  private static FieldDefinition field(final String name, final FieldDataType type) {
+    return ImmutableFieldDefinition.builder().fieldName(name).dataType(type).dataTypeLabel(name).label(name).build();
+  }
+
+  @Test
+  void testChangesOfTheTableAreReturned() throws IOException {
+    BinlogChangeReader.ChangePage page = read(START, 0, END, null);
+
+    assertEquals(EXPECTED, page.getRecords());
+    assertNull(page.getNext());
+    assertEquals(1042, page.getReached().getPosition());
+  }
+
+  @Test
+  void testPagesResumeWithoutGapsOrDuplicates() throws IOException {
+    List<String> records = new ArrayList<>();
+    PageToken token = null;
+    int pages = 0;
+    do {
+      BinlogChangeReader.ChangePage page = token == null
+        ? read(START, 0, END, 2L)
+        : read(token.getBinlogPosition(), token.getBinlogSkip(), END, 2L);
+      records.addAll(page.getRecords());
+      token = page.getNext() == null ? null : PageToken.decode(page.getNext().encode());
+      pages++;
+    } while (token != null);
+
+    assertEquals(EXPECTED, records);
+    assertEquals(3, pages);
+  }
+
+  @Test
+  void testReadStopsAtEndPosition() throws IOException {
+    // 357 is where the first transaction, the three order inserts, commits.
+    BinlogChangeReader.ChangePage first = read(START, 0, new BinlogPosition("mysql-bin.000001", 357), 1L);
+    PageToken next = first.getNext();
+    assertNotNull(next);
+    // The page stops inside the three-row insert, which resumes from its table map event.
+    assertEquals(172, next.getBinlogPosition().getPosition());
+    assertEquals(1, next.getBinlogSkip());
+
+    BinlogChangeReader.ChangePage rest = read(next.getBinlogPosition(), next.getBinlogSkip(), next.getBinlogEnd(),
+      null);
+
+    assertEquals(EXPECTED.subList(1, 3), rest.getRecords());
+    assertNull(rest.getNext());
+    assertEquals(357, rest.getReached().getPosition());
+  }
+
+  @Test
+  void testChangesOfAnAlteredTableFail() {
+    // The recorded changes were logged while shop.orders had four columns.
+    List<FieldDefinition> altered = new ArrayList<>(FIELDS);
+    altered.add(field("note", FieldDataType.String));
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> read(altered, START, 0, END, null));
+    assertTrue(e.getMessage().contains("had 4 columns, but it now has 5"), e.getMessage());
+  }
+
+  @Test
+  void testLoggedColumnNamesAreMatchedToTheTable() throws IOException {
+    BitSet all = new BitSet();
+    all.set(0, 4);
+
+    assertEquals(List.of("{\"id\":2,\"status\":\"paid\",\"amount\":20.0,\"_op\":\"UPDATE\"}"),
+      readUpdate(List.of("id", "status", "amount", "updated_at"), all).getRecords());
+    IllegalStateException e = assertThrows(IllegalStateException.class,
+      () -> readUpdate(List.of("id", "amount", "status", "updated_at"), all));
+    assertTrue(e.getMessage().contains("[id, amount, status, updated_at]"), e.getMessage());
+  }
+
+  @Test
+  void testPartialRowImagesFail() {
+    // binlog_row_image=MINIMAL logs the key and the changed columns only.
+    BitSet changed = new BitSet();
+    changed.set(0, 2);
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> readUpdate(null, changed));
+    assertTrue(e.getMessage().contains("binlog_row_image=FULL"), e.getMessage());
+  }
+}
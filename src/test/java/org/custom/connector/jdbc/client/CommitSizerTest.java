@@ -0,0 +1,53 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CommitSizerTest {
+  private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  void testGrowsWhileCommitsTakeANoticeableShare() {
+    CommitSizer sizer = new CommitSizer();
+    assertEquals(1000, sizer.rows());
+
+    sizer.committed(1000, 100 * MILLIS, 10 * MILLIS, false);
+    assertEquals(2000, sizer.rows());
+
+    // A cheap commit is not worth a larger transaction, and a short one says nothing.
+    sizer.committed(2000, 1000 * MILLIS, 10 * MILLIS, false);
+    sizer.committed(500, 20 * MILLIS, 10 * MILLIS, false);
+    assertEquals(2000, sizer.rows());
+
+    for (int i = 0; i < 10; i++) {
+      sizer.committed(sizer.rows(), 100 * MILLIS, 10 * MILLIS, false);
+    }
+    assertEquals(CommitSizer.MAX_ROWS, sizer.rows());
+  }
+
+  @Test
+  void testShrinksOnSlowCommitsLogWaitsAndContention() {
+    CommitSizer sizer = new CommitSizer();
+    sizer.committed(1000, 2000 * MILLIS, 500 * MILLIS, false);
+    assertEquals(500, sizer.rows());
+    sizer.committed(500, 100 * MILLIS, 10 * MILLIS, true);
+    assertEquals(250, sizer.rows());
+    sizer.contended();
+    sizer.contended();
+    assertEquals(CommitSizer.MIN_ROWS, sizer.rows());
+  }
+
+  @Test
+  void testFixedSizeNeverChanges() {
+    CommitSizer sizer = CommitSizer.fixed(10);
+    sizer.committed(10, 100 * MILLIS, 10 * MILLIS, false);
+    sizer.contended();
+    assertEquals(10, sizer.rows());
+  }
+}
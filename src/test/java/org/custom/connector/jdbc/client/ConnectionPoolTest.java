@@ -0,0 +1,120 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+  private final AtomicInteger opened = new AtomicInteger();
+
+  private Connection newConnection() throws SQLException {
+    opened.incrementAndGet();
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.getAutoCommit()).thenReturn(true);
+    Mockito.when(connection.isValid(Mockito.anyInt())).thenReturn(true);
+    return connection;
+  }
+
+  @Test
+  void testClosedConnectionIsReused() throws SQLException {
+    ConnectionPool pool = new ConnectionPool(this::newConnection, 2, Duration.ofMinutes(5), Duration.ofSeconds(1));
+
+    try (Connection conn = pool.borrow()) {
+      conn.createStatement();
+    }
+    try (Connection conn = pool.borrow()) {
+      conn.createStatement();
+    }
+
+    assertEquals(1, opened.get());
+    assertEquals(1, pool.getIdle());
+  }
+
+  @Test
+  void testClosedLeaseCannotBeUsed() throws SQLException {
+    ConnectionPool pool = new ConnectionPool(this::newConnection, 1, Duration.ofMinutes(5), Duration.ofSeconds(1));
+
+    Connection conn = pool.borrow();
+    conn.close();
+
+    assertTrue(conn.isClosed());
+    assertThrows(SQLException.class, conn::createStatement);
+  }
+
+  @Test
+  void testPoolSizeIsCapped() throws SQLException {
+    ConnectionPool pool = new ConnectionPool(this::newConnection, 1, Duration.ofMinutes(5), Duration.ofMillis(50));
+
+    try (Connection conn = pool.borrow()) {
+      assertThrows(SQLException.class, pool::borrow);
+    }
+    assertEquals(1, opened.get());
+  }
+
+  @Test
+  void testShrunkPoolClosesConnectionsAboveItsSize() throws SQLException {
+    ConnectionPool pool = new ConnectionPool(this::newConnection, 2, Duration.ofMinutes(5), Duration.ofSeconds(1));
+    Connection first = pool.borrow();
+    Connection second = pool.borrow();
+
+    pool.resize(1);
+    first.close();
+    second.close();
+
+    assertEquals(1, pool.getTotal());
+    assertEquals(1, pool.getIdle());
+  }
+
+  @Test
+  void testIdleConnectionsAreEvicted() throws SQLException {
+    ConnectionPool pool = new ConnectionPool(this::newConnection, 2, Duration.ZERO, Duration.ofSeconds(1));
+
+    pool.borrow().close();
+    pool.borrow().close();
+
+    assertEquals(2, opened.get());
+    assertEquals(1, pool.getTotal());
+  }
+
+  @Test
+  void testUncommittedWorkIsRolledBackOnReturn() throws SQLException {
+    Connection physical = Mockito.mock(Connection.class);
+    Mockito.when(physical.getAutoCommit()).thenReturn(false);
+    ConnectionPool pool = new ConnectionPool(() -> physical, 1, Duration.ofMinutes(5), Duration.ofSeconds(1));
+
+    pool.borrow().close();
+
+    Mockito.verify(physical).rollback();
+    Mockito.verify(physical).setAutoCommit(true);
+  }
+
+  @Test
+  void testPoolOfAnEarlierSecretVersionIsClosed() throws SQLException {
+    String arn = "arn:aws:secretsmanager:us-east-1:000000000000:secret:rotated";
+    ConnectionPool old = ConnectionPool.forKey(List.of(arn, "jdbc:test", "user", "old"), this::newConnection);
+    old.borrow().close();
+    Connection borrowed = old.borrow();
+
+    ConnectionPool rotated = ConnectionPool.forKey(List.of(arn, "jdbc:test", "user", "new"), this::newConnection);
+    assertEquals(0, old.getIdle());
+    borrowed.close();
+
+    assertEquals(0, old.getTotal());
+    assertNotSame(old, rotated);
+    assertSame(rotated, ConnectionPool.forKey(List.of(arn, "jdbc:test", "user", "new"), this::newConnection));
+  }
+}
@@ -0,0 +1,66 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FilterExpressionTest {
+  private static final SqlDialect DIALECT = new H2Dialect();
+
+  private static List<String> values(final FilterExpression filter) {
+    return filter.parameters().stream().map(FilterExpression.Parameter::getValue).map(JsonNode::toString)
+      .collect(Collectors.toList());
+  }
+
+  @Test
+  void testValuesBecomeParameters() {
+    FilterExpression filter = FilterExpression.parse("id >= \"30\" AND amount > 2.5 and paid = true");
+    assertEquals("((\"id\" >= ? AND \"amount\" > ?) AND \"paid\" = ?)", filter.toSql(DIALECT));
+    assertEquals(Arrays.asList("\"30\"", "2.5", "true"), values(filter));
+    assertEquals(Arrays.asList("id", "amount", "paid"), List.copyOf(filter.fields()));
+  }
+
+  @Test
+  void testOrBindsLooserThanAndAndNot() {
+    FilterExpression filter = FilterExpression.parse(
+      "NOT status != 'new' OR created BETWEEN 2024-01-01 AND 2024-01-31T23:59:59Z AND id IN (1, 2, 3)");
+    assertEquals("(NOT (\"status\" <> ?) OR (\"created\" BETWEEN ? AND ? AND \"id\" IN (?, ?, ?)))",
+      filter.toSql(DIALECT));
+    assertEquals(Arrays.asList("\"new\"", "\"2024-01-01\"", "\"2024-01-31T23:59:59Z\"", "1", "2", "3"),
+      values(filter));
+  }
+
+  @Test
+  void testNullComparisonsAndContains() {
+    FilterExpression filter = FilterExpression.parse("(email = null or email != NULL) and name contains \"50%_a\"");
+    assertEquals("((\"email\" IS NULL OR \"email\" IS NOT NULL) AND \"name\" LIKE ? ESCAPE '!')",
+      filter.toSql(DIALECT));
+    assertEquals(List.of("\"%50!%!_a%\""), values(filter));
+  }
+
+  @Test
+  void testSameShapeWithOtherValuesRendersTheSameStatement() {
+    FilterExpression first = FilterExpression.parse("id > 10 AND status = \"new\"");
+    FilterExpression second = FilterExpression.parse("id > 20 AND status = \"paid\"");
+    assertEquals(first.toSql(DIALECT), second.toSql(DIALECT));
+    assertEquals(first.shape(), second.shape());
+  }
+
+  @Test
+  void testMalformedFiltersAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> FilterExpression.parse("id > "));
+    assertThrows(IllegalArgumentException.class, () -> FilterExpression.parse("id > 1; DROP TABLE orders"));
+    assertThrows(IllegalArgumentException.class, () -> FilterExpression.parse("name = \"unterminated"));
+    assertThrows(IllegalArgumentException.class, () -> FilterExpression.parse("id < null"));
+    assertThrows(IllegalArgumentException.class, () -> FilterExpression.parse("(id = 1"));
+  }
+}
@@ -0,0 +1,24 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import java.util.Map;
+
+/**
+ * H2 client, used by the tests and benchmarks to run the connector against an embedded database.
+ */
+public final class H2Client extends AbstractJDBCClient {
+
+  public H2Client(final String arn, final Map<String, String> creds) {
+    this(arn, creds, null);
+  }
+
+  /**
+   * @param connectionFactory opens physical connections in place of the JDBC URL built from the credentials
+   */
+  H2Client(final String arn, final Map<String, String> creds,
+           final ConnectionPool.ConnectionFactory connectionFactory) {
+    super(arn, creds, new H2Dialect(), connectionFactory);
+  }
+}
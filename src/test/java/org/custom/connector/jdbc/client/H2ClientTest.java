@@ -0,0 +1,549 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.ConnectorContext;
+import com.amazonaws.appflow.custom.connector.model.ImmutableConnectorContext;
+import com.amazonaws.appflow.custom.connector.model.credentials.AuthenticationType;
+import com.amazonaws.appflow.custom.connector.model.credentials.ImmutableCredentials;
+import com.amazonaws.appflow.custom.connector.model.metadata.FieldDataType;
+import com.amazonaws.appflow.custom.connector.model.metadata.FieldDefinition;
+import com.amazonaws.appflow.custom.connector.model.metadata.ImmutableDescribeEntityRequest;
+import com.amazonaws.appflow.custom.connector.model.query.ImmutableQueryDataRequest;
+import com.amazonaws.appflow.custom.connector.model.write.ImmutableWriteDataRequest;
+import com.amazonaws.appflow.custom.connector.model.write.WriteOperationType;
+import com.amazonaws.appflow.custom.connector.model.write.WriteRecordResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the client against a private in-memory H2 database.
+ */
+class H2ClientTest {
+  private static final String SECRET_ARN = "arn:aws:secretsmanager:us-east-1:000000000000:secret:h2";
+  private static final ConnectorContext CONTEXT = ImmutableConnectorContext.builder()
+    .apiVersion("v1")
+    .credentials(ImmutableCredentials.builder()
+      .secretArn(SECRET_ARN)
+      .authenticationType(AuthenticationType.CustomAuth)
+      .build())
+    .build();
+
+  private final List<String> preparedStatements = new ArrayList<>();
+  private H2Client client;
+
+  @BeforeEach
+  void createOrders() throws SQLException {
+    // A database per test keeps the pools and cached metadata of the tests apart.
+    String database = "orders_" + UUID.randomUUID().toString().replace("-", "");
+    String url = String.format("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1", database);
+    client = new H2Client(SECRET_ARN, Map.of("driver", "h2", "hostname", "mem", "port", "0",
+      "database", database, "username", "sa", "password", ""),
+      () -> recordStatements(DriverManager.getConnection(url, "sa", "")));
+    try (Connection conn = client.getConnection();
+         Statement st = conn.createStatement()) {
+      st.execute("CREATE TABLE \"orders\" (\"id\" BIGINT PRIMARY KEY, \"status\" VARCHAR(16), "
+        + "\"amount\" DECIMAL(10,2))");
+      st.execute("INSERT INTO \"orders\" VALUES (1, 'new', 10.50), (2, 'paid', 20.00), (3, 'new', 7.25), "
+        + "(4, 'paid', 1.00), (5, 'new', 3.00)");
+    }
+  }
+
+  /**
+   * @return Connection adding the SQL of each statement it prepares to preparedStatements
+   */
+  private Connection recordStatements(final Connection connection) {
+    return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+      (proxy, method, args) -> {
+        if ("prepareStatement".equals(method.getName())) {
+          synchronized (preparedStatements) {
+            preparedStatements.add((String) args[0]);
+          }
+        }
+        try {
+          return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+      });
+  }
+
+  private List<String> readAll(final long pageSize) {
+    List<String> records = new ArrayList<>();
+    String nextToken = null;
+    do {
+      QueryPage page = client.queryData(ImmutableQueryDataRequest.builder()
+        .entityIdentifier("orders")
+        .selectedFieldNames(Arrays.asList("id", "status"))
+        .maxResults(pageSize)
+        .nextToken(nextToken)
+        .connectorContext(CONTEXT)
+        .build());
+      assertTrue(page.getRecords().size() <= pageSize);
+      records.addAll(page.getRecords());
+      nextToken = page.getNextToken();
+    } while (nextToken != null);
+    return records;
+  }
+
+  @Test
+  void testFieldDefinitionsComeFromInformationSchema() throws SQLException {
+    List<FieldDefinition> fields = client.getFieldDefinitions(ImmutableDescribeEntityRequest.builder()
+      .entityIdentifier("orders")
+      .connectorContext(CONTEXT)
+      .build());
+
+    assertEquals(3, fields.size());
+    assertEquals("id", fields.get(0).fieldName());
+    assertEquals(FieldDataType.Long, fields.get(0).dataType());
+    assertTrue(fields.get(0).isPrimaryKey());
+    assertEquals(FieldDataType.String, fields.get(1).dataType());
+    assertEquals(FieldDataType.BigDecimal, fields.get(2).dataType());
+  }
+
+  @Test
+  void testPagesFollowThePrimaryKey() {
+    assertEquals(Arrays.asList(
+      "{\"id\":1,\"status\":\"new\"}",
+      "{\"id\":2,\"status\":\"paid\"}",
+      "{\"id\":3,\"status\":\"new\"}",
+      "{\"id\":4,\"status\":\"paid\"}",
+      "{\"id\":5,\"status\":\"new\"}"), readAll(2));
+  }
+
+  @Test
+  void testFilterIsBoundAsParameters() {
+    ImmutableQueryDataRequest request = ImmutableQueryDataRequest.builder()
+      .entityIdentifier("orders")
+      .selectedFieldNames(List.of("id"))
+      .filterExpression("status = \"new\" AND amount > 5")
+      .maxResults(1L)
+      .connectorContext(CONTEXT)
+      .build();
+    QueryPage first = client.queryData(request);
+    QueryPage second = client.queryData(request.withNextToken(first.getNextToken()));
+
+    assertEquals(List.of("{\"id\":1}", "{\"id\":3}"), List.of(first.getRecords().get(0), second.getRecords().get(0)));
+    assertEquals(2, client.getTotalData(request));
+    assertThrows(IllegalArgumentException.class,
+      () -> client.queryData(request.withFilterExpression("missing = 1")));
+  }
+
+  @Test
+  void testPageSizeCapAndOffsetPagination() {
+    ConnectorContext context = ImmutableConnectorContext.builder()
+      .from(CONTEXT)
+      .connectorRuntimeSettings(Map.of("maxPageSize", "2", "pagination", "OFFSET"))
+      .build();
+    QueryPage page = client.queryData(ImmutableQueryDataRequest.builder()
+      .entityIdentifier("orders")
+      .selectedFieldNames(List.of("id"))
+      .maxResults(100L)
+      .connectorContext(context)
+      .build());
+
+    assertEquals(2, page.getRecords().size());
+    assertEquals(2, PageToken.decode(page.getNextToken()).getOffset());
+  }
+
+  @Test
+  void testPartitionedReadReturnsEveryRowOnce() throws SQLException {
+    try (Connection conn = client.getConnection();
+         Statement st = conn.createStatement()) {
+      st.execute("CREATE TABLE \"events\" (\"id\" BIGINT PRIMARY KEY, \"body\" VARCHAR(200))");
+      // Uneven ranges: most keys fall into the first partitions.
+      st.execute("INSERT INTO \"events\" SELECT X, REPEAT('x', 100) FROM SYSTEM_RANGE(1, 40)");
+      st.execute("INSERT INTO \"events\" SELECT X, REPEAT('x', 100) FROM SYSTEM_RANGE(1000, 1009)");
+    }
+    List<Long> expected = new ArrayList<>();
+    for (long id = 1; id <= 40; id++) {
+      expected.add(id);
+    }
+    for (long id = 1000; id <= 1009; id++) {
+      expected.add(id);
+    }
+
+    // More partitions than the pool has connections are cut down to its size.
+    for (String parallelism : List.of("3", "16")) {
+      List<QueryPage> pages = readEvents(Map.of("parallelism", parallelism), 7);
+      assertTrue(PageToken.decode(pages.get(0).getNextToken()).getPartitions().size()
+        <= Math.min(Integer.parseInt(parallelism), ConnectionPool.DEFAULT_MAX_SIZE));
+      assertTrue(pages.stream().allMatch(page -> page.getRecords().size() <= 7));
+      assertEquals(expected, eventIds(pages));
+    }
+
+    // The byte budget is shared by the partitions: each ends on the row that crosses its share.
+    List<QueryPage> pages = readEvents(Map.of("parallelism", "2", "maxPageBytes", "1024"), 100);
+    int longest = pages.stream().flatMap(page -> page.getRecords().stream()).mapToInt(String::length).max()
+      .orElse(0);
+    for (QueryPage page : pages) {
+      assertTrue(page.getRecords().stream().mapToInt(String::length).sum() <= 1024 + 2 * longest);
+    }
+    assertTrue(pages.size() > 1);
+    assertEquals(expected, eventIds(pages));
+  }
+
+  private List<QueryPage> readEvents(final Map<String, String> settings, final long pageSize) {
+    List<QueryPage> pages = new ArrayList<>();
+    String nextToken = null;
+    do {
+      QueryPage page = client.queryData(ImmutableQueryDataRequest.builder()
+        .entityIdentifier("events")
+        .selectedFieldNames(List.of("id", "body"))
+        .maxResults(pageSize)
+        .nextToken(nextToken)
+        .connectorContext(ImmutableConnectorContext.builder().from(CONTEXT).connectorRuntimeSettings(settings).build())
+        .build());
+      pages.add(page);
+      nextToken = page.getNextToken();
+    } while (nextToken != null);
+    return pages;
+  }
+
+  /**
+   * @return List ids of the records of the pages, sorted but with any duplicates kept
+   */
+  private static List<Long> eventIds(final List<QueryPage> pages) {
+    return pages.stream()
+      .flatMap(page -> page.getRecords().stream())
+      .map(record -> Long.parseLong(record.substring("{\"id\":".length(), record.indexOf(','))))
+      .sorted()
+      .collect(Collectors.toList());
+  }
+
+  @Test
+  void testIncrementalRunsReturnOnlyChangedRows() throws SQLException {
+    try (Connection conn = client.getConnection();
+         Statement st = conn.createStatement()) {
+      st.execute("CREATE TABLE \"tickets\" (\"id\" BIGINT PRIMARY KEY, \"updated_at\" TIMESTAMP)");
+      st.execute("INSERT INTO \"tickets\" VALUES (1, '2024-05-01 10:00:00'), (2, '2024-05-01 10:00:00'), "
+        + "(3, '2024-05-01 10:01:00'), (4, '2024-05-01 10:02:00'), (5, '2024-05-01 10:02:00')");
+    }
+    // Pages of two split the ties on updated_at.
+    assertEquals(List.of(1L, 2L, 3L, 4L, 5L), readTickets());
+
+    try (Connection conn = client.getConnection();
+         Statement st = conn.createStatement()) {
+      // Written after the first run with the same updated_at as its last row.
+      st.execute("INSERT INTO \"tickets\" VALUES (6, '2024-05-01 10:02:00')");
+      st.execute("UPDATE \"tickets\" SET \"updated_at\" = '2024-05-01 10:05:00' WHERE \"id\" = 1");
+      st.execute("INSERT INTO \"tickets\" VALUES (7, '2024-05-01 10:05:00')");
+    }
+    assertEquals(List.of(6L, 1L, 7L), readTickets());
+    assertEquals(List.of(), readTickets());
+  }
+
+  /**
+   * @return List ids of the tickets one incremental run returns, in the order returned
+   */
+  private List<Long> readTickets() {
+    ConnectorContext context = ImmutableConnectorContext.builder()
+      .from(CONTEXT)
+      .connectorRuntimeSettings(Map.of("incrementalField", "updated_at"))
+      .build();
+    List<Long> ids = new ArrayList<>();
+    String nextToken = null;
+    do {
+      QueryPage page = client.queryData(ImmutableQueryDataRequest.builder()
+        .entityIdentifier("tickets")
+        .selectedFieldNames(List.of("id"))
+        .maxResults(2L)
+        .nextToken(nextToken)
+        .connectorContext(context)
+        .build());
+      page.getRecords().forEach(record -> ids.add(Long.parseLong(record.replaceAll("\\D", ""))));
+      nextToken = page.getNextToken();
+    } while (nextToken != null);
+    return ids;
+  }
+
+  @Test
+  void testPagesOfWideRowsEndAtTheByteBudget() throws SQLException {
+    try (Connection conn = client.getConnection();
+         Statement st = conn.createStatement()) {
+      st.execute("CREATE TABLE \"notes\" (\"id\" BIGINT PRIMARY KEY, \"body\" VARCHAR(1000))");
+      st.execute("INSERT INTO \"notes\" SELECT X, REPEAT('x', 600) FROM SYSTEM_RANGE(1, 5)");
+    }
+    ConnectorContext context = ImmutableConnectorContext.builder()
+      .from(CONTEXT)
+      .connectorRuntimeSettings(Map.of("maxPageBytes", "1024"))
+      .build();
+    List<Integer> pageSizes = new ArrayList<>();
+    List<String> records = new ArrayList<>();
+    String nextToken = null;
+    do {
+      QueryPage page = client.queryData(ImmutableQueryDataRequest.builder()
+        .entityIdentifier("notes")
+        .selectedFieldNames(List.of("id", "body"))
+        .maxResults(100L)
+        .nextToken(nextToken)
+        .connectorContext(context)
+        .build());
+      pageSizes.add(page.getRecords().size());
+      records.addAll(page.getRecords());
+      nextToken = page.getNextToken();
+    } while (nextToken != null);
+
+    // The first page ends on the row that crosses the budget, later ones ask only for the row that fits.
+    assertEquals(List.of(2, 1, 1, 1), pageSizes);
+    assertEquals(5, records.stream().distinct().count());
+  }
+
+  @Test
+  void testLargeObjectsAreStreamedTruncatedOrSkipped() throws SQLException {
+    try (Connection conn = client.getConnection();
+         Statement st = conn.createStatement()) {
+      st.execute("CREATE TABLE \"documents\" (\"id\" BIGINT PRIMARY KEY, \"body\" CLOB, \"scan\" BLOB)");
+      st.execute("INSERT INTO \"documents\" VALUES (1, REPEAT('ab', 5000), X'0102030405'), (2, NULL, NULL)");
+    }
+
+    List<String> full = readDocuments(Map.of());
+    assertEquals("{\"id\":1,\"body\":\"" + "ab".repeat(5000) + "\",\"scan\":\"AQIDBAU=\"}", full.get(0));
+    assertEquals("{\"id\":2,\"body\":null,\"scan\":null}", full.get(1));
+
+    assertEquals("{\"id\":1,\"body\":\"aba\",\"scan\":\"AQID\"}",
+      readDocuments(Map.of("lobPolicy", "TRUNCATE", "lobLimit", "3")).get(0));
+    assertEquals("{\"id\":1,\"body\":null,\"scan\":null}", readDocuments(Map.of("lobPolicy", "skip")).get(0));
+    assertThrows(IllegalArgumentException.class, () -> client.queryData(ImmutableQueryDataRequest.builder()
+      .entityIdentifier("documents")
+      .selectedFieldNames(List.of("id", "missing"))
+      .connectorContext(CONTEXT)
+      .build()));
+  }
+
+  private List<String> readDocuments(final Map<String, String> settings) {
+    return client.queryData(ImmutableQueryDataRequest.builder()
+      .entityIdentifier("documents")
+      .selectedFieldNames(List.of("id", "body", "scan"))
+      .maxResults(10L)
+      .connectorContext(ImmutableConnectorContext.builder().from(CONTEXT).connectorRuntimeSettings(settings).build())
+      .build()).getRecords();
+  }
+
+  @Test
+  void testChangeDataCaptureAndBulkLoadAreRejectedWithoutSupport() {
+    assertEquals(Map.of("changeDataCapture", "Not supported by the h2 driver",
+        "bulkLoad", "Not supported by the h2 driver"),
+      client.validateSettings(Map.of("changeDataCapture", "true", "bulkLoad", "true")));
+    assertTrue(client.validateSettings(Map.of("bulkLoad", "false")).isEmpty());
+
+    ConnectorContext changes = ImmutableConnectorContext.builder().from(CONTEXT)
+      .connectorRuntimeSettings(Map.of("changeDataCapture", "true")).build();
+    assertThrows(IllegalArgumentException.class, () -> client.queryData(ImmutableQueryDataRequest.builder()
+      .entityIdentifier("orders")
+      .selectedFieldNames(List.of("id"))
+      .connectorContext(changes)
+      .build()));
+    ConnectorContext bulkLoad = ImmutableConnectorContext.builder().from(CONTEXT)
+      .connectorRuntimeSettings(Map.of("bulkLoad", "true")).build();
+    assertThrows(IllegalArgumentException.class, () -> client.writeData(ImmutableWriteDataRequest.builder()
+      .entityIdentifier("orders")
+      .operation(WriteOperationType.INSERT)
+      .records(List.of("{\"id\":\"7\"}"))
+      .connectorContext(bulkLoad)
+      .build()));
+  }
+
+  @Test
+  void testUpsertMergesOnPrimaryKey() throws SQLException {
+    client.writeData(ImmutableWriteDataRequest.builder()
+      .entityIdentifier("orders")
+      .operation(WriteOperationType.UPSERT)
+      .records(Arrays.asList(
+        "{\"id\":\"2\",\"status\":\"refunded\",\"amount\":\"20.00\"}",
+        "{\"id\":\"6\",\"status\":\"new\",\"amount\":\"4.00\"}"))
+      .connectorContext(CONTEXT)
+      .build());
+
+    List<String> records = readAll(10);
+    assertEquals(6, records.size());
+    assertEquals("{\"id\":2,\"status\":\"refunded\"}", records.get(1));
+    assertEquals("{\"id\":6,\"status\":\"new\"}", records.get(5));
+  }
+
+  @Test
+  void testUpsertWithoutIdsOrPrimaryKeyIsRejected() throws SQLException {
+    try (Connection conn = client.getConnection();
+         Statement st = conn.createStatement()) {
+      st.execute("CREATE TABLE \"audit\" (\"id\" BIGINT, \"action\" VARCHAR(16))");
+    }
+
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+      () -> client.writeData(ImmutableWriteDataRequest.builder()
+        .entityIdentifier("audit")
+        .operation(WriteOperationType.UPSERT)
+        .records(List.of("{\"id\":\"1\",\"action\":\"login\"}"))
+        .connectorContext(CONTEXT)
+        .build()));
+
+    assertTrue(e.getMessage().contains("Id fields are required"));
+    assertTrue(preparedStatements.stream().noneMatch(sql -> sql.startsWith("INSERT")));
+  }
+
+  @Test
+  void testLargeUpdateMatchesCompositeIdsThroughStagingTable() throws SQLException {
+    List<String> records = new ArrayList<>();
+    for (int id = 1; id <= 60; id++) {
+      records.add(String.format("{\"id\":\"%d\",\"status\":\"new\",\"amount\":\"99.00\"}", id));
+    }
+    client.writeData(ImmutableWriteDataRequest.builder()
+      .entityIdentifier("orders")
+      .idFieldNames(Arrays.asList("id", "status"))
+      .operation(WriteOperationType.UPDATE)
+      .records(records)
+      .connectorContext(CONTEXT)
+      .build());
+
+    List<String> amounts = new ArrayList<>();
+    try (Connection conn = client.getConnection();
+         Statement st = conn.createStatement();
+         ResultSet rs = st.executeQuery("SELECT \"amount\" FROM \"orders\" ORDER BY \"id\"")) {
+      while (rs.next()) {
+        amounts.add(rs.getBigDecimal(1).toPlainString());
+      }
+    }
+    assertEquals(Arrays.asList("99.00", "20.00", "99.00", "1.00", "99.00"), amounts);
+  }
+
+  /**
+   * @return boolean whether an update of {@code count} records went through the staging table
+   */
+  private boolean updateIsStaged(final int count, final Map<String, String> settings) throws SQLException {
+    List<String> records = new ArrayList<>();
+    for (int id = 1; id <= count; id++) {
+      records.add(String.format("{\"id\":\"%d\",\"amount\":\"99.00\"}", id));
+    }
+    preparedStatements.clear();
+    List<WriteRecordResult> results = client.writeData(ImmutableWriteDataRequest.builder()
+      .entityIdentifier("orders")
+      .idFieldNames(List.of("id"))
+      .operation(WriteOperationType.UPDATE)
+      .records(records)
+      .connectorContext(ImmutableConnectorContext.builder().from(CONTEXT).connectorRuntimeSettings(settings).build())
+      .build());
+    assertTrue(results.stream().allMatch(WriteRecordResult::isSuccess), results.toString());
+    return preparedStatements.stream().anyMatch(sql -> sql.contains("appflow_update_staging"));
+  }
+
+  @Test
+  void testUpdatesAreStagedFromTheBulkUpdateRows() throws SQLException {
+    assertFalse(updateIsStaged(49, Map.of()));
+    assertTrue(updateIsStaged(50, Map.of()));
+    assertFalse(updateIsStaged(4, Map.of("bulkUpdateRows", "5")));
+    assertTrue(updateIsStaged(5, Map.of("bulkUpdateRows", "5")));
+  }
+
+  @Test
+  void testOnlyFailingRecordsOfAStatementFail() throws SQLException {
+    List<WriteRecordResult> results = client.writeData(ImmutableWriteDataRequest.builder()
+      .entityIdentifier("orders")
+      .idFieldNames(List.of("id"))
+      .operation(WriteOperationType.INSERT)
+      .records(Arrays.asList(
+        "{\"id\":\"6\",\"status\":\"new\",\"amount\":\"6.00\"}",
+        "{\"id\":\"3\",\"status\":\"new\",\"amount\":\"3.00\"}",
+        "{\"id\":\"7\",\"status\":\"new\",\"amount\":\"7.00\"}",
+        "{\"id\":",
+        "{\"id\":\"8\",\"status\":\"new\",\"amount\":\"8.00\"}"))
+      .connectorContext(CONTEXT)
+      .build());
+
+    assertEquals(Arrays.asList(true, false, true, false, true),
+      results.stream().map(WriteRecordResult::isSuccess).collect(Collectors.toList()));
+    assertEquals("3", results.get(1).recordId());
+    assertNotNull(results.get(1).errorMessage());
+    assertEquals(8, readAll(10).size());
+  }
+
+  @Test
+  void testAllOrNoneWritesNothingWhenARecordFails() throws SQLException {
+    List<WriteRecordResult> results = client.writeData(ImmutableWriteDataRequest.builder()
+      .entityIdentifier("orders")
+      .idFieldNames(List.of("id"))
+      .operation(WriteOperationType.INSERT)
+      .allOrNone(true)
+      .records(Arrays.asList(
+        "{\"id\":\"6\",\"status\":\"new\",\"amount\":\"6.00\"}",
+        "{\"id\":\"3\",\"status\":\"new\",\"amount\":\"3.00\"}"))
+      .connectorContext(CONTEXT)
+      .build());
+
+    assertTrue(results.stream().noneMatch(WriteRecordResult::isSuccess));
+    assertEquals(5, readAll(10).size());
+  }
+
+  @Test
+  void testInsertsAreChunkedAtTheWriteBatchSize() throws SQLException {
+    // Records one short of, exactly and one over the batch size of 3.
+    int id = 10;
+    for (int count = 2; count <= 4; count++) {
+      List<String> records = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        records.add(String.format("{\"id\":\"%d\",\"status\":\"new\",\"amount\":\"1.00\"}", id++));
+      }
+      preparedStatements.clear();
+      List<WriteRecordResult> results = insert(records, "3");
+
+      assertTrue(results.stream().allMatch(WriteRecordResult::isSuccess));
+      List<Integer> rowsPerStatement = preparedStatements.stream()
+        .filter(sql -> sql.startsWith("INSERT"))
+        .map(sql -> sql.split("\\(\\?", -1).length - 1)
+        .collect(Collectors.toList());
+      assertEquals(count == 4 ? List.of(3, 1) : List.of(count), rowsPerStatement);
+    }
+    assertEquals(14, readAll(100).size());
+  }
+
+  @Test
+  void testResultsOfChunkedInsertsStayInRecordOrder() throws SQLException {
+    // The duplicate of id 1 opens the second statement, the malformed record is never sent.
+    List<WriteRecordResult> results = insert(Arrays.asList(
+      "{\"id\":\"10\",\"status\":\"new\",\"amount\":\"1.00\"}",
+      "{\"id\":\"11\",\"status\":\"new\",\"amount\":\"1.00\"}",
+      "{\"id\":",
+      "{\"id\":\"12\",\"status\":\"new\",\"amount\":\"1.00\"}",
+      "{\"id\":\"1\",\"status\":\"new\",\"amount\":\"1.00\"}",
+      "{\"id\":\"13\",\"status\":\"new\",\"amount\":\"1.00\"}"), "3");
+
+    assertEquals(Arrays.asList(true, true, false, true, false, true),
+      results.stream().map(WriteRecordResult::isSuccess).collect(Collectors.toList()));
+    assertEquals(Arrays.asList("10", "11", null, "12", "1", "13"),
+      results.stream().map(WriteRecordResult::recordId).collect(Collectors.toList()));
+    assertEquals(9, readAll(100).size());
+  }
+
+  private List<WriteRecordResult> insert(final List<String> records, final String writeBatchSize)
+    throws SQLException {
+    return client.writeData(ImmutableWriteDataRequest.builder()
+      .entityIdentifier("orders")
+      .idFieldNames(List.of("id"))
+      .operation(WriteOperationType.INSERT)
+      .records(records)
+      .connectorContext(ImmutableConnectorContext.builder()
+        .from(CONTEXT)
+        .connectorRuntimeSettings(Map.of("writeBatchSize", writeBatchSize))
+        .build())
+      .build());
+  }
+}
@@ -0,0 +1,39 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * H2, to run the connector against an embedded database in the tests and benchmarks. A hostname of {@code mem} opens
+ * a private in-memory database, any other connects to an H2 server.
+ */
+final class H2Dialect implements SqlDialect {
+
+  @Override
+  public String driverClassName() {
+    return "org.h2.Driver";
+  }
+
+  @Override
+  public String jdbcUrl(final Map<String, String> credentials) {
+    if ("mem".equals(credentials.get("hostname"))) {
+      return String.format("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1", credentials.get("database"));
+    }
+    return String.format("jdbc:h2:tcp://%s:%s/%s",
+      credentials.get("hostname"), credentials.get("port"), credentials.get("database"));
+  }
+
+  @Override
+  public String[] tableTypes() {
+    return new String[] {"BASE TABLE"};
+  }
+
+  @Override
+  public String upsert(final String table, final List<String> columns, final List<String> keys, final int rows) {
+    return String.format("MERGE INTO %s (%s) KEY (%s) VALUES %s", quote(table), quoteAll(columns), quoteAll(keys),
+      SqlDialect.tuples(columns, rows));
+  }
+}
@@ -0,0 +1,64 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetadataCacheTest {
+  private static final List<String> KEY = Arrays.asList("arn", "hr", "employees");
+
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicInteger fingerprints = new AtomicInteger();
+  private final AtomicInteger loads = new AtomicInteger();
+  private final MetadataCache<String> cache = new MetadataCache<>(Duration.ofSeconds(60), clock::get);
+  private String checksum = "5:1234";
+
+  private String get() throws SQLException {
+    return cache.get(KEY,
+      () -> {
+        fingerprints.incrementAndGet();
+        return checksum;
+      },
+      () -> "definition-" + loads.incrementAndGet());
+  }
+
+  @Test
+  void testEntryIsServedWithinTtl() throws SQLException {
+    get();
+    clock.set(Duration.ofSeconds(59).toNanos());
+
+    assertEquals("definition-1", get());
+    assertEquals(1, fingerprints.get());
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void testUnchangedSchemaIsRevalidated() throws SQLException {
+    get();
+    clock.set(Duration.ofSeconds(61).toNanos());
+
+    assertEquals("definition-1", get());
+    assertEquals(2, fingerprints.get());
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void testChangedSchemaIsReloaded() throws SQLException {
+    get();
+    checksum = "6:5678";
+    clock.set(Duration.ofSeconds(61).toNanos());
+
+    assertEquals("definition-2", get());
+    assertEquals(2, loads.get());
+  }
+}
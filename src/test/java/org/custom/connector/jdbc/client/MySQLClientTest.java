@@ -0,0 +1,205 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.ConnectorContext;
+import com.amazonaws.appflow.custom.connector.model.ImmutableConnectorContext;
+import com.amazonaws.appflow.custom.connector.model.credentials.AuthenticationType;
+import com.amazonaws.appflow.custom.connector.model.credentials.ImmutableCredentials;
+import com.amazonaws.appflow.custom.connector.model.query.ImmutableQueryDataRequest;
+import com.amazonaws.appflow.custom.connector.model.query.QueryDataRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.RuntimeProperty;
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.mysql.cj.jdbc.JdbcPropertySet;
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the client against mocked connections, for the paths that need a MySQL server.
+ */
+class MySQLClientTest {
+  private static final String SECRET_ARN = "arn:aws:secretsmanager:us-east-1:000000000000:secret:mysql";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final AtomicInteger connectionsOpened = new AtomicInteger();
+  private MySQLClient client;
+
+  @BeforeEach
+  void createClient() throws SQLException {
+    // A database per test keeps the pools and checkpoints of the tests apart.
+    String database = "shop_" + UUID.randomUUID().toString().replace("-", "");
+    Connection conn = mockBinlogServer();
+    client = new MySQLClient(SECRET_ARN, Map.of("driver", "mysql", "hostname", "localhost", "port", "3306",
+      "database", database, "username", "admin", "password", ""), () -> {
+        connectionsOpened.incrementAndGet();
+        return conn;
+      });
+  }
+
+  private static Connection mockBinlogServer() throws SQLException {
+    Connection conn = Mockito.mock(Connection.class);
+    DatabaseMetaData metaData = Mockito.mock(DatabaseMetaData.class);
+    Mockito.when(metaData.getDatabaseMajorVersion()).thenReturn(8);
+    Mockito.when(metaData.getDatabaseMinorVersion()).thenReturn(0);
+    Mockito.when(conn.getMetaData()).thenReturn(metaData);
+    Mockito.when(conn.isValid(Mockito.anyInt())).thenReturn(true);
+    Statement st = Mockito.mock(Statement.class);
+    Mockito.when(conn.createStatement()).thenReturn(st);
+    Mockito.when(st.executeQuery("SHOW MASTER STATUS")).thenAnswer(invocation -> {
+      ResultSet rs = Mockito.mock(ResultSet.class);
+      Mockito.when(rs.next()).thenReturn(true, false);
+      Mockito.when(rs.getString("File")).thenReturn("mysql-bin.000003");
+      Mockito.when(rs.getLong("Position")).thenReturn(154L);
+      return rs;
+    });
+    return conn;
+  }
+
+  private static QueryDataRequest changes(final String binlogStart) {
+    Map<String, String> settings = new HashMap<>();
+    settings.put("changeDataCapture", "true");
+    if (binlogStart != null) {
+      settings.put("binlogStart", binlogStart);
+    }
+    ConnectorContext context = ImmutableConnectorContext.builder()
+      .apiVersion("v1")
+      .credentials(ImmutableCredentials.builder()
+        .secretArn(SECRET_ARN)
+        .authenticationType(AuthenticationType.CustomAuth)
+        .build())
+      .connectorRuntimeSettings(settings)
+      .build();
+    return ImmutableQueryDataRequest.builder()
+      .entityIdentifier("orders")
+      .selectedFieldNames(List.of("id", "status"))
+      .maxResults(100L)
+      .connectorContext(context)
+      .build();
+  }
+
+  @Test
+  void testChangesWithoutCheckpointOrStartFail() {
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> client.queryData(changes(null)));
+
+    assertTrue(e.getMessage().contains("binlogStart"));
+    assertEquals(0, connectionsOpened.get());
+  }
+
+  @Test
+  void testCurrentStartRecordsACheckpointForTheNextRun() {
+    QueryPage first = client.queryData(changes("CURRENT"));
+
+    assertEquals(List.of(), first.getRecords());
+    assertNull(first.getNextToken());
+
+    QueryPage second = client.queryData(changes(null));
+
+    assertEquals(List.of(), second.getRecords());
+    assertNull(second.getNextToken());
+  }
+
+  /**
+   * Connection whose LOAD DATA statement reads the whole file it is given, then reports the update count and warning.
+   *
+   * @param loaded  TSV sent to the server
+   * @param allowed values allowLoadLocalInfile is set to
+   */
+  private static Connection mockBulkLoad(final int updateCount, final SQLWarning warning,
+                                         final List<String> loaded, final List<Boolean> allowed) throws SQLException {
+    RuntimeProperty<Boolean> allowLocalInfile = Mockito.mock(RuntimeProperty.class);
+    Mockito.doAnswer(invocation -> allowed.add(invocation.getArgument(0)))
+      .when(allowLocalInfile).setValue(Mockito.anyBoolean());
+    JdbcPropertySet properties = Mockito.mock(JdbcPropertySet.class);
+    Mockito.when(properties.getBooleanProperty(PropertyKey.allowLoadLocalInfile)).thenReturn(allowLocalInfile);
+    JdbcConnection jdbcConnection = Mockito.mock(JdbcConnection.class);
+    Mockito.when(jdbcConnection.getPropertySet()).thenReturn(properties);
+    Connection conn = Mockito.mock(Connection.class);
+    Mockito.when(conn.unwrap(JdbcConnection.class)).thenReturn(jdbcConnection);
+
+    AtomicReference<InputStream> file = new AtomicReference<>();
+    JdbcStatement jdbcStatement = Mockito.mock(JdbcStatement.class);
+    Mockito.doAnswer(invocation -> {
+      file.set(invocation.getArgument(0));
+      return null;
+    }).when(jdbcStatement).setLocalInfileInputStream(Mockito.any());
+    Statement st = Mockito.mock(Statement.class);
+    Mockito.when(st.unwrap(JdbcStatement.class)).thenReturn(jdbcStatement);
+    Mockito.when(st.execute(Mockito.startsWith("LOAD DATA LOCAL INFILE"))).thenAnswer(invocation -> {
+      loaded.add(new String(file.get().readAllBytes(), StandardCharsets.UTF_8));
+      return false;
+    });
+    Mockito.when(st.getUpdateCount()).thenReturn(updateCount);
+    Mockito.when(st.getWarnings()).thenReturn(warning);
+    Mockito.when(conn.createStatement()).thenReturn(st);
+    return conn;
+  }
+
+  private static List<JsonNode> orders() throws Exception {
+    return List.of(MAPPER.readTree("{\"id\":1,\"status\":\"new\"}"),
+      MAPPER.readTree("{\"id\":2,\"status\":\"paid\"}"));
+  }
+
+  @Test
+  void testBulkInsertStreamsTheRowsAsTsv() throws Exception {
+    List<String> loaded = new ArrayList<>();
+    List<Boolean> allowed = new ArrayList<>();
+    Connection conn = mockBulkLoad(2, null, loaded, allowed);
+
+    client.bulkInsert(conn, "orders", List.of("id", "status"), List.of(0, 1), orders());
+
+    assertEquals(List.of("1\tnew\n2\tpaid\n"), loaded);
+    assertEquals(List.of(true, false), allowed);
+  }
+
+  @Test
+  void testBulkInsertFailsWhenRowsAreSkipped() throws Exception {
+    List<Boolean> allowed = new ArrayList<>();
+    Connection conn = mockBulkLoad(1, new SQLWarning("Duplicate entry '1' for key 'orders.PRIMARY'"),
+      new ArrayList<>(), allowed);
+
+    SQLException e = assertThrows(SQLException.class,
+      () -> client.bulkInsert(conn, "orders", List.of("id", "status"), List.of(0, 1), orders()));
+
+    assertEquals("Loaded 1 of 2 rows: Duplicate entry '1' for key 'orders.PRIMARY'", e.getMessage());
+    assertFalse(allowed.get(allowed.size() - 1));
+  }
+
+  @Test
+  void testBulkInsertFailsOnConversionWarnings() throws Exception {
+    Connection conn = mockBulkLoad(2, new SQLWarning("Data truncated for column 'status' at row 2"),
+      new ArrayList<>(), new ArrayList<>());
+
+    SQLException e = assertThrows(SQLException.class,
+      () -> client.bulkInsert(conn, "orders", List.of("id", "status"), List.of(0, 1), orders()));
+
+    assertEquals("Loaded 2 of 2 rows: Data truncated for column 'status' at row 2", e.getMessage());
+  }
+}
@@ -0,0 +1,65 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MySQLDialectTest {
+  private final SqlDialect dialect = new MySQLDialect();
+
+  @Test
+  void testUpsertUpdatesColumnsOutsideTheKey() {
+    assertEquals("INSERT INTO `orders` (`id`, `status`, `amount`) VALUES (?, ?, ?), (?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE `status` = VALUES(`status`), `amount` = VALUES(`amount`)",
+      dialect.upsert("orders", Arrays.asList("id", "status", "amount"), List.of("id"), 2));
+    assertEquals("INSERT INTO `order_lines` (`order_id`, `line`, `qty`) VALUES (?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE `qty` = VALUES(`qty`)",
+      dialect.upsert("order_lines", Arrays.asList("order_id", "line", "qty"), Arrays.asList("order_id", "line"), 1));
+  }
+
+  @Test
+  void testKeyOnlyUpsertLeavesConflictingRowsAsTheyAre() {
+    assertEquals("INSERT INTO `orders` (`id`) VALUES (?) ON DUPLICATE KEY UPDATE `id` = `id`",
+      dialect.upsert("orders", List.of("id"), List.of("id"), 1));
+  }
+
+  @Test
+  void testQuoteEscapesBackticks() {
+    assertEquals("`odd``name`", dialect.quote("odd`name"));
+  }
+
+  @Test
+  void testReadsStreamRowByRowUnlessAFetchSizeIsSet() throws SQLException {
+    Statement streamed = Mockito.mock(Statement.class);
+    Mockito.when(streamed.isWrapperFor(JdbcStatement.class)).thenReturn(true);
+    dialect.streamResults(null, streamed, null);
+    Mockito.verify(streamed).setFetchSize(Integer.MIN_VALUE);
+
+    Statement cursor = Mockito.mock(Statement.class);
+    Mockito.when(cursor.isWrapperFor(JdbcStatement.class)).thenReturn(true);
+    dialect.streamResults(null, cursor, 500);
+    Mockito.verify(cursor).setFetchSize(500);
+    assertTrue(dialect.jdbcUrl(Map.of("hostname", "db", "port", "3306", "database", "shop"))
+      .contains("useCursorFetch=true"));
+  }
+
+  @Test
+  void testAccessDeniedIsAnAuthenticationFailure() {
+    assertTrue(dialect.isAuthenticationFailure(
+      new SQLException("Access denied for user 'appflow'@'10.0.0.1' (using password: YES)", "28000", 1045)));
+    assertFalse(dialect.isAuthenticationFailure(new SQLException("Communications link failure", "08S01")));
+  }
+}
@@ -0,0 +1,113 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.ImmutableConnectorContext;
+import com.amazonaws.appflow.custom.connector.model.credentials.AuthenticationType;
+import com.amazonaws.appflow.custom.connector.model.credentials.ImmutableCredentials;
+import com.amazonaws.appflow.custom.connector.model.query.ImmutableQueryDataRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PageCacheTest {
+  private static final ImmutableConnectorContext CONTEXT = ImmutableConnectorContext.builder()
+    .apiVersion("v1")
+    .credentials(ImmutableCredentials.builder()
+      .secretArn("arn")
+      .authenticationType(AuthenticationType.CustomAuth)
+      .build())
+    .build();
+  private static final ImmutableQueryDataRequest ORDERS = ImmutableQueryDataRequest.builder()
+    .entityIdentifier("orders")
+    .selectedFieldNames(List.of("id"))
+    .maxResults(1L)
+    .connectorContext(CONTEXT)
+    .build();
+
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void testRepeatedPageIsServedUntilItExpires() throws SQLException {
+    PageCache cache = new PageCache(1024, Duration.ofSeconds(60), null, 0, clock::get);
+
+    assertEquals("0", cache.get(ORDERS, this::load).getNextToken());
+    assertEquals("0", cache.get(ORDERS, this::load).getNextToken());
+    assertEquals("1", cache.get(ORDERS.withNextToken("0"), this::load).getNextToken());
+    assertEquals(2, loads.get());
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+    assertEquals("2", cache.get(ORDERS, this::load).getNextToken());
+  }
+
+  @Test
+  void testWriteDropsPagesOfTheEntity() throws SQLException {
+    PageCache cache = new PageCache(1024, Duration.ofSeconds(60), null, 0, clock::get);
+    cache.get(ORDERS, this::load);
+    cache.get(ORDERS.withEntityIdentifier("customers"), this::load);
+
+    cache.invalidate("arn", "orders");
+
+    assertEquals("2", cache.get(ORDERS, this::load).getNextToken());
+    assertEquals("1", cache.get(ORDERS.withEntityIdentifier("customers"), this::load).getNextToken());
+  }
+
+  @Test
+  void testPageReadDuringWriteIsNotCached() throws SQLException {
+    PageCache cache = new PageCache(1024, Duration.ofSeconds(60), null, 0, clock::get);
+    cache.get(ORDERS, () -> {
+      cache.invalidate("arn", "orders");
+      return load();
+    });
+
+    assertEquals("1", cache.get(ORDERS, this::load).getNextToken());
+  }
+
+  @Test
+  void testEvictedPagesSpillToDisk(@TempDir final Path dir) throws SQLException {
+    // Room for one page in memory and two on disk.
+    PageCache cache = new PageCache(20, Duration.ofSeconds(60), dir, 40, clock::get);
+    for (int page = 0; page < 4; page++) {
+      cache.get(ORDERS.withNextToken("p" + page), this::load);
+    }
+    assertEquals(18, cache.getBytes());
+    assertEquals(36, cache.getSpillBytes());
+
+    // The next two pages are read back from disk, the oldest was dropped.
+    assertEquals("1", cache.get(ORDERS.withNextToken("p1"), this::load).getNextToken());
+    assertEquals(List.of("{\"id\":2}"), cache.get(ORDERS.withNextToken("p2"), this::load).getRecords());
+    assertEquals("4", cache.get(ORDERS.withNextToken("p0"), this::load).getNextToken());
+    assertEquals(5, loads.get());
+  }
+
+  @Test
+  void testIncrementalReadsAreNotCached() throws SQLException {
+    PageCache cache = new PageCache(1024, Duration.ofSeconds(60), null, 0, clock::get);
+    ImmutableQueryDataRequest incremental = ORDERS.withConnectorContext(
+      CONTEXT.withConnectorRuntimeSettings(Map.of("incrementalField", "updated_at")));
+    cache.get(incremental, this::load);
+    cache.get(incremental, this::load);
+
+    assertEquals(2, loads.get());
+  }
+
+  /**
+   * @return QueryPage numbered by the loads so far, 18 bytes in size
+   */
+  private QueryPage load() {
+    int load = loads.getAndIncrement();
+    return new QueryPage(List.of("{\"id\":" + load + "}"), String.valueOf(load));
+  }
+}
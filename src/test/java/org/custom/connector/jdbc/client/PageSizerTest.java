@@ -0,0 +1,31 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PageSizerTest {
+  @Test
+  void testRecordsAreMeasuredAsEscapedUtf8() {
+    // {"id":1} is escaped to "{\"id\":1}," in the response.
+    assertEquals(13, PageSizer.responseBytes("{\"id\":1}"));
+    assertEquals(3 + 2 + 3 + 4, PageSizer.responseBytes("\u00e9\u20ac\ud83d\ude00"));
+    assertEquals(3 + 3 + 6, PageSizer.responseBytes("\\n\u0001"));
+  }
+
+  @Test
+  void testRowsFitTheBudgetInBytes() {
+    PageSizer sizer = new PageSizer();
+    assertNull(sizer.rows(1000));
+
+    // 100 characters of two bytes each, plus the quotes and separator.
+    sizer.measured(List.of("\u00e9".repeat(100)));
+    assertEquals(4, sizer.rows(1000));
+  }
+}
@@ -0,0 +1,72 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageTokenTest {
+  @Test
+  void testKeysetTokenRoundTrip() {
+    PageToken token = PageToken.decode(PageToken.keyset(Arrays.asList("42", "o'brien")).encode());
+
+    assertTrue(token.isKeyset());
+    assertEquals(Arrays.asList("42", "o'brien"), token.getKey());
+  }
+
+  @Test
+  void testOffsetTokenRoundTrip() {
+    PageToken token = PageToken.decode(PageToken.offset(3000).encode());
+
+    assertFalse(token.isKeyset());
+    assertEquals(3000, token.getOffset());
+  }
+
+  @Test
+  void testPartitionedTokenRoundTrip() {
+    PageToken token = PageToken.decode(PageToken.partitioned("id", Arrays.asList(
+      new PageToken.Partition(1, 500, 120L),
+      new PageToken.Partition(501, 1000, null))).encode());
+
+    assertTrue(token.isPartitioned());
+    assertEquals("id", token.getPartitionColumn());
+    assertEquals(2, token.getPartitions().size());
+    assertEquals(120L, token.getPartitions().get(0).getAfter());
+    assertEquals(501, token.getPartitions().get(1).getLow());
+    assertNull(token.getPartitions().get(1).getAfter());
+  }
+
+  @Test
+  void testIncrementalTokenRoundTrip() {
+    PageToken token = PageToken.decode(PageToken.incremental("2024-05-01 10:00:00",
+      Arrays.asList("2024-04-30 08:15:00", "17")).encode());
+
+    assertTrue(token.isIncremental());
+    assertFalse(token.isKeyset());
+    assertFalse(token.isFirst());
+    assertEquals("2024-05-01 10:00:00", token.getWatermarkHigh());
+    assertEquals(Arrays.asList("2024-04-30 08:15:00", "17"), token.getKey());
+  }
+
+  @Test
+  void testLegacyNumericTokenIsOffset() {
+    PageToken token = PageToken.decode("2000");
+
+    assertFalse(token.isKeyset());
+    assertEquals(2000, token.getOffset());
+    assertTrue(PageToken.decode(null).isFirst());
+  }
+
+  @Test
+  void testInvalidToken() {
+    assertThrows(IllegalArgumentException.class, () -> PageToken.decode("not a token!"));
+  }
+}
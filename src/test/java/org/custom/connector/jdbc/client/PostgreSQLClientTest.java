@@ -0,0 +1,238 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.ConnectorContext;
+import com.amazonaws.appflow.custom.connector.model.ImmutableConnectorContext;
+import com.amazonaws.appflow.custom.connector.model.credentials.AuthenticationType;
+import com.amazonaws.appflow.custom.connector.model.credentials.ImmutableCredentials;
+import com.amazonaws.appflow.custom.connector.model.query.ImmutableQueryDataRequest;
+import com.amazonaws.appflow.custom.connector.model.write.ImmutableWriteDataRequest;
+import com.amazonaws.appflow.custom.connector.model.write.WriteOperationType;
+import com.amazonaws.appflow.custom.connector.model.write.WriteRecordResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the PostgreSQL client against a private in-memory H2 database in PostgreSQL mode. H2 does not parse
+ * {@code ON CONFLICT}, and ignores the driver's string typing, so upserts and the binding of strings to typed columns
+ * are run against a real server instead, when PGHOST and the other libpq variables name one.
+ */
+class PostgreSQLClientTest {
+  private static final String SECRET_ARN = "arn:aws:secretsmanager:us-east-1:000000000000:secret:postgresql";
+  private static final ConnectorContext CONTEXT = ImmutableConnectorContext.builder()
+    .apiVersion("v1")
+    .credentials(ImmutableCredentials.builder()
+      .secretArn(SECRET_ARN)
+      .authenticationType(AuthenticationType.CustomAuth)
+      .build())
+    .build();
+
+  // SQL of every statement run, with, for queries, the connection's autocommit and the statement's fetch size.
+  private final List<String> statements = new ArrayList<>();
+  private PostgreSQLClient client;
+
+  @BeforeEach
+  void createOrders() throws SQLException {
+    // A database per test keeps the pools and cached metadata of the tests apart.
+    String database = "orders_" + UUID.randomUUID().toString().replace("-", "");
+    String url = String.format("jdbc:h2:mem:%s;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;"
+      + "DB_CLOSE_DELAY=-1", database);
+    client = new PostgreSQLClient(SECRET_ARN, Map.of("driver", "postgresql", "hostname", "localhost", "port", "5432",
+      "database", database, "username", "sa", "password", ""),
+      () -> recordStatements(DriverManager.getConnection(url, "sa", "")));
+    try (Connection conn = client.getConnection();
+         Statement st = conn.createStatement()) {
+      st.execute("CREATE TABLE \"orders\" (\"id\" BIGINT PRIMARY KEY, \"status\" VARCHAR(16), "
+        + "\"amount\" DECIMAL(10,2))");
+      st.execute("INSERT INTO \"orders\" VALUES (1, 'new', 10.50), (2, 'paid', 20.00), (3, 'new', 7.25), "
+        + "(4, 'paid', 1.00), (5, 'new', 3.00)");
+    }
+    statements.clear();
+  }
+
+  /**
+   * @return Connection adding the SQL of each statement it runs to statements
+   */
+  private Connection recordStatements(final Connection connection) {
+    return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+      (proxy, method, args) -> {
+        Object result = invoke(connection, method, args);
+        if (result instanceof PreparedStatement) {
+          return recordQuery(connection, (PreparedStatement) result, (String) args[0]);
+        }
+        if (result instanceof Statement) {
+          return recordUpdates((Statement) result);
+        }
+        return result;
+      });
+  }
+
+  private PreparedStatement recordQuery(final Connection connection, final PreparedStatement statement,
+                                        final String sql) {
+    return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+      new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+        if ("executeQuery".equals(method.getName())) {
+          statements.add(String.format("%s [autocommit=%s, fetchSize=%d]", sql, connection.getAutoCommit(),
+            statement.getFetchSize()));
+        } else if (method.getName().startsWith("execute")) {
+          statements.add(sql);
+        }
+        return invoke(statement, method, args);
+      });
+  }
+
+  private Statement recordUpdates(final Statement statement) {
+    return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class},
+      (proxy, method, args) -> {
+        if (method.getName().startsWith("execute") && args != null && args[0] instanceof String) {
+          statements.add((String) args[0]);
+        }
+        return invoke(statement, method, args);
+      });
+  }
+
+  private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private List<String> readAll(final PostgreSQLClient reader, final String entity, final Map<String, String> settings) {
+    List<String> records = new ArrayList<>();
+    String nextToken = null;
+    do {
+      QueryPage page = reader.queryData(ImmutableQueryDataRequest.builder()
+        .entityIdentifier(entity)
+        .selectedFieldNames(List.of("id", "status", "amount"))
+        .maxResults(2L)
+        .nextToken(nextToken)
+        .connectorContext(ImmutableConnectorContext.builder().from(CONTEXT).connectorRuntimeSettings(settings).build())
+        .build());
+      records.addAll(page.getRecords());
+      nextToken = page.getNextToken();
+    } while (nextToken != null);
+    return records;
+  }
+
+  private static List<WriteRecordResult> write(final PostgreSQLClient writer, final String entity,
+                                               final WriteOperationType operation, final List<String> idFields,
+                                               final List<String> records) throws SQLException {
+    return writer.writeData(ImmutableWriteDataRequest.builder()
+      .entityIdentifier(entity)
+      .operation(operation)
+      .idFieldNames(idFields)
+      .records(records)
+      .connectorContext(CONTEXT)
+      .build());
+  }
+
+  private static List<String> amounts(final Connection conn, final String entity) throws SQLException {
+    List<String> amounts = new ArrayList<>();
+    try (Statement st = conn.createStatement();
+         ResultSet rs = st.executeQuery(String.format("SELECT \"amount\" FROM \"%s\" ORDER BY \"id\"", entity))) {
+      while (rs.next()) {
+        amounts.add(rs.getBigDecimal(1).toPlainString());
+      }
+    }
+    return amounts;
+  }
+
+  @Test
+  void testReadsStreamInATransactionThatEndsWithTheRead() throws SQLException {
+    List<String> records = readAll(client, "orders", Map.of("fetchSize", "2"));
+
+    assertEquals(5, records.size());
+    assertEquals("{\"id\":1,\"status\":\"new\",\"amount\":10.50}", records.get(0));
+    List<String> reads = new ArrayList<>();
+    for (String statement : statements) {
+      if (statement.startsWith("SELECT \"id\", \"status\", \"amount\" FROM \"orders\"")) {
+        reads.add(statement.substring(statement.indexOf('[')));
+      }
+    }
+    assertEquals(List.of("[autocommit=false, fetchSize=2]", "[autocommit=false, fetchSize=2]",
+      "[autocommit=false, fetchSize=2]"), reads);
+    try (Connection conn = client.getConnection()) {
+      assertTrue(conn.getAutoCommit());
+    }
+  }
+
+  @Test
+  void testLargeUpdateRunsFromTheStagingTable() throws SQLException {
+    List<String> records = new ArrayList<>();
+    for (int id = 1; id <= 60; id++) {
+      records.add(String.format("{\"id\":\"%d\",\"amount\":\"99.00\"}", id));
+    }
+
+    write(client, "orders", WriteOperationType.UPDATE, List.of("id"), records);
+
+    assertTrue(statements.contains("UPDATE \"orders\" t SET \"amount\" = s.\"amount\" "
+      + "FROM \"appflow_update_staging\" s WHERE t.\"id\" = s.\"id\""), statements.toString());
+    try (Connection conn = client.getConnection()) {
+      assertEquals(List.of("99.00", "99.00", "99.00", "99.00", "99.00"), amounts(conn, "orders"));
+    }
+  }
+
+  /**
+   * Runs against the PostgreSQL server named by PGHOST, PGPORT, PGDATABASE, PGUSER and PGPASSWORD, through the
+   * client's own JDBC URL.
+   */
+  @Test
+  @EnabledIfEnvironmentVariable(named = "PGHOST", matches = ".+")
+  void testUpsertAndStringBindingAgainstAServer() throws SQLException {
+    Map<String, String> env = System.getenv();
+    PostgreSQLClient server = new PostgreSQLClient(SECRET_ARN, Map.of("driver", "postgresql",
+      "hostname", env.get("PGHOST"), "port", env.getOrDefault("PGPORT", "5432"),
+      "database", env.getOrDefault("PGDATABASE", "postgres"), "username", env.getOrDefault("PGUSER", "postgres"),
+      "password", env.getOrDefault("PGPASSWORD", "")));
+    String entity = "orders_" + UUID.randomUUID().toString().replace("-", "");
+    try (Connection conn = server.getConnection();
+         Statement st = conn.createStatement()) {
+      st.execute(String.format("CREATE TABLE \"%s\" (\"id\" BIGINT PRIMARY KEY, \"status\" VARCHAR(16), "
+        + "\"amount\" NUMERIC(10,2), \"updated_at\" TIMESTAMP)", entity));
+    }
+    try {
+      // Every value arrives as a string and is cast by the server to the column type.
+      List<WriteRecordResult> inserted = write(server, entity, WriteOperationType.INSERT, List.of("id"), List.of(
+        "{\"id\":\"1\",\"status\":\"new\",\"amount\":\"10.50\",\"updated_at\":\"2024-05-01 10:00:00\"}",
+        "{\"id\":\"2\",\"status\":\"new\",\"amount\":\"20.00\",\"updated_at\":\"2024-05-01 10:00:00\"}"));
+      assertTrue(inserted.stream().allMatch(WriteRecordResult::isSuccess), inserted.toString());
+
+      List<WriteRecordResult> upserted = write(server, entity, WriteOperationType.UPSERT, null, List.of(
+        "{\"id\":\"2\",\"status\":\"paid\",\"amount\":\"25.00\"}",
+        "{\"id\":\"3\",\"status\":\"new\",\"amount\":\"4.00\"}"));
+      assertTrue(upserted.stream().allMatch(WriteRecordResult::isSuccess), upserted.toString());
+
+      assertEquals(List.of(
+        "{\"id\":1,\"status\":\"new\",\"amount\":10.50}",
+        "{\"id\":2,\"status\":\"paid\",\"amount\":25.00}",
+        "{\"id\":3,\"status\":\"new\",\"amount\":4.00}"), readAll(server, entity, Map.of("fetchSize", "1")));
+    } finally {
+      try (Connection conn = server.getConnection();
+           Statement st = conn.createStatement()) {
+        st.execute(String.format("DROP TABLE \"%s\"", entity));
+      }
+    }
+  }
+}
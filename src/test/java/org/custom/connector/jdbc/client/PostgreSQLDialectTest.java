@@ -0,0 +1,51 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.appflow.custom.connector.model.metadata.FieldDataType;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostgreSQLDialectTest {
+  private final SqlDialect dialect = new PostgreSQLDialect();
+
+  @Test
+  void testUpsertUpdatesColumnsOutsideTheKey() {
+    assertEquals("INSERT INTO \"orders\" (\"id\", \"status\") VALUES (?, ?), (?, ?) "
+        + "ON CONFLICT (\"id\") DO UPDATE SET \"status\" = EXCLUDED.\"status\"",
+      dialect.upsert("orders", Arrays.asList("id", "status"), List.of("id"), 2));
+    assertEquals("INSERT INTO \"orders\" (\"id\") VALUES (?) ON CONFLICT (\"id\") DO NOTHING",
+      dialect.upsert("orders", List.of("id"), List.of("id"), 1));
+  }
+
+  @Test
+  void testQuoteEscapesQuotes() {
+    assertEquals("\"odd\"\"name\"", dialect.quote("odd\"name"));
+  }
+
+  @Test
+  void testMapFieldType() {
+    assertEquals(FieldDataType.Long, dialect.mapFieldType("bigint"));
+    assertEquals(FieldDataType.BigDecimal, dialect.mapFieldType("numeric"));
+    assertEquals(FieldDataType.Double, dialect.mapFieldType("double precision"));
+    assertEquals(FieldDataType.DateTime, dialect.mapFieldType("timestamp without time zone"));
+    assertEquals(FieldDataType.ByteArray, dialect.mapFieldType("bytea"));
+    assertEquals(FieldDataType.String, dialect.mapFieldType("character varying"));
+  }
+
+  @Test
+  void testRejectedPasswordIsAnAuthenticationFailure() {
+    assertTrue(dialect.isAuthenticationFailure(
+      new SQLException("password authentication failed for user \"appflow\"", "28P01")));
+    assertFalse(dialect.isAuthenticationFailure(new SQLException("connection refused", "08001")));
+    assertFalse(dialect.isAuthenticationFailure(new SQLException("no state")));
+  }
+}
@@ -0,0 +1,79 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RowEncoderTest {
+  private ResultSet mockResultSet(final int... types) throws SQLException {
+    ResultSet rs = Mockito.mock(ResultSet.class);
+    ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+    for (int i = 0; i < types.length; i++) {
+      Mockito.when(metaData.getColumnType(i + 1)).thenReturn(types[i]);
+      Mockito.when(metaData.isSigned(i + 1)).thenReturn(true);
+    }
+    Mockito.when(rs.getMetaData()).thenReturn(metaData);
+    return rs;
+  }
+
+  @Test
+  void testRowsAreEncodedInColumnOrder() throws SQLException {
+    ResultSet rs = mockResultSet(Types.VARCHAR, Types.VARCHAR);
+    Mockito.when(rs.getString(1)).thenReturn("1", "2");
+    Mockito.when(rs.getString(2)).thenReturn("Sophia \"Sophie\"", (String) null);
+
+    RowEncoder encoder = new RowEncoder(Arrays.asList("id", "firstname"));
+
+    assertEquals("{\"id\":\"1\",\"firstname\":\"Sophia \\\"Sophie\\\"\"}", encoder.encode(rs));
+    assertEquals("{\"id\":\"2\",\"firstname\":null}", encoder.encode(rs));
+  }
+
+  @Test
+  void testValuesKeepTheirColumnType() throws SQLException {
+    ResultSet rs = mockResultSet(Types.BIGINT, Types.DECIMAL, Types.TIMESTAMP, Types.VARBINARY, Types.INTEGER);
+    Mockito.when(rs.getLong(1)).thenReturn(42L);
+    Mockito.when(rs.getBigDecimal(2)).thenReturn(new BigDecimal("19.90"));
+    Mockito.when(rs.getObject(3, LocalDateTime.class)).thenReturn(LocalDateTime.of(2023, 5, 1, 12, 30, 15));
+    Mockito.when(rs.getBytes(4)).thenReturn(new byte[]{1, 2, 3});
+    Mockito.when(rs.getLong(5)).thenReturn(0L);
+    Mockito.when(rs.wasNull()).thenReturn(false, true);
+
+    RowEncoder encoder = new RowEncoder(Arrays.asList("id", "price", "updated_at", "checksum", "age"));
+
+    assertEquals("{\"id\":42,\"price\":19.90,\"updated_at\":\"2023-05-01T12:30:15\",\"checksum\":\"AQID\","
+      + "\"age\":null}", encoder.encode(rs));
+  }
+
+  @Test
+  void testDatesAndTimesOutsideJavaTimeFallBackToText() throws SQLException {
+    ResultSet rs = mockResultSet(Types.DATE, Types.TIMESTAMP, Types.TIME, Types.TIME);
+    Mockito.when(rs.getObject(1, LocalDate.class)).thenThrow(new SQLException("Zero date value prohibited"));
+    Mockito.when(rs.getString(1)).thenReturn("0000-00-00");
+    Mockito.when(rs.getObject(2, LocalDateTime.class)).thenThrow(new SQLException("Zero date value prohibited"));
+    Mockito.when(rs.getString(2)).thenReturn("0000-00-00 00:00:00");
+    Mockito.when(rs.getObject(3, LocalTime.class)).thenThrow(new SQLException("Invalid TIME value"));
+    Mockito.when(rs.getString(3)).thenReturn("838:59:59");
+    Mockito.when(rs.getObject(4, LocalTime.class)).thenThrow(new DateTimeException("Invalid value for HourOfDay"));
+    Mockito.when(rs.getString(4)).thenReturn("-12:30:00");
+
+    RowEncoder encoder = new RowEncoder(Arrays.asList("born", "deleted_at", "elapsed", "offset"));
+
+    assertEquals("{\"born\":null,\"deleted_at\":null,\"elapsed\":\"838:59:59\",\"offset\":\"-12:30:00\"}",
+      encoder.encode(rs));
+  }
+}
@@ -0,0 +1,141 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import com.amazonaws.services.secretsmanager.model.AWSSecretsManagerException;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the cache over the real fetch, against a local stub of the Secrets Manager client of the secret's region.
+ */
+class SecretCacheTest {
+  private static final String REGION = "eu-west-1";
+  private static final String ARN = "arn:aws:secretsmanager:eu-west-1:123456789012:secret:appflow-jdbc";
+
+  private final AtomicLong clock = new AtomicLong();
+  private final List<Runnable> refreshes = new ArrayList<>();
+  private final AWSSecretsManager secretsManager = Mockito.mock(AWSSecretsManager.class);
+  private int fetches;
+
+  @BeforeEach
+  void stubSecretsManager() {
+    // Returns a new password version on every fetch.
+    Mockito.when(secretsManager.getSecretValue(Mockito.any(GetSecretValueRequest.class))).thenAnswer(invocation -> {
+      fetches++;
+      return new GetSecretValueResult().withSecretString(
+        "{\"driver\":\"mysql\",\"port\":3306,\"password\":\"secret-v" + fetches + "\"}");
+    });
+    SecretsManagerHelper.CLIENTS.put(REGION, secretsManager);
+  }
+
+  @AfterEach
+  void removeStub() {
+    SecretsManagerHelper.CLIENTS.remove(REGION);
+  }
+
+  private SecretCache newCache() {
+    return new SecretCache(SecretsManagerHelper::fetchSecret, Duration.ofSeconds(100), refreshes::add, clock::get);
+  }
+
+  @Test
+  void testSecretIsFetchedWithTheClientOfItsRegion() {
+    Map<String, String> secret = newCache().get(ARN);
+
+    ArgumentCaptor<GetSecretValueRequest> request = ArgumentCaptor.forClass(GetSecretValueRequest.class);
+    Mockito.verify(secretsManager).getSecretValue(request.capture());
+    assertEquals(ARN, request.getValue().getSecretId());
+    assertEquals(Map.of("driver", "mysql", "port", "3306", "password", "secret-v1"), secret);
+  }
+
+  @Test
+  void testSecretIsCachedWithinTtl() {
+    SecretCache cache = newCache();
+
+    cache.get(ARN);
+    clock.set(Duration.ofSeconds(50).toNanos());
+    Map<String, String> secret = cache.get(ARN);
+
+    assertEquals(1, fetches);
+    assertEquals("secret-v1", secret.get("password"));
+  }
+
+  @Test
+  void testSecretIsRefreshedAheadOfExpiry() {
+    SecretCache cache = newCache();
+
+    cache.get(ARN);
+    clock.set(Duration.ofSeconds(90).toNanos());
+
+    assertEquals("secret-v1", cache.get(ARN).get("password"));
+    cache.get(ARN);
+    assertEquals(1, refreshes.size());
+
+    refreshes.get(0).run();
+    assertEquals("secret-v2", cache.get(ARN).get("password"));
+    assertEquals(2, fetches);
+  }
+
+  @Test
+  void testFailedRefreshKeepsServingTheSecretAndIsRetried() {
+    SecretCache cache = newCache();
+    cache.get(ARN);
+    clock.set(Duration.ofSeconds(90).toNanos());
+    Mockito.when(secretsManager.getSecretValue(Mockito.any(GetSecretValueRequest.class)))
+      .thenThrow(new AWSSecretsManagerException("Rate exceeded"))
+      .thenReturn(new GetSecretValueResult().withSecretString("{\"password\":\"secret-v2\"}"));
+
+    cache.get(ARN);
+    refreshes.get(0).run();
+
+    assertEquals("secret-v1", cache.get(ARN).get("password"));
+    assertEquals(2, refreshes.size());
+    refreshes.get(1).run();
+    assertEquals("secret-v2", cache.get(ARN).get("password"));
+  }
+
+  @Test
+  void testExpiredSecretIsFetchedAgain() {
+    SecretCache cache = newCache();
+
+    cache.get(ARN);
+    clock.set(Duration.ofSeconds(100).toNanos());
+
+    assertEquals("secret-v2", cache.get(ARN).get("password"));
+    assertEquals(0, refreshes.size());
+  }
+
+  @Test
+  void testInvalidatedSecretIsFetchedAgain() {
+    SecretCache cache = newCache();
+
+    cache.get(ARN);
+    cache.invalidate(ARN);
+
+    assertEquals("secret-v2", cache.get(ARN).get("password"));
+  }
+
+  @Test
+  void testSecretThatIsNotJsonFails() {
+    Mockito.when(secretsManager.getSecretValue(Mockito.any(GetSecretValueRequest.class)))
+      .thenReturn(new GetSecretValueResult().withSecretString("hunter2"));
+
+    assertThrows(IllegalStateException.class, () -> newCache().get(ARN));
+  }
+}
@@ -0,0 +1,50 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TsvRecordStreamTest {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static String render(final List<String> columns, final String... records) throws IOException {
+    JsonNode[] nodes = new JsonNode[records.length];
+    for (int i = 0; i < records.length; i++) {
+      nodes[i] = MAPPER.readTree(records[i]);
+    }
+    try (InputStream stream = new TsvRecordStream(columns, Arrays.asList(nodes).iterator())) {
+      return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  void testLinesFollowTheColumnOrder() throws IOException {
+    assertEquals("1\tSophia\n2\tZo\u00eb\n", render(Arrays.asList("id", "firstname"),
+      "{\"firstname\":\"Sophia\",\"id\":\"1\"}",
+      "{\"id\":2,\"firstname\":\"Zo\u00eb\"}"));
+  }
+
+  @Test
+  void testMissingNullAndEmptyValuesAreNull() throws IOException {
+    assertEquals("1\t\\N\t\\N\t\\N\n", render(Arrays.asList("id", "firstname", "lastname", "email"),
+      "{\"id\":\"1\",\"firstname\":null,\"lastname\":\"\"}"));
+  }
+
+  @Test
+  void testSeparatorsAndBackslashesAreEscaped() throws IOException {
+    assertEquals("a\\tb\\nc\\\\d\\re\\0\t1\t0\t{\"k\":1}\n",
+      render(Arrays.asList("text", "yes", "no", "object"),
+        "{\"text\":\"a\\tb\\nc\\\\d\\re\\u0000\",\"yes\":true,\"no\":false,\"object\":{\"k\":1}}"));
+  }
+}
@@ -0,0 +1,34 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WatermarkStoreTest {
+  private static final List<String> KEY = Arrays.asList("arn", "sales", "orders", "updated_at", "null");
+
+  @Test
+  void testWatermarkSurvivesReload(@TempDir final Path dir) {
+    Path file = dir.resolve("watermarks.properties");
+    new WatermarkStore(file).put(KEY, "2024-05-01 10:00:00");
+
+    WatermarkStore reloaded = new WatermarkStore(file);
+
+    assertEquals("2024-05-01 10:00:00", reloaded.get(KEY));
+    assertNull(reloaded.get(Arrays.asList("arn", "sales", "customers", "updated_at", "null")));
+  }
+
+  @Test
+  void testMissingFileHasNoWatermarks(@TempDir final Path dir) {
+    assertNull(new WatermarkStore(dir.resolve("absent.properties")).get(KEY));
+  }
+}
@@ -0,0 +1,73 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeSettingsTest {
+  @Test
+  void testBlankSettingsTakeTheirDefaults() {
+    RuntimeSettings settings = RuntimeSettings.of(Map.of(JDBCConnectorConfiguration.FETCH_SIZE, " ",
+      JDBCConnectorConfiguration.PARALLELISM, ""));
+    assertNull(settings.getFetchSize());
+    assertNull(settings.getMaxPageSize());
+    assertEquals(RuntimeSettings.DEFAULT_WRITE_BATCH_SIZE, settings.getWriteBatchSize());
+    assertEquals(RuntimeSettings.DEFAULT_BULK_UPDATE_ROWS, settings.getBulkUpdateRows());
+    assertEquals(1, settings.getParallelism());
+    assertEquals(0, settings.getQueryTimeout());
+    assertEquals(RuntimeSettings.Pagination.AUTO, settings.getPagination());
+    assertFalse(settings.isBulkLoad());
+    assertEquals(RuntimeSettings.DEFAULT_COMMIT_BYTES, settings.getCommitBytes());
+    assertEquals(RuntimeSettings.DEFAULT_MAX_PAGE_BYTES, settings.getMaxPageBytes());
+    assertEquals(RuntimeSettings.LobPolicy.FULL, settings.getLobPolicy());
+    assertTrue(RuntimeSettings.validate(null).isEmpty());
+  }
+
+  @Test
+  void testSettingsAreParsed() {
+    RuntimeSettings settings = RuntimeSettings.of(Map.of(JDBCConnectorConfiguration.MAX_PAGE_SIZE, "500",
+      JDBCConnectorConfiguration.PAGINATION, "offset",
+      JDBCConnectorConfiguration.POOL_SIZE, " 4 ",
+      JDBCConnectorConfiguration.CDC, "TRUE",
+      JDBCConnectorConfiguration.BINLOG_START, "mysql-bin.000042:4"));
+    assertEquals(500L, settings.getMaxPageSize());
+    assertEquals(RuntimeSettings.Pagination.OFFSET, settings.getPagination());
+    assertEquals(4, settings.getPoolSize());
+    assertTrue(settings.isChangeDataCapture());
+    assertEquals("mysql-bin.000042:4", settings.getBinlogStart());
+  }
+
+  @Test
+  void testEveryInvalidSettingIsReported() {
+    Map<String, String> errors = RuntimeSettings.validate(Map.of(JDBCConnectorConfiguration.FETCH_SIZE, "0",
+      JDBCConnectorConfiguration.WRITE_BATCH_SIZE, "many",
+      JDBCConnectorConfiguration.BULK_UPDATE_ROWS, "0",
+      JDBCConnectorConfiguration.MAX_PAGE_BYTES, "6000000",
+      JDBCConnectorConfiguration.PAGINATION, "cursor",
+      JDBCConnectorConfiguration.BULK_LOAD, "yes",
+      JDBCConnectorConfiguration.CDC, "true",
+      JDBCConnectorConfiguration.BINLOG_START, "latest",
+      JDBCConnectorConfiguration.INCREMENTAL_FIELD, "updated_at"));
+    assertEquals("Must be a whole number from 1 to 100000", errors.get(JDBCConnectorConfiguration.FETCH_SIZE));
+    assertEquals("Must be a whole number from 1 to 10000", errors.get(JDBCConnectorConfiguration.WRITE_BATCH_SIZE));
+    assertEquals("Must be a whole number from 1 to 1000000", errors.get(JDBCConnectorConfiguration.BULK_UPDATE_ROWS));
+    assertEquals("Must be a whole number from 1024 to 5000000", errors.get(JDBCConnectorConfiguration.MAX_PAGE_BYTES));
+    assertEquals("Must be one of AUTO, KEYSET or OFFSET", errors.get(JDBCConnectorConfiguration.PAGINATION));
+    assertEquals("Must be true or false", errors.get(JDBCConnectorConfiguration.BULK_LOAD));
+    assertTrue(errors.containsKey(JDBCConnectorConfiguration.BINLOG_START));
+    assertTrue(errors.containsKey(JDBCConnectorConfiguration.INCREMENTAL_FIELD));
+    assertEquals(8, errors.size());
+
+    assertThrows(IllegalArgumentException.class,
+      () -> RuntimeSettings.of(Map.of(JDBCConnectorConfiguration.QUERY_TIMEOUT, "901")));
+  }
+}
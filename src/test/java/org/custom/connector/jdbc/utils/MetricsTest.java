@@ -0,0 +1,68 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package org.custom.connector.jdbc.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+  private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  void testLineFollowsEmbeddedMetricFormat() throws Exception {
+    List<String> lines = new ArrayList<>();
+    AtomicLong clock = new AtomicLong();
+    Metrics metrics = new Metrics(lines::add, clock::get);
+    metrics.operation("QueryData");
+    metrics.property("Entity", "orders");
+    for (int page = 0; page < 2; page++) {
+      try (Metrics.Timer ignored = metrics.time("QueryExecution")) {
+        clock.addAndGet(3 * MILLIS);
+      }
+    }
+    metrics.count("Records", 10);
+    metrics.count("Records", 5);
+    metrics.countBytes("RecordBytes", 2048);
+    metrics.gauge("PoolConnections", 3);
+    metrics.stop("ResponseSerialization");
+    metrics.close();
+
+    assertEquals(1, lines.size());
+    JsonNode line = new ObjectMapper().readTree(lines.get(0));
+    JsonNode directive = line.get("_aws").get("CloudWatchMetrics").get(0);
+    assertEquals("Operation", directive.get("Dimensions").get(0).get(0).asText());
+    assertEquals(4, directive.get("Metrics").size());
+    assertEquals("Milliseconds", directive.get("Metrics").get(0).get("Unit").asText());
+    assertEquals("Bytes", directive.get("Metrics").get(2).get("Unit").asText());
+    assertEquals("QueryData", line.get("Operation").asText());
+    assertEquals("orders", line.get("Entity").asText());
+    assertEquals(6.0, line.get("QueryExecution").asDouble());
+    assertEquals(15, line.get("Records").asLong());
+    assertFalse(line.has("ResponseSerialization"));
+  }
+
+  @Test
+  void testWrappedTasksRecordIntoTheInvocation() throws Exception {
+    Metrics metrics = new Metrics(line -> { }, System::nanoTime);
+    assertFalse(Metrics.current().isEnabled());
+    metrics.wrap(() -> {
+      assertSame(metrics, Metrics.current());
+      Metrics.current().count("Records", 1);
+      return null;
+    }).call();
+    assertFalse(Metrics.current().isEnabled());
+    assertTrue(metrics.toEmf(0).contains("\"Records\":1"));
+  }
+}